@@ -1,5 +1,8 @@
 import java.util.Iterator;
+import java.util.ListIterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 
 import components.list.List;
 import components.list.ListSecondary;
@@ -12,6 +15,12 @@ import components.list.ListSecondary;
  * Execution-time performance of all methods implemented in this class is O(1).
  * </p>
  *
+ * <p>
+ * A {@code List3} built with {@code List3(poolCapacity)} keeps the nodes freed
+ * by {@code removeRightFront} on a per-list free list and reuses them in
+ * {@code addRightFront}, so steady-state churn allocates nothing.
+ * </p>
+ *
  * @param <T>
  *            type of {@code List} entries
  * @convention <pre>
@@ -92,6 +101,23 @@ public class List3<T> extends ListSecondary<T> {
      */
     private int rightLength;
 
+    /**
+     * Maximum number of removed nodes kept for reuse, or 0 if nodes are not
+     * recycled.
+     */
+    private int poolCapacity;
+
+    /**
+     * First node of a singly linked (through {@code next}) list of removed
+     * nodes available for reuse by {@code addRightFront}, or {@code null}.
+     */
+    private Node freeNodes;
+
+    /**
+     * Number of nodes in {@code freeNodes}.
+     */
+    private int freeCount;
+
     /**
      * Checks that the part of the convention repeated below holds for the
      * current representation.
@@ -192,11 +218,68 @@ public class List3<T> extends ListSecondary<T> {
 
     }
 
+    /**
+     * Returns a node for a new entry, reusing a removed node if one is
+     * available.
+     *
+     * @return a node with irrelevant fields
+     */
+    private Node obtainNode() {
+        Node n = this.freeNodes;
+        if (n == null) {
+            n = new Node();
+        } else {
+            this.freeNodes = n.next;
+            this.freeCount--;
+        }
+        return n;
+    }
+
+    /**
+     * Keeps {@code n}, which is no longer in the doubly linked list, for
+     * reuse if the pool is not full.
+     *
+     * @param n
+     *            the removed node
+     */
+    private void recycleNode(Node n) {
+        if (this.freeCount < this.poolCapacity) {
+            // drop the references so the pool does not keep entries alive
+            n.data = null;
+            n.previous = null;
+            n.next = this.freeNodes;
+            this.freeNodes = n;
+            this.freeCount++;
+        }
+    }
+
     /**
      * No-argument constructor.
      */
     public List3() {
 
+        this.poolCapacity = 0;
+        this.createNewRep();
+
+        assert this.conventionHolds();
+    }
+
+    /**
+     * Constructor that recycles removed nodes: up to {@code poolCapacity}
+     * nodes freed by {@code removeRightFront} are kept and reused by
+     * {@code addRightFront}, so a queue-like workload whose length stays
+     * within {@code poolCapacity} of its peak allocates no objects once warmed
+     * up.
+     *
+     * @param poolCapacity
+     *            maximum number of removed nodes kept for reuse
+     * @requires poolCapacity >= 0
+     * @ensures this = (<>, <>)
+     */
+    public List3(int poolCapacity) {
+        assert poolCapacity >= 0 : "Violation of: poolCapacity >= 0";
+
+        this.poolCapacity = poolCapacity;
         this.createNewRep();
 
         assert this.conventionHolds();
@@ -206,7 +289,14 @@ public class List3<T> extends ListSecondary<T> {
     @Override
     public final List3<T> newInstance() {
         try {
-            return this.getClass().getConstructor().newInstance();
+            List3<T> result;
+            if (this.poolCapacity > 0) {
+                result = this.getClass().getConstructor(int.class)
+                        .newInstance(this.poolCapacity);
+            } else {
+                result = this.getClass().getConstructor().newInstance();
+            }
+            return result;
         } catch (ReflectiveOperationException e) {
             throw new AssertionError(
                     "Cannot construct object of type " + this.getClass());
@@ -247,7 +337,7 @@ public class List3<T> extends ListSecondary<T> {
          * create a new node and initialize variables to this.postFinish &
          * this.lastLeft
          */
-        Node nodeNew = new Node();
+        Node nodeNew = this.obtainNode();
         Node postFinishCopy = this.postFinish;
         Node lastLeftCopy = this.lastLeft;
 
@@ -307,6 +397,7 @@ public class List3<T> extends ListSecondary<T> {
         }
 
         this.rightLength--;
+        this.recycleNode(rightFront);
 
         assert this.conventionHolds();
 
@@ -405,6 +496,17 @@ public class List3<T> extends ListSecondary<T> {
             return x;
         }
 
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            assert action != null : "Violation of: action is not null";
+            assert List3.this.conventionHolds();
+            // walk the links directly rather than checking per entry in next
+            while (this.current != List3.this.postFinish) {
+                action.accept(this.current.data);
+                this.current = this.current.next;
+            }
+        }
+
         @Override
         public void remove() {
             throw new UnsupportedOperationException(
@@ -449,4 +551,320 @@ public class List3<T> extends ListSecondary<T> {
         assert this.conventionHolds();
     }
 
+    /*
+     * Other methods ----------------------------------------------------------
+     */
+
+    /**
+     * Inserts the entire contents of {@code other} at the front of this.right,
+     * in O(1) time, by relinking its nodes into {@code this}.
+     *
+     * @param other
+     *            the list whose entries are moved into {@code this}
+     * @updates this
+     * @clears other
+     * @requires other is not this
+     * @ensures <pre>
+     * this = (#this.left, #other.left * #other.right * #this.right)
+     * </pre>
+     */
+    public final void splice(List3<T> other) {
+        assert other != null : "Violation of: other is not null";
+        assert other != this : "Violation of: other is not this";
+
+        int otherLength = other.leftLength + other.rightLength;
+        if (otherLength > 0) {
+            Node first = other.preStart.next;
+            Node last = other.postFinish.previous;
+            Node rightFront = this.lastLeft.next;
+
+            // link other's nodes in between lastLeft and the old right front
+            this.lastLeft.next = first;
+            first.previous = this.lastLeft;
+            last.next = rightFront;
+            rightFront.previous = last;
+            this.rightLength += otherLength;
+
+            other.createNewRep();
+        }
+
+        assert this.conventionHolds();
+        assert other.conventionHolds();
+    }
+
+    /**
+     * Detaches this.right from {@code this} and returns it as a new list, in
+     * O(1) time, by relinking its nodes.
+     *
+     * @return a list holding the entries of #this.right, with its position at
+     *         the start
+     * @updates this
+     * @ensures <pre>
+     * this = (#this.left, <>)  and
+     * splitAtCursor = (<>, #this.right)
+     * </pre>
+     */
+    public final List3<T> splitAtCursor() {
+        List3<T> result = this.newInstance();
+
+        if (this.rightLength > 0) {
+            Node first = this.lastLeft.next;
+            Node last = this.postFinish.previous;
+
+            // close this list after lastLeft
+            this.lastLeft.next = this.postFinish;
+            this.postFinish.previous = this.lastLeft;
+
+            // hang the detached nodes between result's smart nodes
+            result.preStart.next = first;
+            first.previous = result.preStart;
+            last.next = result.postFinish;
+            result.postFinish.previous = last;
+            result.rightLength = this.rightLength;
+            this.rightLength = 0;
+        }
+
+        assert this.conventionHolds();
+        assert result.conventionHolds();
+
+        return result;
+    }
+
+    /**
+     * Reports the number of removed nodes kept for reuse by
+     * {@code addRightFront}.
+     *
+     * @return the number of nodes in the pool
+     * @ensures 0 <= pooledNodeCount <= [the pool capacity of this]
+     */
+    public final int pooledNodeCount() {
+        return this.freeCount;
+    }
+
+    /**
+     * Returns a {@code ListIterator} over the entries of {@code this},
+     * positioned at the cursor: {@code next} returns the entries of this.right
+     * in order, and {@code previous} returns the entries of this.left in
+     * reverse order, following the same {@code previous} links as
+     * {@code retreat}. The iterator does not support {@code remove},
+     * {@code set}, or {@code add}, and {@code this} must not be changed while
+     * it is in use.
+     *
+     * @return a list iterator positioned between this.left and this.right
+     * @ensures <pre>
+     * [listIterator's unseen entries before it are this.left and after it are
+     *  this.right]
+     * </pre>
+     */
+    public final ListIterator<T> listIterator() {
+        assert this.conventionHolds();
+        return new List3ListIterator();
+    }
+
+    /**
+     * Implementation of {@code ListIterator} interface for {@code List3}.
+     */
+    private final class List3ListIterator implements ListIterator<T> {
+
+        /**
+         * Node whose data {@code next} returns, or postFinish.
+         */
+        private Node current;
+
+        /**
+         * Index of the entry {@code next} returns.
+         */
+        private int index;
+
+        /**
+         * No-argument constructor.
+         */
+        private List3ListIterator() {
+            this.current = List3.this.lastLeft.next;
+            this.index = List3.this.leftLength;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.current != List3.this.postFinish;
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            T x = this.current.data;
+            this.current = this.current.next;
+            this.index++;
+            return x;
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return this.current.previous != List3.this.preStart;
+        }
+
+        @Override
+        public T previous() {
+            assert this.hasPrevious() : "Violation of: ~this.seen /= <>";
+            if (!this.hasPrevious()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            this.current = this.current.previous;
+            this.index--;
+            return this.current.data;
+        }
+
+        @Override
+        public int nextIndex() {
+            return this.index;
+        }
+
+        @Override
+        public int previousIndex() {
+            return this.index - 1;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            assert action != null : "Violation of: action is not null";
+            while (this.current != List3.this.postFinish) {
+                action.accept(this.current.data);
+                this.current = this.current.next;
+                this.index++;
+            }
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+        @Override
+        public void set(T x) {
+            throw new UnsupportedOperationException(
+                    "set operation not supported");
+        }
+
+        @Override
+        public void add(T x) {
+            throw new UnsupportedOperationException(
+                    "add operation not supported");
+        }
+
+    }
+
+    /**
+     * Returns a {@code Spliterator} over the entries of {@code this}, in
+     * order. It knows its exact size from {@code leftLength + rightLength},
+     * and splits by walking to the midpoint of its range, so that a parallel
+     * stream over a large list can divide the work across cores. {@code this}
+     * must not be changed while it is in use.
+     *
+     * @return a spliterator over this.left * this.right
+     */
+    @Override
+    public final Spliterator<T> spliterator() {
+        assert this.conventionHolds();
+        return new List3Spliterator(this.preStart.next,
+                this.leftLength + this.rightLength);
+    }
+
+    /**
+     * Implementation of {@code Spliterator} interface for {@code List3}.
+     */
+    private final class List3Spliterator implements Spliterator<T> {
+
+        /**
+         * First node not yet traversed.
+         */
+        private Node current;
+
+        /**
+         * Number of nodes, starting at {@code current}, still to traverse.
+         */
+        private int remaining;
+
+        /**
+         * Constructor from the first node and number of nodes of the range.
+         *
+         * @param first
+         *            the first node of the range
+         * @param length
+         *            the number of nodes in the range
+         */
+        private List3Spliterator(Node first, int length) {
+            this.current = first;
+            this.remaining = length;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            assert action != null : "Violation of: action is not null";
+            boolean advanced = this.remaining > 0;
+            if (advanced) {
+                T x = this.current.data;
+                this.current = this.current.next;
+                this.remaining--;
+                action.accept(x);
+            }
+            return advanced;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            assert action != null : "Violation of: action is not null";
+            Node n = this.current;
+            int count = this.remaining;
+            // mark the whole range consumed before running the action
+            this.remaining = 0;
+            while (count > 0) {
+                action.accept(n.data);
+                n = n.next;
+                count--;
+            }
+            this.current = n;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            List3Spliterator prefix = null;
+            int half = this.remaining / 2;
+            if (half > 0) {
+                Node first = this.current;
+                for (int i = 0; i < half; i++) {
+                    this.current = this.current.next;
+                }
+                this.remaining -= half;
+                prefix = new List3Spliterator(first, half);
+            }
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return this.remaining;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED
+                    | Spliterator.SUBSIZED | Spliterator.NONNULL;
+        }
+
+    }
+
 }
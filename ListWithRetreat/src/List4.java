@@ -0,0 +1,585 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.list.List;
+import components.list.ListSecondary;
+
+/**
+ * {@code List} represented as an unrolled doubly linked list: a doubly linked
+ * list of nodes that each hold a small array of entries, with implementations
+ * of primary methods and {@code retreat}, {@code moveToFinish},
+ * {@code rightFront}, and {@code replaceRightFront}.
+ *
+ * <p>
+ * Execution-time performance of all methods implemented in this class is O(1)
+ * (each touches at most a few nodes of at most {@code NODE_CAPACITY} entries).
+ * Compared with {@code List3}, which spends a node with two links on every
+ * entry, nodes here are shared by up to {@code NODE_CAPACITY} entries, so the
+ * space overhead per entry and the number of pointers chased by a traversal
+ * are both several times smaller.
+ * </p>
+ *
+ * @param <T>
+ *            type of {@code List} entries
+ * @convention <pre>
+ * $this.leftLength >= 0  and
+ * $this.rightLength >= 0  and
+ * [$this.preStart and $this.postFinish are not null]  and
+ * [$this.preStart points to the first node of a doubly linked list whose last
+ *  node is pointed to by $this.postFinish]  and
+ * [$this.preStart and $this.postFinish hold no entries, and every other node
+ *  holds between 1 and NODE_CAPACITY entries in entries[0, count)]  and
+ * [the total number of entries in the nodes is
+ *  $this.leftLength + $this.rightLength]  and
+ * [if $this.rightLength > 0 then $this.cursorNode is a node other than
+ *  $this.postFinish and 0 <= $this.cursorIndex < $this.cursorNode.count,
+ *  else $this.cursorNode = $this.postFinish and $this.cursorIndex = 0]  and
+ * [the entries before entries[$this.cursorIndex] of $this.cursorNode number
+ *  $this.leftLength]  and
+ * [for every node n in the doubly linked list of nodes, except the one
+ *  pointed to by $this.preStart, n.previous.next = n]  and
+ * [for every node n in the doubly linked list of nodes, except the one
+ *  pointed to by $this.postFinish, n.next.previous = n]
+ * </pre>
+ * @correspondence <pre>
+ * this =
+ *  ([entries in nodes starting at $this.preStart.next, in order, up to but not
+ *    including entries[$this.cursorIndex] of $this.cursorNode],
+ *   [the remaining entries, in order, through $this.postFinish.previous])
+ * </pre>
+ *
+ * @author Ibrahim Mohamed
+ *
+ */
+public class List4<T> extends ListSecondary<T> {
+
+    /**
+     * Maximum number of entries in a node.
+     */
+    private static final int NODE_CAPACITY = 32;
+
+    /**
+     * Two neighboring nodes are merged when together they hold at most this
+     * many entries; keeping it well below {@code NODE_CAPACITY} means a merge
+     * is never undone by the next split.
+     */
+    private static final int MERGE_THRESHOLD = NODE_CAPACITY / 2;
+
+    /**
+     * Node class for unrolled doubly linked list nodes.
+     */
+    private final class Node {
+
+        /**
+         * Entries in this node, in entries[0, count), or, if this is a "smart"
+         * Node, irrelevant.
+         */
+        private Object[] entries;
+
+        /**
+         * Number of entries in this node.
+         */
+        private int count;
+
+        /**
+         * Next node in doubly linked list, or, if this is a trailing "smart"
+         * Node, irrelevant.
+         */
+        private Node next;
+
+        /**
+         * Previous node in doubly linked list, or, if this is a leading "smart"
+         * Node, irrelevant.
+         */
+        private Node previous;
+
+    }
+
+    /**
+     * "Smart node" before first node of doubly linked list.
+     */
+    private Node preStart;
+
+    /**
+     * "Smart node" after last node of doubly linked list.
+     */
+    private Node postFinish;
+
+    /**
+     * Node holding the front of this.right, or {@code postFinish} if
+     * this.right is empty.
+     */
+    private Node cursorNode;
+
+    /**
+     * Index of the front of this.right in {@code cursorNode.entries}.
+     */
+    private int cursorIndex;
+
+    /**
+     * Length of this.left.
+     */
+    private int leftLength;
+
+    /**
+     * Length of this.right.
+     */
+    private int rightLength;
+
+    /**
+     * Returns a new node holding no entries.
+     *
+     * @return the new node
+     */
+    private Node newDataNode() {
+        Node n = new Node();
+        n.entries = new Object[NODE_CAPACITY];
+        n.count = 0;
+        return n;
+    }
+
+    /**
+     * Links {@code n} into the doubly linked list right after {@code p}.
+     *
+     * @param n
+     *            the node to link in
+     * @param p
+     *            the node to follow
+     */
+    private void linkAfter(Node n, Node p) {
+        n.previous = p;
+        n.next = p.next;
+        p.next.previous = n;
+        p.next = n;
+    }
+
+    /**
+     * Removes {@code n} from the doubly linked list.
+     *
+     * @param n
+     *            the node to unlink
+     */
+    private void unlink(Node n) {
+        n.previous.next = n.next;
+        n.next.previous = n.previous;
+    }
+
+    /**
+     * Reports whether {@code n} holds entries (is not a "smart" node).
+     *
+     * @param n
+     *            the node
+     * @return true if n is neither preStart nor postFinish
+     */
+    private boolean isDataNode(Node n) {
+        return n != this.preStart && n != this.postFinish;
+    }
+
+    /**
+     * Moves all the entries of {@code second} to the end of {@code first} and
+     * unlinks {@code second}, keeping the cursor on the same entry.
+     *
+     * @param first
+     *            the node that absorbs the entries
+     * @param second
+     *            the node right after {@code first}
+     * @requires first.next = second and
+     *           first.count + second.count <= NODE_CAPACITY
+     */
+    private void merge(Node first, Node second) {
+        System.arraycopy(second.entries, 0, first.entries, first.count,
+                second.count);
+        if (this.cursorNode == second) {
+            this.cursorNode = first;
+            this.cursorIndex += first.count;
+        }
+        first.count += second.count;
+        this.unlink(second);
+    }
+
+    /**
+     * Merges {@code n} with a neighbor if together they are small enough, so
+     * that nodes do not stay sparsely filled after removals.
+     *
+     * @param n
+     *            a node holding entries
+     */
+    private void mergeIfSparse(Node n) {
+        if (this.isDataNode(n.next)
+                && n.count + n.next.count <= MERGE_THRESHOLD) {
+            this.merge(n, n.next);
+        } else if (this.isDataNode(n.previous)
+                && n.previous.count + n.count <= MERGE_THRESHOLD) {
+            this.merge(n.previous, n);
+        }
+    }
+
+    /**
+     * Checks that the part of the convention repeated below holds for the
+     * current representation.
+     *
+     * @return true if the convention holds (or if assertion checking is off);
+     *         otherwise reports a violated assertion
+     * @convention <pre>
+     * $this.leftLength >= 0  and
+     * $this.rightLength >= 0  and
+     * [every node other than the smart nodes holds between 1 and
+     *  NODE_CAPACITY entries]  and
+     * [the nodes hold $this.leftLength + $this.rightLength entries]  and
+     * [$this.cursorNode and $this.cursorIndex mark the front of this.right,
+     *  after $this.leftLength entries]  and
+     * [the links between nodes are consistent in both directions]
+     * </pre>
+     */
+    private boolean conventionHolds() {
+        assert this.leftLength >= 0 : "Violation of: $this.leftLength >= 0";
+        assert this.rightLength >= 0 : "Violation of: $this.rightLength >= 0";
+        assert this.preStart != null : "Violation of: $this.preStart is not null";
+        assert this.postFinish != null : ""
+                + "Violation of: $this.postFinish is not null";
+
+        int total = 0;
+        int before = -1;
+        Node n = this.preStart;
+        while (n != this.postFinish) {
+            assert n.next != null && n.next.previous == n : ""
+                    + "Violation of: [for every node n in the doubly linked"
+                    + " list of nodes, except the one pointed to by"
+                    + " $this.postFinish, n.next.previous = n]";
+            n = n.next;
+            if (n == this.cursorNode) {
+                before = total + this.cursorIndex;
+            }
+            if (n != this.postFinish) {
+                assert 0 < n.count && n.count <= NODE_CAPACITY : ""
+                        + "Violation of: [every node holds between 1 and"
+                        + " NODE_CAPACITY entries]";
+                total += n.count;
+            }
+        }
+        assert total == this.leftLength + this.rightLength : ""
+                + "Violation of: [the nodes hold"
+                + " $this.leftLength + $this.rightLength entries]";
+        assert before == this.leftLength : ""
+                + "Violation of: [$this.cursorNode and $this.cursorIndex mark"
+                + " the front of this.right]";
+        if (this.rightLength > 0) {
+            assert this.cursorNode != this.postFinish
+                    && this.cursorIndex < this.cursorNode.count : ""
+                            + "Violation of: [$this.cursorNode holds the front"
+                            + " of this.right]";
+        } else {
+            assert this.cursorNode == this.postFinish
+                    && this.cursorIndex == 0 : ""
+                            + "Violation of: [$this.cursorNode = $this.postFinish"
+                            + " when this.right = <>]";
+        }
+
+        return true;
+    }
+
+    /**
+     * Creator of initial representation.
+     */
+    private void createNewRep() {
+
+        this.preStart = new Node();
+        this.postFinish = new Node();
+        this.preStart.next = this.postFinish;
+        this.postFinish.previous = this.preStart;
+        this.cursorNode = this.postFinish;
+        this.cursorIndex = 0;
+        this.leftLength = 0;
+        this.rightLength = 0;
+
+    }
+
+    /**
+     * No-argument constructor.
+     */
+    public List4() {
+
+        this.createNewRep();
+
+        assert this.conventionHolds();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final List4<T> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep();
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void transferFrom(List<T> source) {
+        assert source instanceof List4<?> : ""
+                + "Violation of: source is of dynamic type List4<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type List4<?>, and
+         * the ? must be T or the call would not have compiled.
+         */
+        List4<T> localSource = (List4<T>) source;
+        this.preStart = localSource.preStart;
+        this.postFinish = localSource.postFinish;
+        this.cursorNode = localSource.cursorNode;
+        this.cursorIndex = localSource.cursorIndex;
+        this.leftLength = localSource.leftLength;
+        this.rightLength = localSource.rightLength;
+        localSource.createNewRep();
+        assert this.conventionHolds();
+        assert localSource.conventionHolds();
+    }
+
+    @Override
+    public final void addRightFront(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        Node n = this.cursorNode;
+        int i = this.cursorIndex;
+        if (i == 0 && this.isDataNode(n.previous)
+                && n.previous.count < NODE_CAPACITY) {
+            /*
+             * the cursor is at a node boundary and the node before it has
+             * room, so x goes at its end without shifting anything
+             */
+            n = n.previous;
+            i = n.count;
+        } else if (!this.isDataNode(n) || n.count == NODE_CAPACITY) {
+            if (this.isDataNode(n)) {
+                // split the full node, moving its upper half to a new node
+                Node upper = this.newDataNode();
+                int half = NODE_CAPACITY / 2;
+                System.arraycopy(n.entries, half, upper.entries, 0,
+                        NODE_CAPACITY - half);
+                Arrays.fill(n.entries, half, NODE_CAPACITY, null);
+                upper.count = NODE_CAPACITY - half;
+                n.count = half;
+                this.linkAfter(upper, n);
+                if (i > half) {
+                    n = upper;
+                    i -= half;
+                }
+            } else {
+                // the cursor is at the end and there is no room before it
+                Node fresh = this.newDataNode();
+                this.linkAfter(fresh, n.previous);
+                n = fresh;
+                i = 0;
+            }
+        }
+
+        // open a slot at index i of n and put x there
+        System.arraycopy(n.entries, i, n.entries, i + 1, n.count - i);
+        n.entries[i] = x;
+        n.count++;
+        this.cursorNode = n;
+        this.cursorIndex = i;
+        this.rightLength++;
+
+        assert this.conventionHolds();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final T removeRightFront() {
+        assert this.rightLength() > 0 : "Violation of: this.right /= <>";
+
+        Node n = this.cursorNode;
+        int i = this.cursorIndex;
+        T removed = (T) n.entries[i];
+
+        // close the slot at index i of n
+        System.arraycopy(n.entries, i + 1, n.entries, i, n.count - i - 1);
+        n.count--;
+        n.entries[n.count] = null;
+        this.rightLength--;
+
+        if (n.count == 0) {
+            this.cursorNode = n.next;
+            this.cursorIndex = 0;
+            this.unlink(n);
+        } else {
+            if (i == n.count) {
+                // n's entries are now all in this.left
+                this.cursorNode = n.next;
+                this.cursorIndex = 0;
+            }
+            this.mergeIfSparse(n);
+        }
+
+        assert this.conventionHolds();
+
+        return removed;
+    }
+
+    @Override
+    public final void advance() {
+        assert this.rightLength() > 0 : "Violation of: this.right /= <>";
+
+        this.cursorIndex++;
+        if (this.cursorIndex == this.cursorNode.count) {
+            this.cursorNode = this.cursorNode.next;
+            this.cursorIndex = 0;
+        }
+        this.leftLength++;
+        this.rightLength--;
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void moveToStart() {
+
+        this.cursorNode = this.preStart.next;
+        this.cursorIndex = 0;
+        this.rightLength += this.leftLength;
+        this.leftLength = 0;
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final int leftLength() {
+
+        assert this.conventionHolds();
+
+        return this.leftLength;
+    }
+
+    @Override
+    public final int rightLength() {
+
+        assert this.conventionHolds();
+
+        return this.rightLength;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        assert this.conventionHolds();
+        return new List4Iterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code List4}.
+     */
+    private final class List4Iterator implements Iterator<T> {
+
+        /**
+         * Current node in the linked list.
+         */
+        private Node current;
+
+        /**
+         * Index of the next entry in {@code current}.
+         */
+        private int index;
+
+        /**
+         * No-argument constructor.
+         */
+        private List4Iterator() {
+            this.current = List4.this.preStart.next;
+            this.index = 0;
+            assert List4.this.conventionHolds();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.current != List4.this.postFinish;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            T x = (T) this.current.entries[this.index];
+            this.index++;
+            if (this.index == this.current.count) {
+                this.current = this.current.next;
+                this.index = 0;
+            }
+            return x;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+    /*
+     * Other methods (overridden for performance reasons) ---------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final T rightFront() {
+        assert this.rightLength() > 0 : "Violation of: this.right /= <>";
+
+        return (T) this.cursorNode.entries[this.cursorIndex];
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final T replaceRightFront(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.rightLength() > 0 : "Violation of: this.right /= <>";
+
+        T replaced = (T) this.cursorNode.entries[this.cursorIndex];
+        this.cursorNode.entries[this.cursorIndex] = x;
+
+        return replaced;
+    }
+
+    @Override
+    public final void moveToFinish() {
+
+        this.cursorNode = this.postFinish;
+        this.cursorIndex = 0;
+        this.leftLength += this.rightLength;
+        this.rightLength = 0;
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void retreat() {
+        assert this.leftLength() > 0 : "Violation of: this.left /= <>";
+
+        if (this.cursorIndex > 0) {
+            this.cursorIndex--;
+        } else {
+            this.cursorNode = this.cursorNode.previous;
+            this.cursorIndex = this.cursorNode.count - 1;
+        }
+        this.leftLength--;
+        this.rightLength++;
+
+        assert this.conventionHolds();
+    }
+
+}
@@ -0,0 +1,358 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.list.List;
+import components.list.ListSecondary;
+
+/**
+ * {@code List} represented as a gap buffer: one array holding this.left at its
+ * start and this.right at its end, with the unused slots (the gap) between
+ * them at the cursor, with implementations of primary methods and
+ * {@code retreat}, {@code moveToFinish}, {@code rightFront}, and
+ * {@code replaceRightFront}.
+ *
+ * <p>
+ * {@code addRightFront} (amortized), {@code removeRightFront},
+ * {@code advance}, {@code retreat}, {@code rightFront}, and
+ * {@code replaceRightFront} take O(1) time, since the cursor is always at the
+ * gap; {@code moveToStart} and {@code moveToFinish} move one side across the
+ * gap with a single {@code System.arraycopy}. There are no nodes at all, so
+ * this suits cursor-centric, text-editor style workloads.
+ * </p>
+ *
+ * @param <T>
+ *            type of {@code List} entries
+ * @convention <pre>
+ * [$this.buffer is not null]  and
+ * 0 <= $this.gapStart <= $this.gapEnd <= |$this.buffer|  and
+ * [entries of $this.buffer in [0, $this.gapStart) and
+ *  [$this.gapEnd, |$this.buffer|) are not null]  and
+ * [entries of $this.buffer in [$this.gapStart, $this.gapEnd) are null]
+ * </pre>
+ * @correspondence <pre>
+ * this = ($this.buffer[0, $this.gapStart),
+ *         $this.buffer[$this.gapEnd, |$this.buffer|))
+ * </pre>
+ *
+ * @author Ibrahim Mohamed
+ *
+ */
+public class List5<T> extends ListSecondary<T> {
+
+    /**
+     * Capacity of the buffer of a new list.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Entries of this.left, then the gap, then entries of this.right.
+     */
+    private Object[] buffer;
+
+    /**
+     * Index of the first slot of the gap, which is also the length of
+     * this.left.
+     */
+    private int gapStart;
+
+    /**
+     * Index of the first slot after the gap, where this.right starts.
+     */
+    private int gapEnd;
+
+    /**
+     * Checks that the part of the convention repeated below holds for the
+     * current representation.
+     *
+     * @return true if the convention holds (or if assertion checking is off);
+     *         otherwise reports a violated assertion
+     * @convention <pre>
+     * [$this.buffer is not null]  and
+     * 0 <= $this.gapStart <= $this.gapEnd <= |$this.buffer|  and
+     * [entries of $this.buffer outside the gap are not null]  and
+     * [entries of $this.buffer in the gap are null]
+     * </pre>
+     */
+    private boolean conventionHolds() {
+        assert this.buffer != null : "Violation of: $this.buffer is not null";
+        assert 0 <= this.gapStart : "Violation of: 0 <= $this.gapStart";
+        assert this.gapStart <= this.gapEnd : ""
+                + "Violation of: $this.gapStart <= $this.gapEnd";
+        assert this.gapEnd <= this.buffer.length : ""
+                + "Violation of: $this.gapEnd <= |$this.buffer|";
+        for (int i = 0; i < this.buffer.length; i++) {
+            boolean inGap = this.gapStart <= i && i < this.gapEnd;
+            assert inGap == (this.buffer[i] == null) : ""
+                    + "Violation of: [entries of $this.buffer are null exactly"
+                    + " in the gap]";
+        }
+        return true;
+    }
+
+    /**
+     * Makes the buffer at least twice as large, keeping this.left at the start
+     * and this.right at the end.
+     *
+     * @ensures |$this.buffer| >= 2 * |#$this.buffer|  and  this = #this
+     */
+    private void grow() {
+        int rightLength = this.buffer.length - this.gapEnd;
+        Object[] larger = new Object[Math.max(INITIAL_CAPACITY,
+                2 * this.buffer.length)];
+        System.arraycopy(this.buffer, 0, larger, 0, this.gapStart);
+        System.arraycopy(this.buffer, this.gapEnd, larger,
+                larger.length - rightLength, rightLength);
+        this.gapEnd = larger.length - rightLength;
+        this.buffer = larger;
+    }
+
+    /**
+     * Creator of initial representation.
+     */
+    private void createNewRep() {
+
+        this.buffer = new Object[INITIAL_CAPACITY];
+        this.gapStart = 0;
+        this.gapEnd = INITIAL_CAPACITY;
+
+    }
+
+    /**
+     * No-argument constructor.
+     */
+    public List5() {
+
+        this.createNewRep();
+
+        assert this.conventionHolds();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final List5<T> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep();
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void transferFrom(List<T> source) {
+        assert source instanceof List5<?> : ""
+                + "Violation of: source is of dynamic type List5<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type List5<?>, and
+         * the ? must be T or the call would not have compiled.
+         */
+        List5<T> localSource = (List5<T>) source;
+        this.buffer = localSource.buffer;
+        this.gapStart = localSource.gapStart;
+        this.gapEnd = localSource.gapEnd;
+        localSource.createNewRep();
+        assert this.conventionHolds();
+        assert localSource.conventionHolds();
+    }
+
+    @Override
+    public final void addRightFront(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        if (this.gapStart == this.gapEnd) {
+            this.grow();
+        }
+        this.gapEnd--;
+        this.buffer[this.gapEnd] = x;
+
+        assert this.conventionHolds();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final T removeRightFront() {
+        assert this.rightLength() > 0 : "Violation of: this.right /= <>";
+
+        T removed = (T) this.buffer[this.gapEnd];
+        this.buffer[this.gapEnd] = null;
+        this.gapEnd++;
+
+        assert this.conventionHolds();
+
+        return removed;
+    }
+
+    @Override
+    public final void advance() {
+        assert this.rightLength() > 0 : "Violation of: this.right /= <>";
+
+        // move the front of this.right across the gap, if there is one
+        if (this.gapStart < this.gapEnd) {
+            this.buffer[this.gapStart] = this.buffer[this.gapEnd];
+            this.buffer[this.gapEnd] = null;
+        }
+        this.gapStart++;
+        this.gapEnd++;
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void moveToStart() {
+
+        // move all of this.left across the gap in one copy
+        int leftLength = this.gapStart;
+        int newGapEnd = this.gapEnd - leftLength;
+        System.arraycopy(this.buffer, 0, this.buffer, newGapEnd, leftLength);
+        Arrays.fill(this.buffer, 0, Math.min(leftLength, newGapEnd), null);
+        this.gapStart = 0;
+        this.gapEnd = newGapEnd;
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final int leftLength() {
+
+        assert this.conventionHolds();
+
+        return this.gapStart;
+    }
+
+    @Override
+    public final int rightLength() {
+
+        assert this.conventionHolds();
+
+        return this.buffer.length - this.gapEnd;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        assert this.conventionHolds();
+        return new List5Iterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code List5}.
+     */
+    private final class List5Iterator implements Iterator<T> {
+
+        /**
+         * Index of the next entry in the buffer.
+         */
+        private int current;
+
+        /**
+         * No-argument constructor.
+         */
+        private List5Iterator() {
+            this.current = 0;
+            this.skipGap();
+            assert List5.this.conventionHolds();
+        }
+
+        /**
+         * Moves {@code current} past the gap if it is at the gap.
+         */
+        private void skipGap() {
+            if (this.current == List5.this.gapStart) {
+                this.current = List5.this.gapEnd;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.current < List5.this.buffer.length;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            T x = (T) List5.this.buffer[this.current];
+            this.current++;
+            this.skipGap();
+            return x;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+    /*
+     * Other methods (overridden for performance reasons) ---------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final T rightFront() {
+        assert this.rightLength() > 0 : "Violation of: this.right /= <>";
+
+        return (T) this.buffer[this.gapEnd];
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final T replaceRightFront(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.rightLength() > 0 : "Violation of: this.right /= <>";
+
+        T replaced = (T) this.buffer[this.gapEnd];
+        this.buffer[this.gapEnd] = x;
+
+        return replaced;
+    }
+
+    @Override
+    public final void moveToFinish() {
+
+        // move all of this.right across the gap in one copy
+        int rightLength = this.buffer.length - this.gapEnd;
+        int newGapStart = this.gapStart + rightLength;
+        System.arraycopy(this.buffer, this.gapEnd, this.buffer, this.gapStart,
+                rightLength);
+        Arrays.fill(this.buffer, Math.max(this.gapEnd, newGapStart),
+                this.buffer.length, null);
+        this.gapStart = newGapStart;
+        this.gapEnd = this.buffer.length;
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void retreat() {
+        assert this.leftLength() > 0 : "Violation of: this.left /= <>";
+
+        // move the back of this.left across the gap, if there is one
+        this.gapStart--;
+        this.gapEnd--;
+        if (this.gapStart < this.gapEnd) {
+            this.buffer[this.gapEnd] = this.buffer[this.gapStart];
+            this.buffer[this.gapStart] = null;
+        }
+
+        assert this.conventionHolds();
+    }
+
+}
@@ -0,0 +1,668 @@
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import components.list.List;
+import components.list.ListSecondary;
+
+/**
+ * {@code List} represented as a zipper over two size-augmented balanced binary
+ * trees (implicit treaps), one holding the front of this.left and one the back
+ * of this.right, with the entries nearest the cursor kept in two buffers of
+ * nodes, with implementations of primary methods and {@code retreat},
+ * {@code moveToFinish}, {@code moveToPosition}, {@code rightFront}, and
+ * {@code replaceRightFront}.
+ *
+ * <p>
+ * Cursor-local operations ({@code addRightFront}, {@code removeRightFront},
+ * {@code advance}, {@code retreat}, {@code rightFront}, and
+ * {@code replaceRightFront}) work on the buffers in amortized O(1) time: when a
+ * buffer runs out, a chunk of about log n nodes is split off the adjoining
+ * tree into it in expected O(log n) time, where n = |this.left| +
+ * |this.right|. {@code moveToPosition}, {@code moveToStart}, and
+ * {@code moveToFinish} build the buffers into trees, join everything, and
+ * split it at the new position, in amortized expected O(log n) time, so
+ * seeking to any index of a large list no longer walks it.
+ * </p>
+ *
+ * @param <T>
+ *            type of {@code List} entries
+ * @mathdefinitions <pre>
+ * IS_TREAP(
+ *   tree: binary tree of nodes
+ *  ): boolean satisfies
+ *  [for every node n in tree, n.priority >= the priority of each child of n,
+ *   and n.size = the number of nodes in the subtree rooted at n]
+ * </pre>
+ * @convention <pre>
+ * IS_TREAP([tree of nodes rooted at $this.leftTree])  and
+ * IS_TREAP([tree of nodes rooted at $this.rightTree])  and
+ * [$this.leftTail and $this.rightHead are not null and contain no null
+ *  nodes]
+ * </pre>
+ * @correspondence <pre>
+ * this =
+ *  ([data in the nodes of the tree rooted at $this.leftTree, in order] *
+ *    [data in the nodes of $this.leftTail, first to last],
+ *   [data in the nodes of $this.rightHead, first to last] *
+ *    [data in the nodes of the tree rooted at $this.rightTree, in order])
+ * </pre>
+ *
+ * @author Ibrahim Mohamed
+ *
+ */
+public class List6<T> extends ListSecondary<T> {
+
+    /**
+     * Smallest number of nodes moved from a tree into an empty buffer.
+     */
+    private static final int MIN_CHUNK = 16;
+
+    /**
+     * Node class for treap nodes.
+     */
+    private final class Node {
+
+        /**
+         * Data in node.
+         */
+        private T data;
+
+        /**
+         * Random priority that keeps the tree balanced in expectation.
+         */
+        private int priority;
+
+        /**
+         * Number of nodes in the subtree rooted at this node.
+         */
+        private int size;
+
+        /**
+         * Left subtree.
+         */
+        private Node left;
+
+        /**
+         * Right subtree.
+         */
+        private Node right;
+
+    }
+
+    /**
+     * Root of the tree holding the front of this.left, or {@code null}.
+     */
+    private Node leftTree;
+
+    /**
+     * Nodes holding the rest of this.left, the last one just left of the
+     * cursor.
+     */
+    private Deque<Node> leftTail;
+
+    /**
+     * Nodes holding the front of this.right, the first one just right of the
+     * cursor.
+     */
+    private Deque<Node> rightHead;
+
+    /**
+     * Root of the tree holding the rest of this.right, or {@code null}.
+     */
+    private Node rightTree;
+
+    /**
+     * State of the pseudo-random generator for node priorities.
+     */
+    private int seed;
+
+    /**
+     * Returns the number of nodes in the subtree rooted at {@code n}.
+     *
+     * @param n
+     *            the root of the subtree, or null
+     * @return the size of the subtree
+     */
+    private int sizeOf(Node n) {
+        int size = 0;
+        if (n != null) {
+            size = n.size;
+        }
+        return size;
+    }
+
+    /**
+     * Recomputes the size of {@code n} from its children.
+     *
+     * @param n
+     *            the node
+     */
+    private void update(Node n) {
+        n.size = 1 + this.sizeOf(n.left) + this.sizeOf(n.right);
+    }
+
+    /**
+     * Returns the next pseudo-random priority (xorshift).
+     *
+     * @return a priority
+     */
+    private int nextPriority() {
+        final int shiftA = 13;
+        final int shiftB = 17;
+        final int shiftC = 5;
+        this.seed ^= this.seed << shiftA;
+        this.seed ^= this.seed >>> shiftB;
+        this.seed ^= this.seed << shiftC;
+        return this.seed;
+    }
+
+    /**
+     * Joins two trees, all of whose entries in {@code a} come before those in
+     * {@code b}.
+     *
+     * @param a
+     *            the root of the first tree, or null
+     * @param b
+     *            the root of the second tree, or null
+     * @return the root of the joined tree
+     */
+    private Node merge(Node a, Node b) {
+        Node result;
+        if (a == null) {
+            result = b;
+        } else if (b == null) {
+            result = a;
+        } else if (a.priority >= b.priority) {
+            a.right = this.merge(a.right, b);
+            this.update(a);
+            result = a;
+        } else {
+            b.left = this.merge(a, b.left);
+            this.update(b);
+            result = b;
+        }
+        return result;
+    }
+
+    /**
+     * Splits the tree rooted at {@code t} into its first {@code pos} entries
+     * and the rest.
+     *
+     * @param t
+     *            the root of the tree, or null
+     * @param pos
+     *            the number of entries in the first part
+     * @return the roots of the two parts
+     * @requires 0 <= pos <= [size of t]
+     */
+    @SuppressWarnings("unchecked")
+    private Node[] split(Node t, int pos) {
+        /*
+         * With "new Node[...]" it does not compile because Node is an inner
+         * class of a generic class; the cast cannot fail.
+         */
+        Node[] halves = (Node[]) new List6<?>.Node[2];
+        if (t != null) {
+            int leftSize = this.sizeOf(t.left);
+            if (pos <= leftSize) {
+                Node[] inner = this.split(t.left, pos);
+                t.left = inner[1];
+                this.update(t);
+                halves[0] = inner[0];
+                halves[1] = t;
+            } else {
+                Node[] inner = this.split(t.right, pos - leftSize - 1);
+                t.right = inner[0];
+                this.update(t);
+                halves[0] = t;
+                halves[1] = inner[1];
+            }
+        }
+        return halves;
+    }
+
+    /**
+     * Builds a tree of the nodes in {@code nodes}, in the same order, in time
+     * linear in their number, and empties {@code nodes}. The nodes keep their
+     * priorities, so the result is as balanced as any treap.
+     *
+     * @param nodes
+     *            the nodes, in list order
+     * @return the root of the tree, or null if {@code nodes} is empty
+     * @clears nodes
+     */
+    private Node build(Deque<Node> nodes) {
+        // right spine of the tree built so far, with the deepest node on top
+        Deque<Node> spine = new ArrayDeque<Node>();
+        while (!nodes.isEmpty()) {
+            Node n = nodes.pollFirst();
+            Node last = null;
+            while (!spine.isEmpty() && spine.peek().priority < n.priority) {
+                // the subtree of a node leaving the spine is complete
+                last = spine.pop();
+                this.update(last);
+            }
+            n.left = last;
+            n.right = null;
+            if (!spine.isEmpty()) {
+                spine.peek().right = n;
+            }
+            spine.push(n);
+        }
+        Node root = null;
+        while (!spine.isEmpty()) {
+            root = spine.pop();
+            this.update(root);
+        }
+        return root;
+    }
+
+    /**
+     * Appends the nodes of the tree rooted at {@code t} to {@code nodes}, in
+     * order, detaching them from one another.
+     *
+     * @param t
+     *            the root of the tree, or null
+     * @param nodes
+     *            the nodes the tree is appended to
+     * @updates nodes
+     */
+    private void flatten(Node t, Deque<Node> nodes) {
+        if (t != null) {
+            Node left = t.left;
+            Node right = t.right;
+            t.left = null;
+            t.right = null;
+            t.size = 1;
+            this.flatten(left, nodes);
+            nodes.addLast(t);
+            this.flatten(right, nodes);
+        }
+    }
+
+    /**
+     * Returns how many nodes to move at once from a tree of {@code size} nodes
+     * into an empty buffer: enough that the expected O(log n) cost of the
+     * split is O(1) per node moved.
+     *
+     * @param size
+     *            the number of nodes in the tree
+     * @return the number of nodes to move
+     * @ensures chunkSize = min(size, MIN_CHUNK + [number of bits in size])
+     */
+    private static int chunkSize(int size) {
+        return Math.min(size,
+                MIN_CHUNK + Integer.SIZE - Integer.numberOfLeadingZeros(size));
+    }
+
+    /**
+     * Refills $this.rightHead from the front of $this.rightTree if it is
+     * empty.
+     *
+     * @updates $this.rightHead, $this.rightTree
+     * @ensures <pre>
+     * [$this.rightHead is not empty, unless $this.rightTree = null]  and
+     * this = #this
+     * </pre>
+     */
+    private void fillRightHead() {
+        if (this.rightHead.isEmpty() && this.rightTree != null) {
+            Node[] halves = this.split(this.rightTree,
+                    chunkSize(this.rightTree.size));
+            this.flatten(halves[0], this.rightHead);
+            this.rightTree = halves[1];
+        }
+    }
+
+    /**
+     * Refills $this.leftTail from the back of $this.leftTree if it is empty.
+     *
+     * @updates $this.leftTail, $this.leftTree
+     * @ensures <pre>
+     * [$this.leftTail is not empty, unless $this.leftTree = null]  and
+     * this = #this
+     * </pre>
+     */
+    private void fillLeftTail() {
+        if (this.leftTail.isEmpty() && this.leftTree != null) {
+            int size = this.leftTree.size;
+            Node[] halves = this.split(this.leftTree, size - chunkSize(size));
+            this.leftTree = halves[0];
+            this.flatten(halves[1], this.leftTail);
+        }
+    }
+
+    /**
+     * Checks that {@code n} and its descendants satisfy IS_TREAP.
+     *
+     * @param n
+     *            the root of the subtree, or null
+     * @return true if the subtree is a treap
+     */
+    private boolean isTreap(Node n) {
+        boolean ok = true;
+        if (n != null) {
+            ok = n.size == 1 + this.sizeOf(n.left) + this.sizeOf(n.right)
+                    && (n.left == null || n.left.priority <= n.priority)
+                    && (n.right == null || n.right.priority <= n.priority)
+                    && this.isTreap(n.left) && this.isTreap(n.right);
+        }
+        return ok;
+    }
+
+    /**
+     * Checks that the part of the convention repeated below holds for the
+     * current representation.
+     *
+     * @return true if the convention holds (or if assertion checking is off);
+     *         otherwise reports a violated assertion
+     * @convention <pre>
+     * IS_TREAP([tree of nodes rooted at $this.leftTree])  and
+     * IS_TREAP([tree of nodes rooted at $this.rightTree])  and
+     * [$this.leftTail and $this.rightHead are not null]
+     * </pre>
+     */
+    private boolean conventionHolds() {
+        assert this.isTreap(this.leftTree) : ""
+                + "Violation of: IS_TREAP([tree rooted at $this.leftTree])";
+        assert this.isTreap(this.rightTree) : ""
+                + "Violation of: IS_TREAP([tree rooted at $this.rightTree])";
+        assert this.leftTail != null : ""
+                + "Violation of: $this.leftTail is not null";
+        assert this.rightHead != null : ""
+                + "Violation of: $this.rightHead is not null";
+        return true;
+    }
+
+    /**
+     * Creator of initial representation.
+     */
+    private void createNewRep() {
+
+        this.leftTree = null;
+        this.leftTail = new ArrayDeque<Node>();
+        this.rightHead = new ArrayDeque<Node>();
+        this.rightTree = null;
+        // xorshift must not start at 0; each list gets its own sequence
+        this.seed = ThreadLocalRandom.current().nextInt() | 1;
+
+    }
+
+    /**
+     * No-argument constructor.
+     */
+    public List6() {
+
+        this.createNewRep();
+
+        assert this.conventionHolds();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final List6<T> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep();
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void transferFrom(List<T> source) {
+        assert source instanceof List6<?> : ""
+                + "Violation of: source is of dynamic type List6<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type List6<?>, and
+         * the ? must be T or the call would not have compiled.
+         */
+        List6<T> localSource = (List6<T>) source;
+        this.leftTree = localSource.leftTree;
+        this.leftTail = localSource.leftTail;
+        this.rightHead = localSource.rightHead;
+        this.rightTree = localSource.rightTree;
+        this.seed = localSource.seed;
+        localSource.createNewRep();
+        assert this.conventionHolds();
+        assert localSource.conventionHolds();
+    }
+
+    @Override
+    public final void addRightFront(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        Node n = new Node();
+        n.data = x;
+        n.priority = this.nextPriority();
+        n.size = 1;
+        this.rightHead.addFirst(n);
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final T removeRightFront() {
+        assert this.rightLength() > 0 : "Violation of: this.right /= <>";
+
+        this.fillRightHead();
+        T removed = this.rightHead.pollFirst().data;
+
+        assert this.conventionHolds();
+
+        return removed;
+    }
+
+    @Override
+    public final void advance() {
+        assert this.rightLength() > 0 : "Violation of: this.right /= <>";
+
+        this.fillRightHead();
+        this.leftTail.addLast(this.rightHead.pollFirst());
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void moveToStart() {
+
+        this.moveToPosition(0);
+
+    }
+
+    @Override
+    public final int leftLength() {
+
+        assert this.conventionHolds();
+
+        return this.sizeOf(this.leftTree) + this.leftTail.size();
+    }
+
+    @Override
+    public final int rightLength() {
+
+        assert this.conventionHolds();
+
+        return this.rightHead.size() + this.sizeOf(this.rightTree);
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        assert this.conventionHolds();
+        return new List6Iterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code List6}.
+     */
+    private final class List6Iterator implements Iterator<T> {
+
+        /**
+         * Nodes whose data and right subtree are still to be visited, with
+         * the next one on top.
+         */
+        private final Deque<Node> pending;
+
+        /**
+         * Iterator over the buffer being visited, or null if visiting a tree.
+         */
+        private Iterator<Node> buffer;
+
+        /**
+         * Which of $this.leftTree, $this.leftTail, $this.rightHead, and
+         * $this.rightTree is being visited, from 0 to 3.
+         */
+        private int part;
+
+        /**
+         * No-argument constructor.
+         */
+        private List6Iterator() {
+            this.pending = new ArrayDeque<Node>();
+            this.pushLeftSpine(List6.this.leftTree);
+            this.part = 0;
+            this.buffer = null;
+            this.skipFinishedParts();
+            assert List6.this.conventionHolds();
+        }
+
+        /**
+         * Pushes {@code n} and every node on its left spine.
+         *
+         * @param n
+         *            the root of the subtree, or null
+         */
+        private void pushLeftSpine(Node n) {
+            Node current = n;
+            while (current != null) {
+                this.pending.push(current);
+                current = current.left;
+            }
+        }
+
+        /**
+         * Moves on from the part being visited while it has nothing left.
+         */
+        private void skipFinishedParts() {
+            final int lastPart = 3;
+            while (this.part < lastPart && this.pending.isEmpty()
+                    && (this.buffer == null || !this.buffer.hasNext())) {
+                this.part++;
+                if (this.part == 1) {
+                    this.buffer = List6.this.leftTail.iterator();
+                } else if (this.part == 2) {
+                    this.buffer = List6.this.rightHead.iterator();
+                } else {
+                    this.buffer = null;
+                    this.pushLeftSpine(List6.this.rightTree);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !this.pending.isEmpty()
+                    || (this.buffer != null && this.buffer.hasNext());
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            Node n;
+            if (this.buffer != null) {
+                n = this.buffer.next();
+            } else {
+                n = this.pending.pop();
+                this.pushLeftSpine(n.right);
+            }
+            this.skipFinishedParts();
+            return n.data;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+    /*
+     * Other methods (overridden for performance reasons) ---------------------
+     */
+
+    @Override
+    public final T rightFront() {
+        assert this.rightLength() > 0 : "Violation of: this.right /= <>";
+
+        this.fillRightHead();
+
+        return this.rightHead.peekFirst().data;
+    }
+
+    @Override
+    public final T replaceRightFront(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.rightLength() > 0 : "Violation of: this.right /= <>";
+
+        this.fillRightHead();
+        Node n = this.rightHead.peekFirst();
+        T replaced = n.data;
+        n.data = x;
+
+        return replaced;
+    }
+
+    @Override
+    public final void moveToFinish() {
+
+        this.moveToPosition(this.leftLength() + this.rightLength());
+
+    }
+
+    @Override
+    public final void retreat() {
+        assert this.leftLength() > 0 : "Violation of: this.left /= <>";
+
+        this.fillLeftTail();
+        this.rightHead.addFirst(this.leftTail.pollLast());
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void moveToPosition(int pos) {
+        assert 0 <= pos : "Violation of: 0 <= pos";
+        assert pos <= this.leftLength() + this.rightLength() : ""
+                + "Violation of: pos <= |this.left| + |this.right|";
+
+        if (pos != this.leftLength()) {
+            Node left = this.merge(this.leftTree, this.build(this.leftTail));
+            Node right = this.merge(this.build(this.rightHead), this.rightTree);
+            Node[] halves = this.split(this.merge(left, right), pos);
+            this.leftTree = halves[0];
+            this.rightTree = halves[1];
+        }
+
+        assert this.conventionHolds();
+    }
+
+}
@@ -0,0 +1,375 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.LongAdder;
+
+import components.list.List;
+import components.list.ListSecondary;
+
+/**
+ * {@code List} represented as two lock-free doubly linked deques, one for
+ * this.left and one for this.right, with implementations of primary methods,
+ * {@code retreat}, and {@code moveToFinish}, plus concurrent operations at the
+ * back of this.right.
+ *
+ * <p>
+ * Both ends of this.right may be used from many threads at once, with no
+ * locks: {@code addRightFront}, {@code removeRightFront},
+ * {@code addRightBack}, {@code pollRightFront}, {@code pollRightBack}, and
+ * {@code rightLength} are all safe to call concurrently, and each links or
+ * unlinks a node with compare-and-set. This supports using a {@code List7} as
+ * a work queue between producer and consumer threads. {@code rightLength} is
+ * exact whenever no update is in progress; while other threads are adding or
+ * removing it is only approximate, but never negative.
+ * </p>
+ *
+ * <p>
+ * The remaining methods ({@code advance}, {@code retreat},
+ * {@code moveToStart}, {@code moveToFinish}, {@code leftLength}, iteration, and
+ * the standard methods) make up the single-owner cursor mode: they behave as
+ * for any {@code List} but must not run concurrently with other calls on the
+ * same list. {@code advance} and {@code retreat} take O(1) time;
+ * {@code moveToStart} and {@code moveToFinish} move one side entry by entry.
+ * </p>
+ *
+ * @param <T>
+ *            type of {@code List} entries
+ * @convention <pre>
+ * [$this.left, $this.right, and $this.rightCount are not null]  and
+ * $this.leftLength = |$this.left|  and
+ * [$this.rightCount sums to |$this.right| when no update is in progress]
+ * </pre>
+ * @correspondence <pre>
+ * this = ([entries of $this.left, first to last],
+ *         [entries of $this.right, first to last])
+ * </pre>
+ *
+ * @author Ibrahim Mohamed
+ *
+ */
+public class List7<T> extends ListSecondary<T> {
+
+    /**
+     * Entries of this.left; the last one is next to the cursor.
+     */
+    private ConcurrentLinkedDeque<T> left;
+
+    /**
+     * Entries of this.right; the first one is next to the cursor.
+     */
+    private ConcurrentLinkedDeque<T> right;
+
+    /**
+     * Length of this.left.
+     */
+    private int leftLength;
+
+    /**
+     * Length of this.right, kept in striped cells so that concurrent updates
+     * do not all contend on one counter.
+     */
+    private LongAdder rightCount;
+
+    /**
+     * Checks that the part of the convention repeated below holds for the
+     * current representation. Only the owner-side part is checked, since
+     * this.right may be changing under other threads.
+     *
+     * @return true if the convention holds (or if assertion checking is off);
+     *         otherwise reports a violated assertion
+     * @convention <pre>
+     * [$this.left, $this.right, and $this.rightCount are not null]  and
+     * $this.leftLength = |$this.left|
+     * </pre>
+     */
+    private boolean conventionHolds() {
+        assert this.left != null : "Violation of: $this.left is not null";
+        assert this.right != null : "Violation of: $this.right is not null";
+        assert this.rightCount != null : ""
+                + "Violation of: $this.rightCount is not null";
+        assert this.leftLength == this.left.size() : ""
+                + "Violation of: $this.leftLength = |$this.left|";
+        return true;
+    }
+
+    /**
+     * Creator of initial representation.
+     */
+    private void createNewRep() {
+
+        this.left = new ConcurrentLinkedDeque<T>();
+        this.right = new ConcurrentLinkedDeque<T>();
+        this.leftLength = 0;
+        this.rightCount = new LongAdder();
+
+    }
+
+    /**
+     * No-argument constructor.
+     */
+    public List7() {
+
+        this.createNewRep();
+
+        assert this.conventionHolds();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final List7<T> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep();
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void transferFrom(List<T> source) {
+        assert source instanceof List7<?> : ""
+                + "Violation of: source is of dynamic type List7<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type List7<?>, and
+         * the ? must be T or the call would not have compiled.
+         */
+        List7<T> localSource = (List7<T>) source;
+        this.left = localSource.left;
+        this.right = localSource.right;
+        this.leftLength = localSource.leftLength;
+        this.rightCount = localSource.rightCount;
+        localSource.createNewRep();
+        assert this.conventionHolds();
+        assert localSource.conventionHolds();
+    }
+
+    @Override
+    public final void addRightFront(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        this.right.offerFirst(x);
+        this.rightCount.increment();
+    }
+
+    @Override
+    public final T removeRightFront() {
+        assert this.rightLength() > 0 : "Violation of: this.right /= <>";
+
+        T removed = this.pollRightFront();
+        if (removed == null) {
+            /*
+             * Another thread emptied this.right after the check above; with
+             * assertion-checking off this is reported like any other
+             * violated precondition on an empty collection.
+             */
+            throw new NoSuchElementException();
+        }
+
+        return removed;
+    }
+
+    @Override
+    public final void advance() {
+        assert this.rightLength() > 0 : "Violation of: this.right /= <>";
+
+        T x = this.pollRightFront();
+        if (x == null) {
+            /*
+             * Another thread emptied this.right after the check above; fail
+             * as removeRightFront does, without moving anything to this.left.
+             */
+            throw new NoSuchElementException();
+        }
+        this.left.offerLast(x);
+        this.leftLength++;
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void moveToStart() {
+
+        while (this.leftLength > 0) {
+            this.right.offerFirst(this.left.pollLast());
+            this.rightCount.increment();
+            this.leftLength--;
+        }
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final int leftLength() {
+
+        assert this.conventionHolds();
+
+        return this.leftLength;
+    }
+
+    @Override
+    public final int rightLength() {
+
+        /*
+         * approximate while other threads update this.right: the striped sum
+         * may miss updates in progress, and briefly count a removal before the
+         * matching addition, but it is never reported as negative
+         */
+        return Math.max(0, this.rightCount.intValue());
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        assert this.conventionHolds();
+        return new List7Iterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code List7}.
+     */
+    private final class List7Iterator implements Iterator<T> {
+
+        /**
+         * Weakly consistent iterator over this.left.
+         */
+        private final Iterator<T> leftIterator;
+
+        /**
+         * Weakly consistent iterator over this.right.
+         */
+        private final Iterator<T> rightIterator;
+
+        /**
+         * No-argument constructor.
+         */
+        private List7Iterator() {
+            this.leftIterator = List7.this.left.iterator();
+            this.rightIterator = List7.this.right.iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.leftIterator.hasNext() || this.rightIterator.hasNext();
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            T next;
+            if (this.leftIterator.hasNext()) {
+                next = this.leftIterator.next();
+            } else {
+                next = this.rightIterator.next();
+            }
+            return next;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+    /*
+     * Other methods (overridden for performance reasons) ---------------------
+     */
+
+    @Override
+    public final void moveToFinish() {
+
+        T x = this.pollRightFront();
+        while (x != null) {
+            this.left.offerLast(x);
+            this.leftLength++;
+            x = this.pollRightFront();
+        }
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void retreat() {
+        assert this.leftLength() > 0 : "Violation of: this.left /= <>";
+
+        this.right.offerFirst(this.left.pollLast());
+        this.rightCount.increment();
+        this.leftLength--;
+
+        assert this.conventionHolds();
+    }
+
+    /*
+     * Concurrent methods -----------------------------------------------------
+     */
+
+    /**
+     * Adds {@code x} at the back of this.right. Safe to call concurrently with
+     * the other concurrent methods.
+     *
+     * @param x
+     *            the entry to be added
+     * @aliases reference {@code x}
+     * @updates this.right
+     * @ensures this.right = #this.right * <x>
+     */
+    public final void addRightBack(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        this.right.offerLast(x);
+        this.rightCount.increment();
+    }
+
+    /**
+     * Removes and returns the front of this.right, or returns {@code null} if
+     * this.right is empty. Safe to call concurrently with the other
+     * concurrent methods; unlike {@code removeRightFront}, it has no
+     * precondition that could be invalidated by another thread.
+     *
+     * @return the removed entry, or null
+     * @updates this.right
+     * @ensures <pre>
+     * if #this.right = <> then
+     *   pollRightFront = null  and  this.right = <>
+     * else
+     *   #this.right = <pollRightFront> * this.right
+     * </pre>
+     */
+    public final T pollRightFront() {
+        T removed = this.right.pollFirst();
+        if (removed != null) {
+            this.rightCount.decrement();
+        }
+        return removed;
+    }
+
+    /**
+     * Removes and returns the back of this.right, or returns {@code null} if
+     * this.right is empty. Safe to call concurrently with the other
+     * concurrent methods.
+     *
+     * @return the removed entry, or null
+     * @updates this.right
+     * @ensures <pre>
+     * if #this.right = <> then
+     *   pollRightBack = null  and  this.right = <>
+     * else
+     *   #this.right = this.right * <pollRightBack>
+     * </pre>
+     */
+    public final T pollRightBack() {
+        T removed = this.right.pollLast();
+        if (removed != null) {
+            this.rightCount.decrement();
+        }
+        return removed;
+    }
+
+}
@@ -0,0 +1,700 @@
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import components.list.List;
+import components.list.ListSecondary;
+
+/**
+ * {@code List} represented as a persistent, size-augmented balanced binary tree
+ * (an implicit treap) of immutable nodes in list order plus the length of
+ * this.left, with implementations of primary methods and {@code retreat},
+ * {@code moveToFinish}, {@code moveToPosition}, {@code rightFront},
+ * {@code replaceRightFront}, {@code append}, {@code snapshot}, and
+ * {@code splitAtCursor}.
+ *
+ * <p>
+ * No existing node is ever modified: every update copies only the nodes on one
+ * or two root-to-leaf paths and shares all other nodes with the previous
+ * version. So {@code snapshot} is O(1), and a snapshot (or an iterator) is an
+ * isolated version that later updates to {@code this} do not affect. Joining
+ * and splitting trees take expected O(log n) time, where n is the total number
+ * of entries, so {@code append} and {@code splitAtCursor} no longer move
+ * entries one at a time. As in {@code List6}, the cursor is just a position,
+ * so {@code advance}, {@code retreat}, {@code moveToStart},
+ * {@code moveToFinish}, and {@code moveToPosition} take O(1) time; the other
+ * kernel methods take expected O(log n) time.
+ * </p>
+ *
+ * @param <T>
+ *            type of {@code List} entries
+ * @mathdefinitions <pre>
+ * IS_TREAP(
+ *   tree: binary tree of nodes
+ *  ): boolean satisfies
+ *  [for every node n in tree, n.priority >= the priority of each child of n,
+ *   and n.size = the number of nodes in the subtree rooted at n]
+ * </pre>
+ * @convention <pre>
+ * IS_TREAP([tree of nodes rooted at $this.root])  and
+ * 0 <= $this.leftLength <= [number of nodes in that tree]
+ * </pre>
+ * @correspondence <pre>
+ * this =
+ *  ([data in the first $this.leftLength nodes of the tree, in order],
+ *   [data in the remaining nodes of the tree, in order])
+ * </pre>
+ *
+ * @author Ibrahim Mohamed
+ *
+ */
+public class List8<T> extends ListSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Immutable treap node; {@code null} is the empty tree.
+     *
+     * @param <T>
+     *            type of node data
+     */
+    private static final class Node<T> {
+
+        /**
+         * Data in node.
+         */
+        private final T data;
+
+        /**
+         * Random priority that keeps the tree balanced in expectation.
+         */
+        private final int priority;
+
+        /**
+         * Left subtree.
+         */
+        private final Node<T> left;
+
+        /**
+         * Right subtree.
+         */
+        private final Node<T> right;
+
+        /**
+         * Number of nodes in the subtree rooted at this node.
+         */
+        private final int size;
+
+        /**
+         * Constructor from data, priority, and subtrees.
+         *
+         * @param data
+         *            the data
+         * @param priority
+         *            the priority
+         * @param left
+         *            the left subtree
+         * @param right
+         *            the right subtree
+         */
+        private Node(T data, int priority, Node<T> left, Node<T> right) {
+            this.data = data;
+            this.priority = priority;
+            this.left = left;
+            this.right = right;
+            this.size = 1 + sizeOf(left) + sizeOf(right);
+        }
+
+    }
+
+    /**
+     * Root of the current version of the tree, or {@code null} if this is
+     * empty.
+     */
+    private Node<T> root;
+
+    /**
+     * Length of this.left.
+     */
+    private int leftLength;
+
+    /**
+     * State of the pseudo-random generator for node priorities.
+     */
+    private int seed;
+
+    /**
+     * Returns the number of nodes in the tree rooted at {@code t}.
+     *
+     * @param <T>
+     *            type of node data
+     * @param t
+     *            the root of the tree, or null
+     * @return the size of the tree
+     */
+    private static <T> int sizeOf(Node<T> t) {
+        int size = 0;
+        if (t != null) {
+            size = t.size;
+        }
+        return size;
+    }
+
+    /**
+     * Returns the next pseudo-random priority (xorshift).
+     *
+     * @return a priority
+     */
+    private int nextPriority() {
+        final int shiftA = 13;
+        final int shiftB = 17;
+        final int shiftC = 5;
+        this.seed ^= this.seed << shiftA;
+        this.seed ^= this.seed >>> shiftB;
+        this.seed ^= this.seed << shiftC;
+        return this.seed;
+    }
+
+    /**
+     * Returns the tree of the entries of {@code a} followed by those of
+     * {@code b}, copying only the nodes on the seam between them.
+     *
+     * @param <T>
+     *            type of node data
+     * @param a
+     *            the root of the first tree, or null
+     * @param b
+     *            the root of the second tree, or null
+     * @return the root of the joined tree
+     */
+    private static <T> Node<T> merge(Node<T> a, Node<T> b) {
+        Node<T> result;
+        if (a == null) {
+            result = b;
+        } else if (b == null) {
+            result = a;
+        } else if (a.priority >= b.priority) {
+            result = new Node<T>(a.data, a.priority, a.left,
+                    merge(a.right, b));
+        } else {
+            result = new Node<T>(b.data, b.priority, merge(a, b.left),
+                    b.right);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the trees of the first {@code pos} entries of the tree rooted at
+     * {@code t} and of the rest, copying only the nodes on the path to
+     * {@code pos}.
+     *
+     * @param <T>
+     *            type of node data
+     * @param t
+     *            the root of the tree, or null
+     * @param pos
+     *            the number of entries in the first part
+     * @return the roots of the two parts
+     * @requires 0 <= pos <= [size of t]
+     */
+    private static <T> Node<T>[] split(Node<T> t, int pos) {
+        /*
+         * With "new Node<T>[...]" it does not compile because T is a type
+         * parameter; the cast cannot fail.
+         */
+        @SuppressWarnings("unchecked")
+        Node<T>[] halves = (Node<T>[]) new Node<?>[2];
+        if (t != null) {
+            int leftSize = sizeOf(t.left);
+            if (pos <= leftSize) {
+                Node<T>[] inner = split(t.left, pos);
+                halves[0] = inner[0];
+                halves[1] = new Node<T>(t.data, t.priority, inner[1],
+                        t.right);
+            } else {
+                Node<T>[] inner = split(t.right, pos - leftSize - 1);
+                halves[0] = new Node<T>(t.data, t.priority, t.left,
+                        inner[0]);
+                halves[1] = inner[1];
+            }
+        }
+        return halves;
+    }
+
+    /**
+     * Returns the tree rooted at {@code t} with {@code x} inserted as the entry
+     * at index {@code pos}.
+     *
+     * @param <T>
+     *            type of node data
+     * @param t
+     *            the root of the tree, or null
+     * @param x
+     *            the entry to insert
+     * @param priority
+     *            the priority of the new node
+     * @param pos
+     *            the index for the new entry
+     * @return the root of the updated tree
+     * @requires 0 <= pos <= [size of t]
+     */
+    private static <T> Node<T> insertAt(Node<T> t, T x, int priority,
+            int pos) {
+        Node<T> result;
+        if (t == null) {
+            result = new Node<T>(x, priority, null, null);
+        } else if (priority > t.priority) {
+            // the new node belongs above t: split t around pos
+            Node<T>[] halves = split(t, pos);
+            result = new Node<T>(x, priority, halves[0], halves[1]);
+        } else {
+            int leftSize = sizeOf(t.left);
+            if (pos <= leftSize) {
+                result = new Node<T>(t.data, t.priority,
+                        insertAt(t.left, x, priority, pos), t.right);
+            } else {
+                result = new Node<T>(t.data, t.priority, t.left,
+                        insertAt(t.right, x, priority, pos - leftSize - 1));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the tree rooted at {@code t} without the entry at index
+     * {@code pos}.
+     *
+     * @param <T>
+     *            type of node data
+     * @param t
+     *            the root of the tree
+     * @param pos
+     *            the index of the entry to remove
+     * @return the root of the updated tree
+     * @requires 0 <= pos < [size of t]
+     */
+    private static <T> Node<T> removeAt(Node<T> t, int pos) {
+        Node<T> result;
+        int leftSize = sizeOf(t.left);
+        if (pos < leftSize) {
+            result = new Node<T>(t.data, t.priority, removeAt(t.left, pos),
+                    t.right);
+        } else if (pos > leftSize) {
+            result = new Node<T>(t.data, t.priority, t.left,
+                    removeAt(t.right, pos - leftSize - 1));
+        } else {
+            result = merge(t.left, t.right);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the tree rooted at {@code t} with the entry at index {@code pos}
+     * replaced by {@code x}.
+     *
+     * @param <T>
+     *            type of node data
+     * @param t
+     *            the root of the tree
+     * @param x
+     *            the new entry
+     * @param pos
+     *            the index of the entry to replace
+     * @return the root of the updated tree
+     * @requires 0 <= pos < [size of t]
+     */
+    private static <T> Node<T> replaceAt(Node<T> t, T x, int pos) {
+        Node<T> result;
+        int leftSize = sizeOf(t.left);
+        if (pos < leftSize) {
+            result = new Node<T>(t.data, t.priority, replaceAt(t.left, x, pos),
+                    t.right);
+        } else if (pos > leftSize) {
+            result = new Node<T>(t.data, t.priority, t.left,
+                    replaceAt(t.right, x, pos - leftSize - 1));
+        } else {
+            result = new Node<T>(x, t.priority, t.left, t.right);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the node at index {@code pos} of the tree.
+     *
+     * @param pos
+     *            the index
+     * @return the node
+     * @requires 0 <= pos < [size of $this.root]
+     */
+    private Node<T> nodeAt(int pos) {
+        Node<T> n = this.root;
+        int i = pos;
+        int leftSize = sizeOf(n.left);
+        while (i != leftSize) {
+            if (i < leftSize) {
+                n = n.left;
+            } else {
+                i -= leftSize + 1;
+                n = n.right;
+            }
+            leftSize = sizeOf(n.left);
+        }
+        return n;
+    }
+
+    /**
+     * Checks that {@code t} and its descendants satisfy IS_TREAP.
+     *
+     * @param t
+     *            the root of the subtree, or null
+     * @return true if the subtree is a treap
+     */
+    private static boolean isTreap(Node<?> t) {
+        boolean ok = true;
+        if (t != null) {
+            ok = t.size == 1 + sizeOf(t.left) + sizeOf(t.right)
+                    && (t.left == null || t.left.priority <= t.priority)
+                    && (t.right == null || t.right.priority <= t.priority)
+                    && isTreap(t.left) && isTreap(t.right);
+        }
+        return ok;
+    }
+
+    /**
+     * Checks that the part of the convention repeated below holds for the
+     * current representation.
+     *
+     * @return true if the convention holds (or if assertion checking is off);
+     *         otherwise reports a violated assertion
+     * @convention <pre>
+     * IS_TREAP([tree of nodes rooted at $this.root])  and
+     * 0 <= $this.leftLength <= [number of nodes in that tree]
+     * </pre>
+     */
+    private boolean conventionHolds() {
+        assert isTreap(this.root) : ""
+                + "Violation of: IS_TREAP([tree of nodes rooted at $this.root])";
+        assert 0 <= this.leftLength : "Violation of: 0 <= $this.leftLength";
+        assert this.leftLength <= sizeOf(this.root) : ""
+                + "Violation of: $this.leftLength <= [number of nodes]";
+        return true;
+    }
+
+    /**
+     * Creator of initial representation.
+     */
+    private void createNewRep() {
+
+        this.root = null;
+        this.leftLength = 0;
+        // xorshift must not start at 0; each list gets its own sequence
+        this.seed = ThreadLocalRandom.current().nextInt() | 1;
+
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public List8() {
+
+        this.createNewRep();
+
+        assert this.conventionHolds();
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final List8<T> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep();
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void transferFrom(List<T> source) {
+        assert source instanceof List8<?> : ""
+                + "Violation of: source is of dynamic type List8<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type List8<?>, and
+         * the ? must be T or the call would not have compiled.
+         */
+        List8<T> localSource = (List8<T>) source;
+        this.root = localSource.root;
+        this.leftLength = localSource.leftLength;
+        this.seed = localSource.seed;
+        localSource.createNewRep();
+        assert this.conventionHolds();
+        assert localSource.conventionHolds();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void addRightFront(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        this.root = insertAt(this.root, x, this.nextPriority(),
+                this.leftLength);
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final T removeRightFront() {
+        assert this.rightLength() > 0 : "Violation of: this.right /= <>";
+
+        T removed = this.nodeAt(this.leftLength).data;
+        this.root = removeAt(this.root, this.leftLength);
+
+        assert this.conventionHolds();
+
+        return removed;
+    }
+
+    @Override
+    public final void advance() {
+        assert this.rightLength() > 0 : "Violation of: this.right /= <>";
+
+        this.leftLength++;
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void moveToStart() {
+
+        this.leftLength = 0;
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final int leftLength() {
+
+        assert this.conventionHolds();
+
+        return this.leftLength;
+    }
+
+    @Override
+    public final int rightLength() {
+
+        assert this.conventionHolds();
+
+        return sizeOf(this.root) - this.leftLength;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        assert this.conventionHolds();
+        return new List8Iterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code List8}. It walks
+     * the version of the tree current when it was created, so later updates
+     * to {@code this} do not affect it.
+     */
+    private final class List8Iterator implements Iterator<T> {
+
+        /**
+         * Nodes whose data and right subtree are still to be visited, with
+         * the next one on top.
+         */
+        private final Deque<Node<T>> pending;
+
+        /**
+         * No-argument constructor.
+         */
+        private List8Iterator() {
+            this.pending = new ArrayDeque<Node<T>>();
+            this.pushLeftSpine(List8.this.root);
+            assert List8.this.conventionHolds();
+        }
+
+        /**
+         * Pushes {@code n} and every node on its left spine.
+         *
+         * @param n
+         *            the root of the subtree, or null
+         */
+        private void pushLeftSpine(Node<T> n) {
+            Node<T> current = n;
+            while (current != null) {
+                this.pending.push(current);
+                current = current.left;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !this.pending.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            Node<T> n = this.pending.pop();
+            this.pushLeftSpine(n.right);
+            return n.data;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+    /*
+     * Other methods (overridden for performance reasons) ---------------------
+     */
+
+    @Override
+    public final T rightFront() {
+        assert this.rightLength() > 0 : "Violation of: this.right /= <>";
+
+        return this.nodeAt(this.leftLength).data;
+    }
+
+    @Override
+    public final T replaceRightFront(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.rightLength() > 0 : "Violation of: this.right /= <>";
+
+        T replaced = this.nodeAt(this.leftLength).data;
+        this.root = replaceAt(this.root, x, this.leftLength);
+
+        assert this.conventionHolds();
+
+        return replaced;
+    }
+
+    @Override
+    public final void moveToFinish() {
+
+        this.leftLength = sizeOf(this.root);
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void retreat() {
+        assert this.leftLength() > 0 : "Violation of: this.left /= <>";
+
+        this.leftLength--;
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void moveToPosition(int pos) {
+        assert 0 <= pos : "Violation of: 0 <= pos";
+        assert pos <= this.leftLength() + this.rightLength() : ""
+                + "Violation of: pos <= |this.left| + |this.right|";
+
+        this.leftLength = pos;
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void append(List<T> extension) {
+        assert extension != null : "Violation of: extension is not null";
+        assert extension != this : "Violation of: extension is not this";
+
+        if (extension instanceof List8<?>) {
+            // join the two trees directly, sharing all of extension's nodes
+            List8<T> localExtension = (List8<T>) extension;
+            this.root = merge(this.root, localExtension.root);
+            localExtension.clear();
+        } else {
+            super.append(extension);
+        }
+
+        assert this.conventionHolds();
+    }
+
+    /*
+     * Other methods ----------------------------------------------------------
+     */
+
+    /**
+     * Returns an independent copy of {@code this}, in O(1) time, by sharing
+     * the current version of the tree. Later updates to either list do not
+     * affect the other.
+     *
+     * @return a copy of this
+     * @ensures snapshot = this
+     */
+    public final List8<T> snapshot() {
+        List8<T> copy = this.newInstance();
+        copy.root = this.root;
+        copy.leftLength = this.leftLength;
+        copy.seed = this.nextPriority();
+
+        assert copy.conventionHolds();
+
+        return copy;
+    }
+
+    /**
+     * Detaches this.right from {@code this} and returns it as a new list, in
+     * expected O(log n) time, by splitting the tree.
+     *
+     * @return a list holding the entries of #this.right, with its position at
+     *         the start
+     * @updates this
+     * @ensures <pre>
+     * this = (#this.left, <>)  and
+     * splitAtCursor = (<>, #this.right)
+     * </pre>
+     */
+    public final List8<T> splitAtCursor() {
+        List8<T> result = this.newInstance();
+        result.seed = this.nextPriority();
+
+        Node<T>[] halves = split(this.root, this.leftLength);
+        this.root = halves[0];
+        result.root = halves[1];
+
+        assert this.conventionHolds();
+        assert result.conventionHolds();
+
+        return result;
+    }
+
+}
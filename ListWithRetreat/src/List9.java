@@ -0,0 +1,393 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.list.List;
+import components.list.ListSecondary;
+
+/**
+ * {@code List} represented as a circular array (a ring buffer) of entries in
+ * list order plus the length of this.left, with implementations of primary
+ * methods and {@code retreat}, {@code moveToFinish}, {@code moveToPosition},
+ * {@code rightFront}, and {@code replaceRightFront}.
+ *
+ * <p>
+ * The cursor is an index into the ring, so {@code advance}, {@code retreat},
+ * {@code moveToStart}, {@code moveToFinish}, {@code moveToPosition},
+ * {@code rightFront}, and {@code replaceRightFront} take O(1) time.
+ * {@code addRightFront} and {@code removeRightFront} shift whichever of
+ * this.left and this.right is shorter by one slot, wrapping around the ring,
+ * so they take amortized O(1) time when the cursor is near either end and
+ * O(min(|this.left|, |this.right|)) in general. There is no node per entry.
+ * The array doubles when full and halves when no more than a quarter full.
+ * </p>
+ *
+ * @param <T>
+ *            type of {@code List} entries
+ * @convention <pre>
+ * [|$this.entries| is a power of 2 and >= INITIAL_CAPACITY]  and
+ * 0 <= $this.head < |$this.entries|  and
+ * 0 <= $this.leftLength <= $this.length <= |$this.entries|  and
+ * [the $this.length slots of $this.entries starting at $this.head, wrapping
+ *  around, are not null, and all other slots are null]
+ * </pre>
+ * @correspondence <pre>
+ * this =
+ *  ([entries in the first $this.leftLength of those slots, in order],
+ *   [entries in the remaining slots, in order])
+ * </pre>
+ *
+ * @author Ibrahim Mohamed
+ *
+ */
+public class List9<T> extends ListSecondary<T> {
+
+    /**
+     * Capacity of the ring of a new list; a power of 2.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Ratio of capacity to length at or above which the ring shrinks.
+     */
+    private static final int SHRINK_RATIO = 4;
+
+    /**
+     * The ring of entries.
+     */
+    private Object[] entries;
+
+    /**
+     * Slot of the first entry of the list.
+     */
+    private int head;
+
+    /**
+     * Number of entries in the list.
+     */
+    private int length;
+
+    /**
+     * Length of this.left.
+     */
+    private int leftLength;
+
+    /**
+     * Returns the slot of the entry at index {@code i} of the list.
+     *
+     * @param i
+     *            the index, which may be -1 or |this| (for the slots just
+     *            outside the list)
+     * @return the slot in the ring
+     */
+    private int slot(int i) {
+        return (this.head + i) & (this.entries.length - 1);
+    }
+
+    /**
+     * Replaces the ring with one of {@code capacity} slots, moving the entries
+     * to its start.
+     *
+     * @param capacity
+     *            the new capacity
+     * @requires [capacity is a power of 2]  and  $this.length <= capacity
+     */
+    private void resize(int capacity) {
+        Object[] resized = new Object[capacity];
+        int firstPart = Math.min(this.length, this.entries.length - this.head);
+        System.arraycopy(this.entries, this.head, resized, 0, firstPart);
+        System.arraycopy(this.entries, 0, resized, firstPart,
+                this.length - firstPart);
+        this.entries = resized;
+        this.head = 0;
+    }
+
+    /**
+     * Checks that the part of the convention repeated below holds for the
+     * current representation.
+     *
+     * @return true if the convention holds (or if assertion checking is off);
+     *         otherwise reports a violated assertion
+     * @convention <pre>
+     * [|$this.entries| is a power of 2 and >= INITIAL_CAPACITY]  and
+     * 0 <= $this.head < |$this.entries|  and
+     * 0 <= $this.leftLength <= $this.length <= |$this.entries|  and
+     * [exactly the $this.length slots starting at $this.head are not null]
+     * </pre>
+     */
+    private boolean conventionHolds() {
+        int capacity = this.entries.length;
+        assert capacity >= INITIAL_CAPACITY
+                && (capacity & (capacity - 1)) == 0 : ""
+                        + "Violation of: [|$this.entries| is a power of 2 and"
+                        + " >= INITIAL_CAPACITY]";
+        assert 0 <= this.head && this.head < capacity : ""
+                + "Violation of: 0 <= $this.head < |$this.entries|";
+        assert 0 <= this.leftLength : "Violation of: 0 <= $this.leftLength";
+        assert this.leftLength <= this.length : ""
+                + "Violation of: $this.leftLength <= $this.length";
+        assert this.length <= capacity : ""
+                + "Violation of: $this.length <= |$this.entries|";
+        for (int i = 0; i < capacity; i++) {
+            boolean inList = i < this.length;
+            assert inList == (this.entries[this.slot(i)] != null) : ""
+                    + "Violation of: [exactly the $this.length slots starting"
+                    + " at $this.head are not null]";
+        }
+        return true;
+    }
+
+    /**
+     * Creator of initial representation.
+     */
+    private void createNewRep() {
+
+        this.entries = new Object[INITIAL_CAPACITY];
+        this.head = 0;
+        this.length = 0;
+        this.leftLength = 0;
+
+    }
+
+    /**
+     * No-argument constructor.
+     */
+    public List9() {
+
+        this.createNewRep();
+
+        assert this.conventionHolds();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final List9<T> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep();
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void transferFrom(List<T> source) {
+        assert source instanceof List9<?> : ""
+                + "Violation of: source is of dynamic type List9<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type List9<?>, and
+         * the ? must be T or the call would not have compiled.
+         */
+        List9<T> localSource = (List9<T>) source;
+        this.entries = localSource.entries;
+        this.head = localSource.head;
+        this.length = localSource.length;
+        this.leftLength = localSource.leftLength;
+        localSource.createNewRep();
+        assert this.conventionHolds();
+        assert localSource.conventionHolds();
+    }
+
+    @Override
+    public final void addRightFront(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        if (this.length == this.entries.length) {
+            this.resize(2 * this.entries.length);
+        }
+        if (this.leftLength < this.length - this.leftLength) {
+            // shift this.left one slot back, into the slot before head
+            this.head = this.slot(-1);
+            for (int i = 0; i < this.leftLength; i++) {
+                this.entries[this.slot(i)] = this.entries[this.slot(i + 1)];
+            }
+        } else {
+            // shift this.right one slot forward
+            for (int i = this.length; i > this.leftLength; i--) {
+                this.entries[this.slot(i)] = this.entries[this.slot(i - 1)];
+            }
+        }
+        this.entries[this.slot(this.leftLength)] = x;
+        this.length++;
+
+        assert this.conventionHolds();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final T removeRightFront() {
+        assert this.rightLength() > 0 : "Violation of: this.right /= <>";
+
+        T removed = (T) this.entries[this.slot(this.leftLength)];
+        if (this.leftLength < this.length - this.leftLength - 1) {
+            // shift this.left one slot forward, over the removed entry
+            for (int i = this.leftLength; i > 0; i--) {
+                this.entries[this.slot(i)] = this.entries[this.slot(i - 1)];
+            }
+            this.entries[this.head] = null;
+            this.head = this.slot(1);
+        } else {
+            // shift the rest of this.right one slot back
+            for (int i = this.leftLength + 1; i < this.length; i++) {
+                this.entries[this.slot(i - 1)] = this.entries[this.slot(i)];
+            }
+            this.entries[this.slot(this.length - 1)] = null;
+        }
+        this.length--;
+        if (this.entries.length > INITIAL_CAPACITY
+                && SHRINK_RATIO * this.length <= this.entries.length) {
+            this.resize(this.entries.length / 2);
+        }
+
+        assert this.conventionHolds();
+
+        return removed;
+    }
+
+    @Override
+    public final void advance() {
+        assert this.rightLength() > 0 : "Violation of: this.right /= <>";
+
+        this.leftLength++;
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void moveToStart() {
+
+        this.leftLength = 0;
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final int leftLength() {
+
+        assert this.conventionHolds();
+
+        return this.leftLength;
+    }
+
+    @Override
+    public final int rightLength() {
+
+        assert this.conventionHolds();
+
+        return this.length - this.leftLength;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        assert this.conventionHolds();
+        return new List9Iterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code List9}.
+     */
+    private final class List9Iterator implements Iterator<T> {
+
+        /**
+         * Index in the list of the next entry.
+         */
+        private int current;
+
+        /**
+         * No-argument constructor.
+         */
+        private List9Iterator() {
+            this.current = 0;
+            assert List9.this.conventionHolds();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.current < List9.this.length;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            T x = (T) List9.this.entries[List9.this.slot(this.current)];
+            this.current++;
+            return x;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+    /*
+     * Other methods (overridden for performance reasons) ---------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final T rightFront() {
+        assert this.rightLength() > 0 : "Violation of: this.right /= <>";
+
+        return (T) this.entries[this.slot(this.leftLength)];
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final T replaceRightFront(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.rightLength() > 0 : "Violation of: this.right /= <>";
+
+        int front = this.slot(this.leftLength);
+        T replaced = (T) this.entries[front];
+        this.entries[front] = x;
+
+        return replaced;
+    }
+
+    @Override
+    public final void moveToFinish() {
+
+        this.leftLength = this.length;
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void retreat() {
+        assert this.leftLength() > 0 : "Violation of: this.left /= <>";
+
+        this.leftLength--;
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void moveToPosition(int pos) {
+        assert 0 <= pos : "Violation of: 0 <= pos";
+        assert pos <= this.leftLength() + this.rightLength() : ""
+                + "Violation of: pos <= |this.left| + |this.right|";
+
+        this.leftLength = pos;
+
+        assert this.conventionHolds();
+    }
+
+}
@@ -0,0 +1,427 @@
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+import components.list.List;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Compares the footprint and the cursor-editing throughput of {@code List}
+ * implementations against {@code List3}.
+ *
+ * <p>
+ * The footprint is the growth of the used heap, in bytes per entry, while
+ * {@code SIZE} entries (all the same object, so only the list itself is
+ * measured) are held in one list. The editing workload mimics typing in a
+ * text editor: append {@code SIZE} entries at the cursor, then repeatedly
+ * retreat a few places, insert a word, and delete part of it. It runs once
+ * with all edits near the cursor, and once also jumping to either end every
+ * {@code JUMP_PERIOD} edits, which takes linear time in a gap buffer. The
+ * queue workload only touches the ends: it keeps {@code QUEUE_LENGTH} entries
+ * and repeatedly adds one at the finish and removes one at the start. The
+ * contention workload runs the queue workload from 1, 2, 4, ...
+ * {@code MAX_THREADS} threads at once on one shared queue, each thread
+ * passing {@code HANDOFFS_PER_THREAD} entries through it; {@code List7} is
+ * called without locks, and {@code List3} with each add and each remove in a
+ * block synchronized on the list. Times are the best of {@code ROUNDS} rounds
+ * after {@code WARMUP_ROUNDS} rounds. Run without {@code -ea}, since
+ * {@code conventionHolds} takes linear time in some implementations.
+ * </p>
+ *
+ * @author Ibrahim Mohamed
+ *
+ */
+public final class ListBenchmark {
+
+    /**
+     * Number of entries in each list.
+     */
+    private static final int SIZE = 1000000;
+
+    /**
+     * Number of edits in the editing workload.
+     */
+    private static final int EDITS = 200000;
+
+    /**
+     * Number of entries inserted by each edit.
+     */
+    private static final int WORD_LENGTH = 6;
+
+    /**
+     * Number of places the cursor retreats before each edit.
+     */
+    private static final int BACKTRACK = 10;
+
+    /**
+     * In the second editing workload, jump to one end of the list after every
+     * this many edits.
+     */
+    private static final int JUMP_PERIOD = 1000;
+
+    /**
+     * Number of entries kept in the list by the queue workload.
+     */
+    private static final int QUEUE_LENGTH = 1000;
+
+    /**
+     * Number of entries passed through the list by the queue workload.
+     */
+    private static final int QUEUE_OPERATIONS = 5000000;
+
+    /**
+     * Largest number of threads sharing a queue in the contention workload.
+     */
+    private static final int MAX_THREADS = 32;
+
+    /**
+     * Number of entries each thread passes through the shared queue in the
+     * contention workload.
+     */
+    private static final int HANDOFFS_PER_THREAD = 200000;
+
+    /**
+     * Number of rounds run before the measured ones.
+     */
+    private static final int WARMUP_ROUNDS = 2;
+
+    /**
+     * Number of measured rounds; the best one is reported.
+     */
+    private static final int ROUNDS = 5;
+
+    /**
+     * Nanoseconds per millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /**
+     * The entry stored everywhere.
+     */
+    private static final Integer ENTRY = 42;
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private ListBenchmark() {
+    }
+
+    /**
+     * Returns the heap in use after a few garbage collections.
+     *
+     * @return the used heap, in bytes
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+
+    /**
+     * Returns the heap, in bytes per entry, taken by a list of {@code SIZE}
+     * entries made by {@code factory}.
+     *
+     * @param factory
+     *            makes empty lists
+     * @return the bytes per entry
+     */
+    private static long bytesPerEntry(Supplier<List<Integer>> factory) {
+        long before = usedHeap();
+        List<Integer> list = factory.get();
+        for (int i = 0; i < SIZE; i++) {
+            list.addRightFront(ENTRY);
+        }
+        long after = usedHeap();
+        // keep list reachable until after the measurement
+        assert list.rightLength() == SIZE;
+        return Math.round((double) (after - before) / SIZE);
+    }
+
+    /**
+     * Runs the editing workload once on a new list made by {@code factory}.
+     *
+     * @param factory
+     *            makes empty lists
+     * @param jumpPeriod
+     *            number of edits between jumps to an end, or 0 for no jumps
+     * @return the length of the list at the end
+     */
+    private static int edit(Supplier<List<Integer>> factory, int jumpPeriod) {
+        List<Integer> list = factory.get();
+        for (int i = 0; i < SIZE; i++) {
+            list.addRightFront(ENTRY);
+            list.advance();
+        }
+        for (int e = 0; e < EDITS; e++) {
+            for (int i = 0; i < BACKTRACK && list.leftLength() > 0; i++) {
+                list.retreat();
+            }
+            for (int i = 0; i < WORD_LENGTH; i++) {
+                list.addRightFront(ENTRY);
+                list.advance();
+            }
+            // delete the last two entries typed, as if backspaced
+            list.retreat();
+            list.retreat();
+            list.removeRightFront();
+            list.removeRightFront();
+            if (jumpPeriod > 0 && e % jumpPeriod == 0) {
+                if (e % (2 * jumpPeriod) == 0) {
+                    list.moveToStart();
+                } else {
+                    list.moveToFinish();
+                }
+            }
+        }
+        return list.leftLength() + list.rightLength();
+    }
+
+    /**
+     * Returns the best time, in milliseconds, of the editing workload on lists
+     * made by {@code factory}.
+     *
+     * @param factory
+     *            makes empty lists
+     * @param jumpPeriod
+     *            number of edits between jumps to an end, or 0 for no jumps
+     * @return the best time of a round, in milliseconds
+     */
+    private static long editTime(Supplier<List<Integer>> factory,
+            int jumpPeriod) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+            long start = System.nanoTime();
+            int length = edit(factory, jumpPeriod);
+            long elapsed = System.nanoTime() - start;
+            assert length == SIZE + EDITS * (WORD_LENGTH - 2);
+            if (round >= WARMUP_ROUNDS) {
+                best = Math.min(best, elapsed);
+            }
+        }
+        return Math.round(best / NANOS_PER_MILLI);
+    }
+
+    /**
+     * Runs the queue workload once on a new list made by {@code factory}.
+     *
+     * @param factory
+     *            makes empty lists
+     * @return the length of the list at the end
+     */
+    private static int queue(Supplier<List<Integer>> factory) {
+        List<Integer> list = factory.get();
+        for (int i = 0; i < QUEUE_LENGTH; i++) {
+            list.addRightFront(ENTRY);
+        }
+        for (int i = 0; i < QUEUE_OPERATIONS; i++) {
+            list.moveToFinish();
+            list.addRightFront(ENTRY);
+            list.moveToStart();
+            list.removeRightFront();
+        }
+        return list.leftLength() + list.rightLength();
+    }
+
+    /**
+     * Returns the best time, in milliseconds, of the queue workload on lists
+     * made by {@code factory}.
+     *
+     * @param factory
+     *            makes empty lists
+     * @return the best time of a round, in milliseconds
+     */
+    private static long queueTime(Supplier<List<Integer>> factory) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+            long start = System.nanoTime();
+            int length = queue(factory);
+            long elapsed = System.nanoTime() - start;
+            assert length == QUEUE_LENGTH;
+            if (round >= WARMUP_ROUNDS) {
+                best = Math.min(best, elapsed);
+            }
+        }
+        return Math.round(best / NANOS_PER_MILLI);
+    }
+
+    /**
+     * Returns one step of the contention workload on a new {@code List3},
+     * holding {@code QUEUE_LENGTH} entries, shared behind a lock: add an
+     * entry at the finish, then remove the one at the start.
+     *
+     * @return the step, safe to run from many threads at once
+     */
+    private static Runnable synchronizedList3Step() {
+        List<Integer> list = new List3<Integer>();
+        for (int i = 0; i < QUEUE_LENGTH; i++) {
+            list.addRightFront(ENTRY);
+        }
+        return () -> {
+            synchronized (list) {
+                list.moveToFinish();
+                list.addRightFront(ENTRY);
+            }
+            synchronized (list) {
+                list.moveToStart();
+                list.removeRightFront();
+            }
+        };
+    }
+
+    /**
+     * Returns one step of the contention workload on a new {@code List7},
+     * holding {@code QUEUE_LENGTH} entries: add an entry at the back of
+     * this.right, then poll the one at the front.
+     *
+     * @return the step, safe to run from many threads at once
+     */
+    private static Runnable list7Step() {
+        List7<Integer> list = new List7<Integer>();
+        for (int i = 0; i < QUEUE_LENGTH; i++) {
+            list.addRightFront(ENTRY);
+        }
+        return () -> {
+            list.addRightBack(ENTRY);
+            // never null: each thread adds before it polls
+            list.pollRightFront();
+        };
+    }
+
+    /**
+     * Returns the best throughput, in millions of entries passed through per
+     * second, of {@code threads} threads each running a step made by
+     * {@code factory} {@code HANDOFFS_PER_THREAD} times on a shared queue.
+     *
+     * @param factory
+     *            makes a new shared queue and returns its step
+     * @param threads
+     *            number of threads
+     * @return the best throughput of a round, rounded to one decimal place
+     * @throws InterruptedException
+     *             if interrupted while waiting for the threads
+     */
+    private static String contentionThroughput(Supplier<Runnable> factory,
+            int threads) throws InterruptedException {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+            Runnable step = factory.get();
+            CountDownLatch start = new CountDownLatch(1);
+            Thread[] workers = new Thread[threads];
+            for (int t = 0; t < threads; t++) {
+                workers[t] = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < HANDOFFS_PER_THREAD; i++) {
+                        step.run();
+                    }
+                });
+                workers[t].start();
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Thread w : workers) {
+                w.join();
+            }
+            long elapsed = System.nanoTime() - begin;
+            if (round >= WARMUP_ROUNDS) {
+                best = Math.min(best, elapsed);
+            }
+        }
+        // thousands of entries per millisecond are millions per second
+        double handoffs = (double) threads * HANDOFFS_PER_THREAD;
+        return String.format("%.1f",
+                handoffs / 1000 / (best / NANOS_PER_MILLI));
+    }
+
+    /**
+     * Reports the footprint and editing time of lists made by
+     * {@code factory}.
+     *
+     * @param out
+     *            the output stream
+     * @param name
+     *            name of the implementation
+     * @param factory
+     *            makes empty lists
+     * @updates out.content
+     * @requires out.is_open
+     * @ensures <pre>
+     * out.is_open  and
+     * out.content = #out.content * [a line with the measurements]
+     * </pre>
+     */
+    private static void report(SimpleWriter out, String name,
+            Supplier<List<Integer>> factory) {
+        out.println("  " + name + ": " + bytesPerEntry(factory)
+                + " bytes/entry, local edits " + editTime(factory, 0)
+                + " ms, with jumps " + editTime(factory, JUMP_PERIOD) + " ms");
+    }
+
+    /**
+     * Reports the footprint and queue workload time of lists made by
+     * {@code factory}.
+     *
+     * @param out
+     *            the output stream
+     * @param name
+     *            name of the implementation
+     * @param factory
+     *            makes empty lists
+     * @updates out.content
+     * @requires out.is_open
+     * @ensures <pre>
+     * out.is_open  and
+     * out.content = #out.content * [a line with the measurements]
+     * </pre>
+     */
+    private static void reportQueue(SimpleWriter out, String name,
+            Supplier<List<Integer>> factory) {
+        out.println("  " + name + ": " + bytesPerEntry(factory)
+                + " bytes/entry, queue " + queueTime(factory) + " ms");
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments
+     * @throws InterruptedException
+     *             if interrupted while waiting for the contention threads
+     */
+    public static void main(String[] args) throws InterruptedException {
+        SimpleWriter out = new SimpleWriter1L();
+        out.println(SIZE + " entries, " + EDITS + " edits, best of " + ROUNDS
+                + " rounds");
+        report(out, "List3", List3<Integer>::new);
+        report(out, "List5", List5<Integer>::new);
+        /*
+         * List5 is left out of the queue workload, since moving its cursor to
+         * an end copies the list, and List9 out of the editing workloads,
+         * since the edits drift to the middle, where it shifts half the list
+         */
+        out.println(QUEUE_LENGTH + " entries queued, " + QUEUE_OPERATIONS
+                + " passed through");
+        reportQueue(out, "List3", List3<Integer>::new);
+        reportQueue(out, "List9", List9<Integer>::new);
+        out.println(QUEUE_LENGTH + " entries queued, " + HANDOFFS_PER_THREAD
+                + " passed through per thread (millions per second), on "
+                + Runtime.getRuntime().availableProcessors() + " cores");
+        for (int threads = 1; threads <= MAX_THREADS; threads *= 2) {
+            String locked = contentionThroughput(
+                    ListBenchmark::synchronizedList3Step, threads);
+            String lockFree = contentionThroughput(ListBenchmark::list7Step,
+                    threads);
+            out.println("  " + threads + " threads:  synchronized List3 "
+                    + locked + "  List7 " + lockFree);
+        }
+        out.close();
+    }
+
+}
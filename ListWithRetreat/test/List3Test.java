@@ -1,3 +1,11 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ListIterator;
+import java.util.Spliterator;
+
+import org.junit.Test;
+
 import components.list.List;
 import components.list.List1L;
 
@@ -16,4 +24,119 @@ public class List3Test extends ListTest {
         return new List1L<String>();
     }
 
+    /**
+     * Creates and returns a {@code List3<String>} with the given entries and
+     * length of the left string equal to {@code leftLength}.
+     *
+     * @param leftLength
+     *            the length of the left string in the constructed list
+     * @param args
+     *            the entries for the list
+     * @return the constructed list
+     * @requires 0 <= leftLength <= args.length
+     * @ensures <pre>
+     * createList3 = ([first leftLength entries in args],
+     *                [remaining entries in args])
+     * </pre>
+     */
+    private List3<String> createList3(int leftLength, String... args) {
+        List3<String> list = new List3<String>();
+        for (String s : args) {
+            list.addRightFront(s);
+            list.advance();
+        }
+        list.moveToStart();
+        for (int i = 0; i < leftLength; i++) {
+            list.advance();
+        }
+        return list;
+    }
+
+    /**
+     * Test case for splice into the middle of a list.
+     */
+    @Test
+    public void spliceMiddleTest() {
+        List3<String> test = this.createList3(1, "a", "d");
+        List3<String> other = this.createList3(1, "b", "c");
+        List3<String> expected = this.createList3(1, "a", "b", "c", "d");
+        List3<String> expectedOther = this.createList3(0);
+        test.splice(other);
+        assertEquals(expected, test);
+        assertEquals(expectedOther, other);
+    }
+
+    /**
+     * Test case for splice of an empty list at the end of a list.
+     */
+    @Test
+    public void spliceEmptyTest() {
+        List3<String> test = this.createList3(2, "a", "b");
+        List3<String> other = this.createList3(0);
+        List3<String> expected = this.createList3(2, "a", "b");
+        test.splice(other);
+        assertEquals(expected, test);
+        assertEquals(this.createList3(0), other);
+    }
+
+    /**
+     * Test case for splitAtCursor in the middle of a list.
+     */
+    @Test
+    public void splitAtCursorMiddleTest() {
+        List3<String> test = this.createList3(2, "a", "b", "c", "d");
+        List3<String> expected = this.createList3(2, "a", "b");
+        List3<String> expectedSplit = this.createList3(0, "c", "d");
+        List3<String> split = test.splitAtCursor();
+        assertEquals(expected, test);
+        assertEquals(expectedSplit, split);
+    }
+
+    /**
+     * Test case for splitAtCursor at the end of a list.
+     */
+    @Test
+    public void splitAtCursorEndTest() {
+        List3<String> test = this.createList3(2, "a", "b");
+        List3<String> expected = this.createList3(2, "a", "b");
+        List3<String> split = test.splitAtCursor();
+        assertEquals(expected, test);
+        assertEquals(this.createList3(0), split);
+    }
+
+    /**
+     * Test case for listIterator going forward and backward from the cursor.
+     */
+    @Test
+    public void listIteratorTest() {
+        List3<String> test = this.createList3(1, "a", "b", "c");
+        ListIterator<String> it = test.listIterator();
+        assertEquals(1, it.nextIndex());
+        assertEquals("b", it.next());
+        assertEquals("c", it.next());
+        assertFalse(it.hasNext());
+        assertEquals("c", it.previous());
+        assertEquals("b", it.previous());
+        assertEquals("a", it.previous());
+        assertFalse(it.hasPrevious());
+        assertEquals(this.createList3(1, "a", "b", "c"), test);
+    }
+
+    /**
+     * Test case for spliterator split and bulk traversal.
+     */
+    @Test
+    public void spliteratorTest() {
+        List3<String> test = this.createList3(2, "a", "b", "c", "d", "e");
+        Spliterator<String> suffix = test.spliterator();
+        Spliterator<String> prefix = suffix.trySplit();
+        assertEquals(2, prefix.estimateSize());
+        assertEquals(3, suffix.estimateSize());
+        StringBuilder seen = new StringBuilder();
+        prefix.forEachRemaining(seen::append);
+        suffix.forEachRemaining(seen::append);
+        assertEquals("abcde", seen.toString());
+        assertEquals(this.createList3(2, "a", "b", "c", "d", "e"), test);
+    }
+
 }
@@ -0,0 +1,78 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import components.list.List;
+import components.list.List1L;
+
+/**
+ * Customized JUnit test fixture for {@code List3} using non-default
+ * constructor and a pool of 8 recycled nodes.
+ */
+public class List3Test8 extends ListTest {
+
+    /**
+     * Maximum number of recycled nodes to be used in tests.
+     */
+    private static final int TEST_POOL_CAPACITY = 8;
+
+    @Override
+    protected final List<String> constructorTest() {
+        return new List3<String>(TEST_POOL_CAPACITY);
+    }
+
+    @Override
+    protected final List<String> constructorRef() {
+        return new List1L<String>();
+    }
+
+    /**
+     * Test case for add and remove churn reusing the nodes in the pool: each
+     * add takes a pooled node while there is one, and each remove returns its
+     * node until the pool is full.
+     */
+    @Test
+    public final void churnReusesNodesTest() {
+        final int rounds = 100;
+        List3<String> q = new List3<String>(TEST_POOL_CAPACITY);
+        assertEquals(0, q.pooledNodeCount());
+        for (int r = 0; r < rounds; r++) {
+            for (int i = 0; i < TEST_POOL_CAPACITY / 2; i++) {
+                q.addRightFront("x" + i);
+            }
+            // the adds took every pooled node rather than allocating
+            assertEquals(0, q.pooledNodeCount());
+            for (int i = 0; i < TEST_POOL_CAPACITY / 2; i++) {
+                assertEquals("x" + (TEST_POOL_CAPACITY / 2 - 1 - i),
+                        q.removeRightFront());
+            }
+            assertEquals(TEST_POOL_CAPACITY / 2, q.pooledNodeCount());
+        }
+        // removing more nodes than fit keeps the pool at its capacity
+        for (int i = 0; i < 2 * TEST_POOL_CAPACITY; i++) {
+            q.addRightFront("y");
+        }
+        assertEquals(0, q.pooledNodeCount());
+        while (q.rightLength() > 0) {
+            q.removeRightFront();
+        }
+        assertEquals(TEST_POOL_CAPACITY, q.pooledNodeCount());
+    }
+
+    /**
+     * Test case for newInstance keeping the pool capacity.
+     */
+    @Test
+    public final void newInstanceKeepsPoolTest() {
+        List3<String> q = new List3<String>(TEST_POOL_CAPACITY)
+                .newInstance();
+        for (int i = 0; i < 2 * TEST_POOL_CAPACITY; i++) {
+            q.addRightFront("z");
+        }
+        while (q.rightLength() > 0) {
+            q.removeRightFront();
+        }
+        assertEquals(TEST_POOL_CAPACITY, q.pooledNodeCount());
+    }
+
+}
@@ -0,0 +1,19 @@
+import components.list.List;
+import components.list.List1L;
+
+/**
+ * Customized JUnit test fixture for {@code List6}.
+ */
+public class List6Test extends ListTest {
+
+    @Override
+    protected final List<String> constructorTest() {
+        return new List6<String>();
+    }
+
+    @Override
+    protected final List<String> constructorRef() {
+        return new List1L<String>();
+    }
+
+}
@@ -0,0 +1,149 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import components.list.List;
+import components.list.List1L;
+
+/**
+ * Customized JUnit test fixture for {@code List7}.
+ */
+public class List7Test extends ListTest {
+
+    @Override
+    protected final List<String> constructorTest() {
+        return new List7<String>();
+    }
+
+    @Override
+    protected final List<String> constructorRef() {
+        return new List1L<String>();
+    }
+
+    /**
+     * Test case for producers calling addRightBack while consumers call
+     * pollRightFront and pollRightBack, with every entry taken exactly once.
+     *
+     * @throws InterruptedException
+     *             if interrupted while waiting for the threads
+     */
+    @Test
+    public void concurrentProducerConsumerTest() throws InterruptedException {
+        final int producers = 4;
+        final int consumers = 4;
+        final int perProducer = 2000;
+        final int total = producers * perProducer;
+        List7<String> list = new List7<String>();
+        boolean[] taken = new boolean[total];
+        boolean[] takenOnce = new boolean[consumers];
+        int[] takenCount = new int[consumers];
+        Thread[] workers = new Thread[producers + consumers];
+        for (int t = 0; t < producers; t++) {
+            final int first = t * perProducer;
+            workers[t] = new Thread(() -> {
+                for (int i = first; i < first + perProducer; i++) {
+                    list.addRightBack(String.format("%05d", i));
+                }
+            });
+        }
+        for (int t = 0; t < consumers; t++) {
+            final int consumer = t;
+            workers[producers + t] = new Thread(() -> {
+                boolean once = true;
+                int count = 0;
+                int misses = 0;
+                // stop once a long run of polls finds the list empty
+                while (misses < total) {
+                    String x;
+                    if (consumer % 2 == 0) {
+                        x = list.pollRightFront();
+                    } else {
+                        x = list.pollRightBack();
+                    }
+                    if (x == null) {
+                        misses++;
+                        Thread.yield();
+                    } else {
+                        misses = 0;
+                        count++;
+                        int i = Integer.parseInt(x);
+                        synchronized (taken) {
+                            once = once && !taken[i];
+                            taken[i] = true;
+                        }
+                    }
+                }
+                takenOnce[consumer] = once;
+                takenCount[consumer] = count;
+            });
+        }
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        // whatever the consumers missed is still in the list, in order
+        int remaining = list.rightLength();
+        for (String x : list) {
+            taken[Integer.parseInt(x)] = true;
+        }
+        int count = remaining;
+        for (int t = 0; t < consumers; t++) {
+            assertTrue(takenOnce[t]);
+            count += takenCount[t];
+        }
+        assertEquals(total, count);
+        for (boolean b : taken) {
+            assertTrue(b);
+        }
+    }
+
+    /**
+     * Test case for advance and rightLength while other threads add and
+     * remove at the back of this.right.
+     *
+     * @throws InterruptedException
+     *             if interrupted while waiting for the threads
+     */
+    @Test
+    public void concurrentAdvanceTest() throws InterruptedException {
+        final int threads = 4;
+        final int perThread = 1000;
+        List7<String> list = new List7<String>();
+        for (int i = 0; i < perThread; i++) {
+            list.addRightBack("front");
+        }
+        boolean[] neverNegative = new boolean[threads];
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int worker = t;
+            workers[t] = new Thread(() -> {
+                boolean ok = true;
+                for (int i = 0; i < perThread; i++) {
+                    list.addRightBack("back");
+                    ok = ok && list.rightLength() >= 0;
+                    ok = ok && list.pollRightBack() != null;
+                }
+                neverNegative[worker] = ok;
+            });
+        }
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        // the owner moves the cursor over the entries it added
+        for (int i = 0; i < perThread; i++) {
+            list.advance();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        for (boolean ok : neverNegative) {
+            assertTrue(ok);
+        }
+        assertEquals(perThread, list.leftLength());
+        assertEquals(0, list.rightLength());
+    }
+
+}
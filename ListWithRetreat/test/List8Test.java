@@ -0,0 +1,101 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import components.list.List;
+import components.list.List1L;
+
+/**
+ * Customized JUnit test fixture for {@code List8}.
+ */
+public class List8Test extends ListTest {
+
+    @Override
+    protected final List<String> constructorTest() {
+        return new List8<String>();
+    }
+
+    @Override
+    protected final List<String> constructorRef() {
+        return new List1L<String>();
+    }
+
+    /**
+     * Creates and returns a {@code List8<String>} with the given entries and
+     * length of the left string equal to {@code leftLength}.
+     *
+     * @param leftLength
+     *            the length of the left string in the constructed list
+     * @param args
+     *            the entries for the list
+     * @return the constructed list
+     * @requires 0 <= leftLength <= args.length
+     * @ensures <pre>
+     * createList8 = ([first leftLength entries in args],
+     *                [remaining entries in args])
+     * </pre>
+     */
+    private List8<String> createList8(int leftLength, String... args) {
+        List8<String> list = new List8<String>();
+        for (String s : args) {
+            list.addRightFront(s);
+            list.advance();
+        }
+        list.moveToStart();
+        for (int i = 0; i < leftLength; i++) {
+            list.advance();
+        }
+        return list;
+    }
+
+    /**
+     * Test case for snapshot, then updates to both copies.
+     */
+    @Test
+    public void snapshotIsolationTest() {
+        List8<String> test = this.createList8(1, "a", "b");
+        List8<String> snapshot = test.snapshot();
+        test.addRightFront("c");
+        snapshot.removeRightFront();
+        assertEquals(this.createList8(1, "a", "c", "b"), test);
+        assertEquals(this.createList8(1, "a"), snapshot);
+    }
+
+    /**
+     * Test case for append of another {@code List8}.
+     */
+    @Test
+    public void appendTest() {
+        List8<String> test = this.createList8(1, "a", "b");
+        List8<String> extension = this.createList8(1, "c", "d");
+        test.append(extension);
+        assertEquals(this.createList8(1, "a", "b", "c", "d"), test);
+        assertEquals(this.createList8(0), extension);
+    }
+
+    /**
+     * Test case for splitAtCursor in the middle of a list.
+     */
+    @Test
+    public void splitAtCursorMiddleTest() {
+        List8<String> test = this.createList8(2, "a", "b", "c", "d");
+        List8<String> expected = this.createList8(2, "a", "b");
+        List8<String> expectedSplit = this.createList8(0, "c", "d");
+        List8<String> split = test.splitAtCursor();
+        assertEquals(expected, test);
+        assertEquals(expectedSplit, split);
+    }
+
+    /**
+     * Test case for splitAtCursor at the end of a list.
+     */
+    @Test
+    public void splitAtCursorEndTest() {
+        List8<String> test = this.createList8(2, "a", "b");
+        List8<String> expected = this.createList8(2, "a", "b");
+        List8<String> split = test.splitAtCursor();
+        assertEquals(expected, test);
+        assertEquals(this.createList8(0), split);
+    }
+
+}
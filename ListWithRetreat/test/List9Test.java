@@ -0,0 +1,19 @@
+import components.list.List;
+import components.list.List1L;
+
+/**
+ * Customized JUnit test fixture for {@code List9}.
+ */
+public class List9Test extends ListTest {
+
+    @Override
+    protected final List<String> constructorTest() {
+        return new List9<String>();
+    }
+
+    @Override
+    protected final List<String> constructorRef() {
+        return new List1L<String>();
+    }
+
+}
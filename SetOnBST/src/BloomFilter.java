@@ -0,0 +1,191 @@
+import java.util.Arrays;
+
+/**
+ * Blocked Bloom filter: an approximate set that answers "definitely not
+ * present" or "possibly present", with all the bits for one element kept in a
+ * single 64-bit word so that every query touches one cache line.
+ *
+ * <p>
+ * There are no false negatives: once {@code add(x)} has been called,
+ * {@code mightContain(x)} reports true until {@code clear} is called. Elements
+ * cannot be removed; a client that removes elements rebuilds the filter.
+ * With {@code BITS_PER_ELEMENT} bits per expected element and
+ * {@code BITS_SET} bits set per element, the false-positive rate is about 1%
+ * or less while the filter holds no more than its expected number of
+ * elements.
+ * </p>
+ *
+ * @param <T>
+ *            type of elements, hashed with {@code hashCode}
+ * @convention <pre>
+ * |$this.words| > 0  and
+ * [|$this.words| is a power of 2]  and
+ * $this.mask = |$this.words| - 1
+ * </pre>
+ * @correspondence <pre>
+ * this = [the set of elements x for which every bit selected by x's hash in
+ *         word $this.words[index(x)] is set]
+ * </pre>
+ *
+ * @author Ibrahim Mohamed
+ *
+ */
+public final class BloomFilter<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Number of bits reserved for each expected element.
+     */
+    private static final int BITS_PER_ELEMENT = 16;
+
+    /**
+     * Number of bits set in the block for each element.
+     */
+    private static final int BITS_SET = 6;
+
+    /**
+     * Number of hash bits needed to select one bit in a 64-bit block.
+     */
+    private static final int BIT_INDEX_WIDTH = 6;
+
+    /**
+     * Mask selecting one bit index from the hash.
+     */
+    private static final long BIT_INDEX_MASK = (1L << BIT_INDEX_WIDTH) - 1;
+
+    /**
+     * Shift that drops the hash bits used for bit positions, leaving the ones
+     * used to choose a block.
+     */
+    private static final int BLOCK_SHIFT = BITS_SET * BIT_INDEX_WIDTH;
+
+    /**
+     * Multiplier used to spread {@code hashCode} values (the golden ratio
+     * scaled to 64 bits).
+     */
+    private static final long SPREAD = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Number of bits in a {@code long}.
+     */
+    private static final int WORD_SIZE = 64;
+
+    /**
+     * The blocks of bits.
+     */
+    private long[] words;
+
+    /**
+     * {@code |words| - 1}, used to pick a block from the hash.
+     */
+    private int mask;
+
+    /**
+     * Returns a well-mixed 64-bit hash of {@code x}.
+     *
+     * @param x
+     *            the element
+     * @return the mixed hash
+     */
+    private static long hash(Object x) {
+        long h = x.hashCode() * SPREAD;
+        h ^= h >>> 32;
+        h *= SPREAD;
+        return h ^ (h >>> 29);
+    }
+
+    /**
+     * Returns the bits set in the block for an element with hash {@code h}.
+     *
+     * @param h
+     *            the mixed hash
+     * @return the bit pattern of the element
+     */
+    private static long pattern(long h) {
+        long bits = 0;
+        long remaining = h;
+        for (int i = 0; i < BITS_SET; i++) {
+            bits |= 1L << (remaining & BIT_INDEX_MASK);
+            remaining >>>= BIT_INDEX_WIDTH;
+        }
+        return bits;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * Constructor sized for {@code expectedSize} elements.
+     *
+     * @param expectedSize
+     *            the number of elements the filter should hold at its target
+     *            false-positive rate
+     * @requires expectedSize > 0
+     * @ensures this = {}
+     */
+    public BloomFilter(int expectedSize) {
+        assert expectedSize > 0 : "Violation of: expectedSize > 0";
+
+        long bitsWanted = (long) expectedSize * BITS_PER_ELEMENT;
+        int wordCount = 1;
+        while ((long) wordCount * WORD_SIZE < bitsWanted) {
+            wordCount *= 2;
+        }
+        this.words = new long[wordCount];
+        this.mask = wordCount - 1;
+    }
+
+    /*
+     * Public methods ---------------------------------------------------------
+     */
+
+    /**
+     * Adds {@code x} to this.
+     *
+     * @param x
+     *            the element to add
+     * @updates this
+     * @ensures this = #this union {x}
+     */
+    public void add(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        /*
+         * the bit positions come from the low bits of the hash and the block
+         * from the bits above them, so the two choices are independent
+         */
+        long h = hash(x);
+        this.words[(int) (h >>> BLOCK_SHIFT) & this.mask] |= pattern(h);
+    }
+
+    /**
+     * Reports whether {@code x} might be in this.
+     *
+     * @param x
+     *            the element to look for
+     * @return false if x was definitely never added; true otherwise
+     * @ensures mightContain = (x is in this)
+     */
+    public boolean mightContain(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        long h = hash(x);
+        long bits = pattern(h);
+        return (this.words[(int) (h >>> BLOCK_SHIFT) & this.mask]
+                & bits) == bits;
+    }
+
+    /**
+     * Removes every element from this.
+     *
+     * @clears this
+     */
+    public void clear() {
+        Arrays.fill(this.words, 0L);
+    }
+
+}
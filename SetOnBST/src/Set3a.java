@@ -19,7 +19,11 @@ import components.set.SetSecondary;
  *   slides with the ordering reported by compareTo for T, including that
  *   it has no duplicate labels]
  * </pre>
- * @convention IS_BST($this.tree)
+ * @convention <pre>
+ * IS_BST($this.tree)  and
+ * if $this.filter /= null then
+ *   labels($this.tree) is subset of [elements added to $this.filter]
+ * </pre>
  * @correspondence this = labels($this.tree)
  *
  * @author Ibrahim Mohamed
@@ -31,11 +35,84 @@ public class Set3a<T extends Comparable<T>> extends SetSecondary<T> {
      * Private members --------------------------------------------------------
      */
 
+    /**
+     * Running totals for one kind of operation, kept so that a degenerate
+     * tree shows up as a rising comparison count.
+     */
+    private static final class OperationCounter {
+
+        /**
+         * Number of operations performed.
+         */
+        private long calls;
+
+        /**
+         * Number of calls to {@code compareTo} made by those operations.
+         */
+        private long comparisons;
+
+        /**
+         * Number of {@code BinaryTree} objects allocated by those operations.
+         */
+        private long allocations;
+
+    }
+
     /**
      * Elements included in {@code this}.
      */
     private BinaryTree<T> tree;
 
+    /**
+     * Totals for {@code contains}.
+     */
+    private OperationCounter containsCounter;
+
+    /**
+     * Totals for {@code add}.
+     */
+    private OperationCounter addCounter;
+
+    /**
+     * Totals for {@code remove} and {@code removeAny}.
+     */
+    private OperationCounter removeCounter;
+
+    /**
+     * Bloom filter over the elements of {@code this}, consulted by
+     * {@code contains} before the tree so that most misses skip the tree
+     * walk, or {@code null} if filtering is off.
+     */
+    private BloomFilter<T> filter;
+
+    /**
+     * Number of elements {@code filter} is currently sized for.
+     */
+    private int filterCapacity;
+
+    /**
+     * Number of elements {@code filter} was requested for at construction,
+     * or 0 if filtering is off.
+     */
+    private int expectedSize;
+
+    /**
+     * Number of elements removed since {@code filter} was last rebuilt; their
+     * bits are still set, so they can only cause false positives.
+     */
+    private int staleElements;
+
+    /**
+     * Number of {@code contains} misses answered by {@code filter} alone.
+     */
+    private long filterRejections;
+
+    /**
+     * Number of {@code contains} misses that {@code filter} let through to the
+     * tree.
+     */
+    private long filterFalsePositives;
+
     /**
      * Returns whether {@code x} is in {@code t}.
      *
@@ -45,12 +122,15 @@ public class Set3a<T extends Comparable<T>> extends SetSecondary<T> {
      *            the {@code BinaryTree} to be searched
      * @param x
      *            the label to be searched for
+     * @param counter
+     *            the totals to charge the comparisons and allocations to
      * @return true if t contains x, false otherwise
+     * @updates counter
      * @requires IS_BST(t)
      * @ensures isInTree = (x is in labels(t))
      */
     private static <T extends Comparable<T>> boolean isInTree(BinaryTree<T> t,
-            T x) {
+            T x, OperationCounter counter) {
         assert t != null : "Violation of: t is not null";
         assert x != null : "Violation of: x is not null";
 
@@ -58,6 +138,7 @@ public class Set3a<T extends Comparable<T>> extends SetSecondary<T> {
         // create subtrees
         BinaryTree<T> left = t.newInstance();
         BinaryTree<T> right = t.newInstance();
+        counter.allocations += 2;
 
         // check if tree size is positive
         if (t.size() > 0) {
@@ -67,14 +148,16 @@ public class Set3a<T extends Comparable<T>> extends SetSecondary<T> {
 
             /*
              * Check if x is within the BST by comparing it to the root and
-             * left/right subtrees.
+             * left/right subtrees; one comparison decides all three cases.
              */
-            if (root.compareTo(x) == 0) {
+            int comparison = root.compareTo(x);
+            counter.comparisons++;
+            if (comparison == 0) {
                 contains = true;
-            } else if (root.compareTo(x) < 0) {
-                contains = isInTree(right, x);
+            } else if (comparison < 0) {
+                contains = isInTree(right, x, counter);
             } else {
-                contains = isInTree(left, x);
+                contains = isInTree(left, x, counter);
             }
 
             // restore BST
@@ -92,22 +175,26 @@ public class Set3a<T extends Comparable<T>> extends SetSecondary<T> {
      *            the {@code BinaryTree} to be searched
      * @param x
      *            the label to be inserted
+     * @param counter
+     *            the totals to charge the comparisons and allocations to
      * @aliases reference {@code x}
-     * @updates t
+     * @updates t, counter
      * @requires IS_BST(t) and x is not in labels(t)
      * @ensures IS_BST(t) and labels(t) = labels(#t) union {x}
      */
     private static <T extends Comparable<T>> void insertInTree(BinaryTree<T> t,
-            T x) {
+            T x, OperationCounter counter) {
         assert t != null : "Violation of: t is not null";
         assert x != null : "Violation of: x is not null";
 
         /*
          * add assertion and create left/right subtrees
          */
-        assert !isInTree(t, x) : "Violation of: x is not in labels(t)";
+        assert !isInTree(t, x,
+                new OperationCounter()) : "Violation of: x is not in labels(t)";
         BinaryTree<T> left = t.newInstance();
         BinaryTree<T> right = t.newInstance();
+        counter.allocations += 2;
 
         // check if the BST size is positive
         if (t.size() > 0) {
@@ -119,12 +206,13 @@ public class Set3a<T extends Comparable<T>> extends SetSecondary<T> {
              * if x is smaller than the root, search the left subtree. else if x
              * is larger than the root, search the right subtree.
              */
+            counter.comparisons++;
             if (x.compareTo(root) < 0) {
-                insertInTree(left, x);
-            } else if (x.compareTo(root) > 0) {
+                insertInTree(left, x, counter);
+            } else {
 
                 // search the BST recursively
-                insertInTree(right, x);
+                insertInTree(right, x, counter);
             }
 
             // restore the BST
@@ -144,15 +232,18 @@ public class Set3a<T extends Comparable<T>> extends SetSecondary<T> {
      *            type of {@code BinaryTree} labels
      * @param t
      *            the {@code BinaryTree} from which to remove the label
+     * @param counter
+     *            the totals to charge the allocations to
      * @return the smallest label in the given {@code BinaryTree}
-     * @updates t
+     * @updates t, counter
      * @requires IS_BST(t) and |t| > 0
      * @ensures <pre>
      * IS_BST(t)  and  removeSmallest = [the smallest label in #t]  and
      *  labels(t) = labels(#t) \ {removeSmallest}
      * </pre>
      */
-    private static <T> T removeSmallest(BinaryTree<T> t) {
+    private static <T> T removeSmallest(BinaryTree<T> t,
+            OperationCounter counter) {
         assert t != null : "Violation of: t is not null";
         assert t.size() > 0 : "Violation of: |t| > 0";
 
@@ -163,6 +254,7 @@ public class Set3a<T extends Comparable<T>> extends SetSecondary<T> {
         T min = null;
         BinaryTree<T> left = t.newInstance();
         BinaryTree<T> right = t.newInstance();
+        counter.allocations += 2;
 
         // make sure the BST size is positive
         if (t.size() > 0) {
@@ -185,7 +277,7 @@ public class Set3a<T extends Comparable<T>> extends SetSecondary<T> {
             } else {
 
                 // restore the BST
-                min = removeSmallest(left);
+                min = removeSmallest(left, counter);
                 t.assemble(root, left, right);
             }
 
@@ -203,8 +295,10 @@ public class Set3a<T extends Comparable<T>> extends SetSecondary<T> {
      *            the {@code BinaryTree} from which to remove label {@code x}
      * @param x
      *            the label to be removed
+     * @param counter
+     *            the totals to charge the comparisons and allocations to
      * @return the removed label
-     * @updates t
+     * @updates t, counter
      * @requires IS_BST(t) and x is in labels(t)
      * @ensures <pre>
      * IS_BST(t)  and  removeFromTree = x  and
@@ -212,7 +306,7 @@ public class Set3a<T extends Comparable<T>> extends SetSecondary<T> {
      * </pre>
      */
     private static <T extends Comparable<T>> T removeFromTree(BinaryTree<T> t,
-            T x) {
+            T x, OperationCounter counter) {
         assert t != null : "Violation of: t is not null";
         assert x != null : "Violation of: x is not null";
         assert t.size() > 0 : "Violation of: x is in labels(t)";
@@ -220,6 +314,7 @@ public class Set3a<T extends Comparable<T>> extends SetSecondary<T> {
         T removed = null;
         BinaryTree<T> left = t.newInstance();
         BinaryTree<T> right = t.newInstance();
+        counter.allocations += 2;
 
         // make sure the BST size is positive
         if (t.size() > 0) {
@@ -227,17 +322,20 @@ public class Set3a<T extends Comparable<T>> extends SetSecondary<T> {
             // disassemble the BST to search its root and subtrees
             T root = t.disassemble(left, right);
 
+            int comparison = root.compareTo(x);
+            counter.comparisons++;
+
             // if root is greater than x, navigate through the left subtree
-            if (root.compareTo(x) > 0) {
-                removed = removeFromTree(left, x);
+            if (comparison > 0) {
+                removed = removeFromTree(left, x, counter);
 
                 // restore the BST
                 t.assemble(root, left, right);
 
                 // if x is greater than the root, navigate through the right subtree
-            } else if (root.compareTo(x) < 0) {
+            } else if (comparison < 0) {
 
-                removed = removeFromTree(right, x);
+                removed = removeFromTree(right, x, counter);
                 t.assemble(root, left, right);
 
             } else {
@@ -256,7 +354,7 @@ public class Set3a<T extends Comparable<T>> extends SetSecondary<T> {
                      */
                 } else {
 
-                    T newRoot = removeSmallest(right);
+                    T newRoot = removeSmallest(right, counter);
                     t.assemble(newRoot, left, right);
 
                 }
@@ -272,9 +370,95 @@ public class Set3a<T extends Comparable<T>> extends SetSecondary<T> {
     private void createNewRep() {
 
         this.tree = new BinaryTree1<T>();
+        this.filter = null;
+        this.filterCapacity = this.expectedSize;
+        if (this.expectedSize > 0) {
+            this.filter = new BloomFilter<T>(this.expectedSize);
+        }
+        this.staleElements = 0;
 
     }
 
+    /**
+     * Creator of the operation counters, which survive {@code clear} and
+     * {@code transferFrom} so that they describe the whole life of
+     * {@code this}.
+     */
+    private void createNewCounters() {
+
+        this.containsCounter = new OperationCounter();
+        this.addCounter = new OperationCounter();
+        this.removeCounter = new OperationCounter();
+
+    }
+
+    /**
+     * Returns the sum of the depths of the nodes of {@code t}, where the root
+     * of {@code t} has depth {@code depth}.
+     *
+     * @param <T>
+     *            type of {@code BinaryTree} labels
+     * @param t
+     *            the {@code BinaryTree} to measure
+     * @param depth
+     *            the depth of the root of t
+     * @return the total depth of the nodes of t
+     * @ensures totalDepth = [sum of (depth + distance from root of t) over the
+     *          nodes of t]
+     */
+    private static <T> long totalDepth(BinaryTree<T> t, int depth) {
+        assert t != null : "Violation of: t is not null";
+
+        long total = 0;
+        if (t.size() > 0) {
+            BinaryTree<T> left = t.newInstance();
+            BinaryTree<T> right = t.newInstance();
+            T root = t.disassemble(left, right);
+            total = depth + totalDepth(left, depth + 1)
+                    + totalDepth(right, depth + 1);
+            t.assemble(root, left, right);
+        }
+        return total;
+    }
+
+    /**
+     * Rebuilds {@code filter} from the labels of {@code tree}, sized for at
+     * least {@code capacity} elements, which drops the bits of removed
+     * elements.
+     *
+     * @param capacity
+     *            the number of elements the new filter is sized for
+     * @requires capacity >= |tree|  and  capacity > 0
+     */
+    private void rebuildFilter(int capacity) {
+        assert capacity > 0 : "Violation of: capacity > 0";
+
+        if (this.filter != null && capacity == this.filterCapacity) {
+            this.filter.clear();
+        } else {
+            this.filter = new BloomFilter<T>(capacity);
+            this.filterCapacity = capacity;
+        }
+        for (T x : this.tree) {
+            this.filter.add(x);
+        }
+        this.staleElements = 0;
+    }
+
+    /**
+     * Records that an element was removed, and rebuilds {@code filter} once
+     * removed elements outnumber the remaining ones, so the rebuild cost is
+     * O(1) amortized per removal.
+     */
+    private void noteRemoval() {
+        if (this.filter != null) {
+            this.staleElements++;
+            if (this.staleElements > this.tree.size()) {
+                this.rebuildFilter(this.filterCapacity);
+            }
+        }
+    }
+
     /*
      * Constructors -----------------------------------------------------------
      */
@@ -284,6 +468,27 @@ public class Set3a<T extends Comparable<T>> extends SetSecondary<T> {
      */
     public Set3a() {
 
+        this.expectedSize = 0;
+        this.createNewCounters();
+        this.createNewRep();
+
+    }
+
+    /**
+     * Constructor that keeps a Bloom filter alongside the tree, so that
+     * {@code contains} answers most misses without walking the tree. The
+     * filter grows past {@code expectedSize} as needed.
+     *
+     * @param expectedSize
+     *            the number of elements the filter is initially sized for
+     * @requires expectedSize > 0
+     * @ensures this = {}
+     */
+    public Set3a(int expectedSize) {
+        assert expectedSize > 0 : "Violation of: expectedSize > 0";
+
+        this.expectedSize = expectedSize;
+        this.createNewCounters();
         this.createNewRep();
 
     }
@@ -296,7 +501,14 @@ public class Set3a<T extends Comparable<T>> extends SetSecondary<T> {
     @Override
     public final Set<T> newInstance() {
         try {
-            return this.getClass().getConstructor().newInstance();
+            Set<T> result;
+            if (this.expectedSize > 0) {
+                result = this.getClass().getConstructor(int.class)
+                        .newInstance(this.expectedSize);
+            } else {
+                result = this.getClass().getConstructor().newInstance();
+            }
+            return result;
         } catch (ReflectiveOperationException e) {
             throw new AssertionError(
                     "Cannot construct object of type " + this.getClass());
@@ -321,6 +533,10 @@ public class Set3a<T extends Comparable<T>> extends SetSecondary<T> {
          */
         Set3a<T> localSource = (Set3a<T>) source;
         this.tree = localSource.tree;
+        this.filter = localSource.filter;
+        this.filterCapacity = localSource.filterCapacity;
+        this.expectedSize = localSource.expectedSize;
+        this.staleElements = localSource.staleElements;
         localSource.createNewRep();
     }
 
@@ -333,7 +549,16 @@ public class Set3a<T extends Comparable<T>> extends SetSecondary<T> {
         assert x != null : "Violation of: x is not null";
         assert !this.contains(x) : "Violation of: x is not in this";
 
-        insertInTree(this.tree, x);
+        this.addCounter.calls++;
+        insertInTree(this.tree, x, this.addCounter);
+        if (this.filter != null) {
+            if (this.tree.size() > this.filterCapacity) {
+                // double the filter so the false-positive rate stays bounded
+                this.rebuildFilter(2 * this.filterCapacity);
+            } else {
+                this.filter.add(x);
+            }
+        }
 
     }
 
@@ -342,21 +567,41 @@ public class Set3a<T extends Comparable<T>> extends SetSecondary<T> {
         assert x != null : "Violation of: x is not null";
         assert this.contains(x) : "Violation of: x is in this";
 
-        return removeFromTree(this.tree, x);
+        this.removeCounter.calls++;
+        T removed = removeFromTree(this.tree, x, this.removeCounter);
+        this.noteRemoval();
+
+        return removed;
     }
 
     @Override
     public final T removeAny() {
         assert this.size() > 0 : "Violation of: this /= empty_set";
 
-        return removeSmallest(this.tree);
+        this.removeCounter.calls++;
+        T removed = removeSmallest(this.tree, this.removeCounter);
+        this.noteRemoval();
+
+        return removed;
     }
 
     @Override
     public final boolean contains(T x) {
         assert x != null : "Violation of: x is not null";
 
-        return isInTree(this.tree, x);
+        this.containsCounter.calls++;
+        boolean contains;
+        if (this.filter != null && !this.filter.mightContain(x)) {
+            this.filterRejections++;
+            contains = false;
+        } else {
+            contains = isInTree(this.tree, x, this.containsCounter);
+            if (!contains && this.filter != null) {
+                this.filterFalsePositives++;
+            }
+        }
+
+        return contains;
     }
 
     @Override
@@ -370,4 +615,128 @@ public class Set3a<T extends Comparable<T>> extends SetSecondary<T> {
         return this.tree.iterator();
     }
 
+    /*
+     * Other methods ----------------------------------------------------------
+     */
+
+    /**
+     * Reports the fraction of {@code contains} misses that the Bloom filter
+     * failed to rule out, i.e., the observed false-positive rate of the
+     * filter. Calls made by assertions are included.
+     *
+     * @return the observed false-positive rate, or 0 if filtering is off or
+     *         there have been no misses
+     * @ensures 0 <= filterFalsePositiveRate <= 1
+     */
+    public final double filterFalsePositiveRate() {
+        long misses = this.filterRejections + this.filterFalsePositives;
+        double rate = 0.0;
+        if (misses > 0) {
+            rate = (double) this.filterFalsePositives / misses;
+        }
+        return rate;
+    }
+
+    /**
+     * Reports the height of the tree representing {@code this}; a lone node
+     * has height 1.
+     *
+     * @return the height of the tree
+     * @ensures treeHeight = [height of $this.tree]
+     */
+    public final int treeHeight() {
+        return this.tree.height();
+    }
+
+    /**
+     * Reports the average depth of the nodes of the tree representing
+     * {@code this}, with the root at depth 1. This is the average number of
+     * comparisons a successful {@code contains} makes. Takes time linear in
+     * {@code |this|}.
+     *
+     * @return the average node depth, or 0 if {@code this} is empty
+     * @ensures averageNodeDepth = [average depth of the nodes of $this.tree]
+     */
+    public final double averageNodeDepth() {
+        double average = 0.0;
+        if (this.tree.size() > 0) {
+            average = (double) totalDepth(this.tree, 1) / this.tree.size();
+        }
+        return average;
+    }
+
+    /**
+     * Reports how far the tree representing {@code this} is from perfectly
+     * balanced, as its height divided by the smallest height a binary tree
+     * with {@code |this|} nodes can have. A value near 1 means balanced; a
+     * value near {@code |this| / log2(|this|)} means the tree has degenerated
+     * into a list, e.g., after sorted insertions.
+     *
+     * @return the balance factor, which is 1 if {@code this} is empty
+     * @ensures balanceFactor >= 1
+     */
+    public final double balanceFactor() {
+        int minimumHeight = 0;
+        long capacity = 0;
+        while (capacity < this.tree.size()) {
+            // a complete tree of height h + 1 holds 2^(h+1) - 1 nodes
+            capacity = 2 * capacity + 1;
+            minimumHeight++;
+        }
+        double factor = 1.0;
+        if (minimumHeight > 0) {
+            factor = (double) this.tree.height() / minimumHeight;
+        }
+        return factor;
+    }
+
+    /**
+     * Reports the total number of {@code compareTo} calls made by
+     * {@code contains}, including calls made by assertions.
+     *
+     * @return the number of comparisons made by {@code contains}
+     */
+    public final long containsComparisons() {
+        return this.containsCounter.comparisons;
+    }
+
+    /**
+     * Reports the total number of {@code compareTo} calls made by
+     * {@code add}.
+     *
+     * @return the number of comparisons made by {@code add}
+     */
+    public final long addComparisons() {
+        return this.addCounter.comparisons;
+    }
+
+    /**
+     * Reports the total number of {@code compareTo} calls made by
+     * {@code remove} and {@code removeAny}.
+     *
+     * @return the number of comparisons made by {@code remove}
+     */
+    public final long removeComparisons() {
+        return this.removeCounter.comparisons;
+    }
+
+    /**
+     * Reports the average number of {@code BinaryTree} objects allocated by
+     * each {@code add}, {@code remove}, {@code removeAny}, and
+     * {@code contains}.
+     *
+     * @return the allocations per operation, or 0 if there have been none
+     */
+    public final double allocationsPerOperation() {
+        long calls = this.containsCounter.calls + this.addCounter.calls
+                + this.removeCounter.calls;
+        long allocations = this.containsCounter.allocations
+                + this.addCounter.allocations + this.removeCounter.allocations;
+        double average = 0.0;
+        if (calls > 0) {
+            average = (double) allocations / calls;
+        }
+        return average;
+    }
+
 }
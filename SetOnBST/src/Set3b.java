@@ -0,0 +1,489 @@
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.set.Set;
+import components.set.SetSecondary;
+
+/**
+ * {@code Set} represented as a persistent binary search tree of immutable
+ * nodes, with implementations of primary methods and {@code snapshot}.
+ *
+ * <p>
+ * {@code add}, {@code remove}, and {@code removeAny} never modify an existing
+ * node: they copy only the nodes on the path from the root to the affected
+ * position and share every other node with the previous version. As a result
+ * {@code snapshot} is O(1), and a snapshot (or an iterator) is an isolated view
+ * that later updates to {@code this} do not affect, so readers holding one need
+ * no lock.
+ * </p>
+ *
+ * @param <T>
+ *            type of {@code Set} elements
+ * @mathdefinitions <pre>
+ * IS_BST(
+ *   tree: binary tree of T
+ *  ): boolean satisfies
+ *  [tree satisfies the binary search tree properties as described in the
+ *   slides with the ordering reported by compareTo for T, including that
+ *   it has no duplicate labels]
+ * </pre>
+ * @convention <pre>
+ * IS_BST([tree of nodes rooted at $this.root])  and
+ * [for every node n in that tree, n.size = |labels(tree rooted at n)|]
+ * </pre>
+ * @correspondence this = labels([tree of nodes rooted at $this.root])
+ *
+ * @author Ibrahim Mohamed
+ *
+ */
+public class Set3b<T extends Comparable<T>> extends SetSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Immutable binary search tree node; {@code null} is the empty tree.
+     *
+     * @param <T>
+     *            type of node labels
+     */
+    private static final class Node<T> {
+
+        /**
+         * Label of this node.
+         */
+        private final T label;
+
+        /**
+         * Left subtree.
+         */
+        private final Node<T> left;
+
+        /**
+         * Right subtree.
+         */
+        private final Node<T> right;
+
+        /**
+         * Number of labels in the tree rooted at this node.
+         */
+        private final int size;
+
+        /**
+         * Constructor from label and subtrees.
+         *
+         * @param label
+         *            the label
+         * @param left
+         *            the left subtree
+         * @param right
+         *            the right subtree
+         */
+        private Node(T label, Node<T> left, Node<T> right) {
+            this.label = label;
+            this.left = left;
+            this.right = right;
+            this.size = 1 + sizeOf(left) + sizeOf(right);
+        }
+
+    }
+
+    /**
+     * Root of the current version of the tree; volatile so that a snapshot
+     * taken by another thread always sees a fully built version.
+     */
+    private volatile Node<T> root;
+
+    /**
+     * Returns the number of labels in the tree rooted at {@code t}.
+     *
+     * @param <T>
+     *            type of labels
+     * @param t
+     *            the root of the tree
+     * @return |labels(t)|
+     * @ensures sizeOf = |labels(t)|
+     */
+    private static <T> int sizeOf(Node<T> t) {
+        int size = 0;
+        if (t != null) {
+            size = t.size;
+        }
+        return size;
+    }
+
+    /**
+     * Returns whether {@code x} is in the tree rooted at {@code t}.
+     *
+     * @param <T>
+     *            type of labels
+     * @param t
+     *            the root of the tree to be searched
+     * @param x
+     *            the label to be searched for
+     * @return true if t contains x, false otherwise
+     * @requires IS_BST(t)
+     * @ensures isInTree = (x is in labels(t))
+     */
+    private static <T extends Comparable<T>> boolean isInTree(Node<T> t, T x) {
+        assert x != null : "Violation of: x is not null";
+
+        boolean contains = false;
+        Node<T> n = t;
+        while (!contains && n != null) {
+            int cmp = x.compareTo(n.label);
+            if (cmp == 0) {
+                contains = true;
+            } else if (cmp < 0) {
+                n = n.left;
+            } else {
+                n = n.right;
+            }
+        }
+        return contains;
+    }
+
+    /**
+     * Returns the root of a tree with the labels of {@code t} and {@code x},
+     * copying only the nodes on the search path for {@code x}.
+     *
+     * @param <T>
+     *            type of labels
+     * @param t
+     *            the root of the tree to insert into
+     * @param x
+     *            the label to be inserted
+     * @return the root of the new version
+     * @requires IS_BST(t) and x is not in labels(t)
+     * @ensures IS_BST(insertInTree) and
+     *          labels(insertInTree) = labels(t) union {x}
+     */
+    private static <T extends Comparable<T>> Node<T> insertInTree(Node<T> t,
+            T x) {
+        assert x != null : "Violation of: x is not null";
+
+        Node<T> result;
+        if (t == null) {
+            result = new Node<T>(x, null, null);
+        } else if (x.compareTo(t.label) < 0) {
+            // copy this node, reusing the untouched right subtree
+            result = new Node<T>(t.label, insertInTree(t.left, x), t.right);
+        } else {
+            result = new Node<T>(t.label, t.left, insertInTree(t.right, x));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the smallest (left-most) label in the tree rooted at {@code t}.
+     *
+     * @param <T>
+     *            type of labels
+     * @param t
+     *            the root of the tree
+     * @return the smallest label in t
+     * @requires t is not empty
+     * @ensures smallest = [the smallest label in t]
+     */
+    private static <T> T smallest(Node<T> t) {
+        assert t != null : "Violation of: t is not empty";
+
+        Node<T> n = t;
+        while (n.left != null) {
+            n = n.left;
+        }
+        return n.label;
+    }
+
+    /**
+     * Returns the root of a tree with the labels of {@code t} except its
+     * smallest one, copying only the left spine.
+     *
+     * @param <T>
+     *            type of labels
+     * @param t
+     *            the root of the tree
+     * @return the root of the new version
+     * @requires IS_BST(t) and t is not empty
+     * @ensures IS_BST(removeSmallest) and
+     *          labels(removeSmallest) = labels(t) \ {[the smallest label in t]}
+     */
+    private static <T> Node<T> removeSmallest(Node<T> t) {
+        assert t != null : "Violation of: t is not empty";
+
+        Node<T> result;
+        if (t.left == null) {
+            result = t.right;
+        } else {
+            result = new Node<T>(t.label, removeSmallest(t.left), t.right);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the root of a tree with the labels of {@code t} except
+     * {@code x}, copying only the nodes on the search path for {@code x}.
+     *
+     * @param <T>
+     *            type of labels
+     * @param t
+     *            the root of the tree
+     * @param x
+     *            the label to be removed
+     * @return the root of the new version
+     * @requires IS_BST(t) and x is in labels(t)
+     * @ensures IS_BST(removeFromTree) and
+     *          labels(removeFromTree) = labels(t) \ {x}
+     */
+    private static <T extends Comparable<T>> Node<T> removeFromTree(Node<T> t,
+            T x) {
+        assert t != null : "Violation of: x is in labels(t)";
+        assert x != null : "Violation of: x is not null";
+
+        Node<T> result;
+        int cmp = x.compareTo(t.label);
+        if (cmp < 0) {
+            result = new Node<T>(t.label, removeFromTree(t.left, x), t.right);
+        } else if (cmp > 0) {
+            result = new Node<T>(t.label, t.left, removeFromTree(t.right, x));
+        } else if (t.right == null) {
+            result = t.left;
+        } else if (t.left == null) {
+            result = t.right;
+        } else {
+            // replace the label with its successor, as Set3a does
+            result = new Node<T>(smallest(t.right), t.left,
+                    removeSmallest(t.right));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the label in the tree rooted at {@code t} that is equal to
+     * {@code x}.
+     *
+     * @param <T>
+     *            type of labels
+     * @param t
+     *            the root of the tree
+     * @param x
+     *            the label to be found
+     * @return the label equal to x
+     * @requires IS_BST(t) and x is in labels(t)
+     * @ensures find = x
+     */
+    private static <T extends Comparable<T>> T find(Node<T> t, T x) {
+        Node<T> n = t;
+        int cmp = x.compareTo(n.label);
+        while (cmp != 0) {
+            if (cmp < 0) {
+                n = n.left;
+            } else {
+                n = n.right;
+            }
+            cmp = x.compareTo(n.label);
+        }
+        return n.label;
+    }
+
+    /**
+     * Creator of initial representation.
+     */
+    private void createNewRep() {
+
+        this.root = null;
+
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public Set3b() {
+
+        this.createNewRep();
+
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Set<T> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep();
+    }
+
+    @Override
+    public final void transferFrom(Set<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof Set3b<?> : ""
+                + "Violation of: source is of dynamic type Set3b<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type Set3b<?>, and
+         * the ? must be T or the call would not have compiled.
+         */
+        Set3b<T> localSource = (Set3b<T>) source;
+        this.root = localSource.root;
+        localSource.createNewRep();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert !this.contains(x) : "Violation of: x is not in this";
+
+        this.root = insertInTree(this.root, x);
+
+    }
+
+    @Override
+    public final T remove(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.contains(x) : "Violation of: x is in this";
+
+        Node<T> version = this.root;
+        T removed = find(version, x);
+        this.root = removeFromTree(version, x);
+
+        return removed;
+    }
+
+    @Override
+    public final T removeAny() {
+        assert this.size() > 0 : "Violation of: this /= empty_set";
+
+        Node<T> version = this.root;
+        T removed = smallest(version);
+        this.root = removeSmallest(version);
+
+        return removed;
+    }
+
+    @Override
+    public final boolean contains(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        return isInTree(this.root, x);
+    }
+
+    @Override
+    public final int size() {
+
+        return sizeOf(this.root);
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new Set3bIterator(this.root);
+    }
+
+    /*
+     * Other methods ----------------------------------------------------------
+     */
+
+    /**
+     * Returns an independent copy of {@code this} in O(1) time, sharing every
+     * node with {@code this}. Later changes to either set are not seen by the
+     * other.
+     *
+     * @return a set with the same elements as {@code this}
+     * @ensures snapshot = this
+     */
+    public final Set3b<T> snapshot() {
+        Set3b<T> copy = new Set3b<T>();
+        // a single read of the root captures a complete, immutable version
+        copy.root = this.root;
+        return copy;
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code Set3b}, walking
+     * the version of the tree that was current when it was created.
+     */
+    private final class Set3bIterator implements Iterator<T> {
+
+        /**
+         * Nodes whose label and right subtree are still to be visited, with
+         * the next label to return on top.
+         */
+        private final Deque<Node<T>> pending;
+
+        /**
+         * Constructor from the root of the version to iterate over.
+         *
+         * @param start
+         *            the root of the version
+         */
+        private Set3bIterator(Node<T> start) {
+            this.pending = new ArrayDeque<Node<T>>();
+            this.pushLeftSpine(start);
+        }
+
+        /**
+         * Pushes {@code n} and every node on its left spine.
+         *
+         * @param n
+         *            the root of the subtree
+         */
+        private void pushLeftSpine(Node<T> n) {
+            Node<T> current = n;
+            while (current != null) {
+                this.pending.push(current);
+                current = current.left;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !this.pending.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            Node<T> n = this.pending.pop();
+            this.pushLeftSpine(n.right);
+            return n.label;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
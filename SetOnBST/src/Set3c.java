@@ -0,0 +1,387 @@
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.set.Set;
+import components.set.SetSecondary;
+
+/**
+ * {@code Set} represented as a splay tree (a self-adjusting binary search
+ * tree) of elements, with implementations of primary methods.
+ *
+ * <p>
+ * Every {@code add}, {@code remove}, and {@code contains} splays the element
+ * it looks for (or the last element on its search path) to the root, so
+ * recently used elements stay near the top. All operations run in amortized
+ * O(log |this|) time, and repeated lookups of a small set of hot elements run
+ * in nearly O(1) time. {@code removeAny} removes the element at the root.
+ * </p>
+ *
+ * @param <T>
+ *            type of {@code Set} elements
+ * @mathdefinitions <pre>
+ * IS_BST(
+ *   tree: binary tree of T
+ *  ): boolean satisfies
+ *  [tree satisfies the binary search tree properties as described in the
+ *   slides with the ordering reported by compareTo for T, including that
+ *   it has no duplicate labels]
+ * </pre>
+ * @convention <pre>
+ * IS_BST([tree of nodes rooted at $this.root])  and
+ * $this.size = |labels([tree of nodes rooted at $this.root])|  and
+ * [$this.header is not null]
+ * </pre>
+ * @correspondence this = labels([tree of nodes rooted at $this.root])
+ *
+ * @author Ibrahim Mohamed
+ *
+ */
+public class Set3c<T extends Comparable<T>> extends SetSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Node class for splay tree nodes.
+     */
+    private final class Node {
+
+        /**
+         * Label of this node, or, if this is the header Node, irrelevant.
+         */
+        private T label;
+
+        /**
+         * Left subtree.
+         */
+        private Node left;
+
+        /**
+         * Right subtree.
+         */
+        private Node right;
+
+    }
+
+    /**
+     * Root of the tree, or {@code null} if {@code this} is empty.
+     */
+    private Node root;
+
+    /**
+     * Scratch node used by {@code splay} to collect the left and right trees,
+     * kept so that a splay does not allocate.
+     */
+    private Node header;
+
+    /**
+     * Number of elements in {@code this}.
+     */
+    private int size;
+
+    /**
+     * Splays the tree rooted at {@code t} around {@code x}: rearranges it so
+     * that its root is {@code x} if {@code x} is in the tree, and otherwise the
+     * last node on the search path for {@code x}. Uses the top-down algorithm,
+     * so it needs no parent links and no recursion.
+     *
+     * @param x
+     *            the label to splay around
+     * @param t
+     *            the root of the tree
+     * @return the root of the rearranged tree
+     * @requires IS_BST(t) and t is not empty
+     * @ensures <pre>
+     * IS_BST(splay)  and  labels(splay) = labels(t)  and
+     * (if x is in labels(t) then splay.label = x)
+     * </pre>
+     */
+    private Node splay(T x, Node t) {
+        assert x != null : "Violation of: x is not null";
+        assert t != null : "Violation of: t is not empty";
+
+        Node top = t;
+        Node h = this.header;
+        h.left = null;
+        h.right = null;
+        // lastLeft collects labels < x, firstRight collects labels > x
+        Node lastLeft = h;
+        Node firstRight = h;
+        boolean done = false;
+        while (!done) {
+            int cmp = x.compareTo(top.label);
+            if (cmp < 0 && top.left != null) {
+                if (x.compareTo(top.left.label) < 0) {
+                    // zig-zig: rotate right before linking
+                    Node y = top.left;
+                    top.left = y.right;
+                    y.right = top;
+                    top = y;
+                }
+                if (top.left == null) {
+                    done = true;
+                } else {
+                    // link top into the right tree
+                    firstRight.left = top;
+                    firstRight = top;
+                    top = top.left;
+                }
+            } else if (cmp > 0 && top.right != null) {
+                if (x.compareTo(top.right.label) > 0) {
+                    // zig-zig: rotate left before linking
+                    Node y = top.right;
+                    top.right = y.left;
+                    y.left = top;
+                    top = y;
+                }
+                if (top.right == null) {
+                    done = true;
+                } else {
+                    // link top into the left tree
+                    lastLeft.right = top;
+                    lastLeft = top;
+                    top = top.right;
+                }
+            } else {
+                done = true;
+            }
+        }
+
+        // reassemble the left, middle, and right trees
+        lastLeft.right = top.left;
+        firstRight.left = top.right;
+        top.left = h.right;
+        top.right = h.left;
+        h.left = null;
+        h.right = null;
+
+        return top;
+    }
+
+    /**
+     * Creator of initial representation.
+     */
+    private void createNewRep() {
+
+        this.root = null;
+        this.header = new Node();
+        this.size = 0;
+
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public Set3c() {
+
+        this.createNewRep();
+
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Set<T> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep();
+    }
+
+    @Override
+    public final void transferFrom(Set<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof Set3c<?> : ""
+                + "Violation of: source is of dynamic type Set3c<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type Set3c<?>, and
+         * the ? must be T or the call would not have compiled.
+         */
+        Set3c<T> localSource = (Set3c<T>) source;
+        this.root = localSource.root;
+        this.header = localSource.header;
+        this.size = localSource.size;
+        localSource.createNewRep();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert !this.contains(x) : "Violation of: x is not in this";
+
+        Node n = new Node();
+        n.label = x;
+        if (this.root != null) {
+            /*
+             * after splaying, the root is the neighbor of x, so x becomes the
+             * new root with the old root on one side
+             */
+            Node top = this.splay(x, this.root);
+            if (x.compareTo(top.label) < 0) {
+                n.left = top.left;
+                n.right = top;
+                top.left = null;
+            } else {
+                n.right = top.right;
+                n.left = top;
+                top.right = null;
+            }
+        }
+        this.root = n;
+        this.size++;
+
+    }
+
+    @Override
+    public final T remove(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.contains(x) : "Violation of: x is in this";
+
+        Node top = this.splay(x, this.root);
+        T removed = top.label;
+        if (top.left == null) {
+            this.root = top.right;
+        } else {
+            /*
+             * x is larger than everything on the left, so splaying the left
+             * tree around x brings its largest label up with no right child
+             */
+            Node newRoot = this.splay(x, top.left);
+            newRoot.right = top.right;
+            this.root = newRoot;
+        }
+        this.size--;
+
+        return removed;
+    }
+
+    @Override
+    public final T removeAny() {
+        assert this.size() > 0 : "Violation of: this /= empty_set";
+
+        // the root is the cheapest element to remove
+        return this.remove(this.root.label);
+    }
+
+    @Override
+    public final boolean contains(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        boolean contains = false;
+        if (this.root != null) {
+            this.root = this.splay(x, this.root);
+            contains = x.compareTo(this.root.label) == 0;
+        }
+
+        return contains;
+    }
+
+    @Override
+    public final int size() {
+
+        return this.size;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new Set3cIterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code Set3c}.
+     *
+     * <p>
+     * Because {@code contains} restructures the tree, the labels are copied in
+     * order when the iterator is created, so that lookups made while iterating
+     * cannot disturb the iteration.
+     * </p>
+     */
+    private final class Set3cIterator implements Iterator<T> {
+
+        /**
+         * Labels of {@code this}, in increasing order.
+         */
+        private final Object[] labels;
+
+        /**
+         * Index of the next label to return.
+         */
+        private int current;
+
+        /**
+         * No-argument constructor.
+         */
+        private Set3cIterator() {
+            this.labels = new Object[Set3c.this.size];
+            this.current = 0;
+            // in-order traversal with an explicit stack
+            Deque<Node> pending = new ArrayDeque<Node>();
+            int count = 0;
+            Node n = Set3c.this.root;
+            while (n != null || !pending.isEmpty()) {
+                if (n != null) {
+                    pending.push(n);
+                    n = n.left;
+                } else {
+                    n = pending.pop();
+                    this.labels[count] = n.label;
+                    count++;
+                    n = n.right;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.current < this.labels.length;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            T next = (T) this.labels[this.current];
+            this.current++;
+            return next;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
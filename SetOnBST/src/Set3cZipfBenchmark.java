@@ -0,0 +1,220 @@
+import java.util.Random;
+
+import components.set.Set;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Times {@code contains} on {@code Set3c} against {@code Set3a} when the
+ * queried keys follow a Zipfian distribution (a few hot keys queried most of
+ * the time), with a uniform distribution as the control.
+ *
+ * <p>
+ * Both sets hold the same {@code SIZE} keys, added in the same shuffled order
+ * so that {@code Set3a} gets a tree of typical (logarithmic) height. Each
+ * round queries {@code QUERIES} keys; the first {@code WARMUP_ROUNDS} rounds
+ * are not reported. Run without {@code -ea}, since the assertions in the
+ * kernels dominate the time otherwise.
+ * </p>
+ *
+ * @author Ibrahim Mohamed
+ *
+ */
+public final class Set3cZipfBenchmark {
+
+    /**
+     * Number of keys in each set.
+     */
+    private static final int SIZE = 100000;
+
+    /**
+     * Number of {@code contains} calls per round.
+     */
+    private static final int QUERIES = 1000000;
+
+    /**
+     * Number of rounds run before the measured ones.
+     */
+    private static final int WARMUP_ROUNDS = 3;
+
+    /**
+     * Number of measured rounds; the best one is reported.
+     */
+    private static final int ROUNDS = 5;
+
+    /**
+     * Zipf exponent; rank r is queried with probability proportional to
+     * 1 / r^ZIPF_EXPONENT.
+     */
+    private static final double ZIPF_EXPONENT = 1.0;
+
+    /**
+     * Seed for the pseudo-random generator, so runs are reproducible.
+     */
+    private static final long SEED = 20261019L;
+
+    /**
+     * Nanoseconds per millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private Set3cZipfBenchmark() {
+    }
+
+    /**
+     * Returns {@code count} indices in [0, n) drawn from a Zipfian
+     * distribution, where the i-th most popular index is {@code rank[i]}.
+     *
+     * @param n
+     *            number of distinct indices
+     * @param count
+     *            number of indices to draw
+     * @param rank
+     *            popularity order of the indices
+     * @param rnd
+     *            source of randomness
+     * @return the drawn indices
+     */
+    private static int[] zipfQueries(int n, int count, int[] rank,
+            Random rnd) {
+        double[] cumulative = new double[n];
+        double total = 0.0;
+        for (int r = 0; r < n; r++) {
+            total += 1.0 / Math.pow(r + 1, ZIPF_EXPONENT);
+            cumulative[r] = total;
+        }
+        int[] queries = new int[count];
+        for (int q = 0; q < count; q++) {
+            double u = rnd.nextDouble() * total;
+            int lo = 0;
+            int hi = n - 1;
+            while (lo < hi) {
+                int mid = (lo + hi) / 2;
+                if (cumulative[mid] < u) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            queries[q] = rank[lo];
+        }
+        return queries;
+    }
+
+    /**
+     * Returns {@code count} indices in [0, n) drawn uniformly.
+     *
+     * @param n
+     *            number of distinct indices
+     * @param count
+     *            number of indices to draw
+     * @param rnd
+     *            source of randomness
+     * @return the drawn indices
+     */
+    private static int[] uniformQueries(int n, int count, Random rnd) {
+        int[] queries = new int[count];
+        for (int q = 0; q < count; q++) {
+            queries[q] = rnd.nextInt(n);
+        }
+        return queries;
+    }
+
+    /**
+     * Returns a random permutation of [0, n).
+     *
+     * @param n
+     *            length of the permutation
+     * @param rnd
+     *            source of randomness
+     * @return the permutation
+     */
+    private static int[] permutation(int n, Random rnd) {
+        int[] p = new int[n];
+        for (int i = 0; i < n; i++) {
+            p[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            int tmp = p[i];
+            p[i] = p[j];
+            p[j] = tmp;
+        }
+        return p;
+    }
+
+    /**
+     * Returns the best time, in milliseconds, over the measured rounds of
+     * calling {@code s.contains} on each of {@code keys[queries[i]]}.
+     *
+     * @param s
+     *            the set queried
+     * @param keys
+     *            the keys
+     * @param queries
+     *            indices of the keys to query
+     * @return the best time of a round, in milliseconds
+     */
+    private static long time(Set<Integer> s, Integer[] keys,
+            int[] queries) {
+        long best = Long.MAX_VALUE;
+        int found = 0;
+        for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int q : queries) {
+                if (s.contains(keys[q])) {
+                    found++;
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            if (round >= WARMUP_ROUNDS) {
+                best = Math.min(best, elapsed);
+            }
+        }
+        // every query is for a key in s; this also keeps the loop live
+        assert found == (WARMUP_ROUNDS + ROUNDS) * queries.length;
+        return Math.round(best / NANOS_PER_MILLI);
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments
+     */
+    public static void main(String[] args) {
+        SimpleWriter out = new SimpleWriter1L();
+        Random rnd = new Random(SEED);
+        /*
+         * Build both sets from the same keys, added in the same order
+         */
+        Integer[] keys = new Integer[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            keys[i] = i;
+        }
+        int[] insertOrder = permutation(SIZE, rnd);
+        Set<Integer> a = new Set3a<Integer>();
+        Set<Integer> c = new Set3c<Integer>();
+        for (int i : insertOrder) {
+            a.add(keys[i]);
+            c.add(keys[i]);
+        }
+        /*
+         * Hot keys are scattered over the key range, not clustered at one end
+         */
+        int[] zipf = zipfQueries(SIZE, QUERIES, permutation(SIZE, rnd), rnd);
+        int[] uniform = uniformQueries(SIZE, QUERIES, rnd);
+        out.println("Set3c vs Set3a, contains on " + SIZE + " keys, "
+                + QUERIES + " queries per round, best of " + ROUNDS
+                + " rounds (ms)");
+        out.println("  zipf(s=" + ZIPF_EXPONENT + "):  Set3a "
+                + time(a, keys, zipf) + "  Set3c " + time(c, keys, zipf));
+        out.println("  uniform:      Set3a " + time(a, keys, uniform)
+                + "  Set3c " + time(c, keys, uniform));
+        out.close();
+    }
+
+}
@@ -0,0 +1,224 @@
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import components.set.Set;
+import components.set.SetSecondary;
+
+/**
+ * {@code Set} represented as a lock-free skip list, with implementations of
+ * primary methods.
+ *
+ * <p>
+ * The kernel methods {@code add}, {@code remove}, {@code removeAny},
+ * {@code contains}, and {@code size} may be called concurrently from any number
+ * of threads without external synchronization; each of {@code add},
+ * {@code remove}, and {@code contains} takes expected O(log |this|) time.
+ * Iteration is in increasing order according to {@code compareTo} for
+ * {@code T}, just like {@code Set3a}, and is weakly consistent: it never throws
+ * {@code ConcurrentModificationException} and reflects every element that was
+ * in {@code this} for the whole traversal, and may or may not reflect
+ * concurrent modifications. The standard methods {@code clear},
+ * {@code newInstance}, and {@code transferFrom} are not meant to be called
+ * while other threads are using {@code this}.
+ * </p>
+ *
+ * @param <T>
+ *            type of {@code Set} elements
+ * @convention <pre>
+ * [$this.skipList is not null]  and
+ * [each key of $this.skipList is mapped to itself]  and
+ * $this.size = |$this.skipList|  [when no kernel method is in progress]
+ * </pre>
+ * @correspondence this = keys($this.skipList)
+ *
+ * @author Ibrahim Mohamed
+ *
+ */
+public class Set5<T extends Comparable<T>> extends SetSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Elements included in {@code this}, ordered by {@code compareTo}, each
+     * mapped to itself so that {@code remove} can return the stored element.
+     */
+    private ConcurrentSkipListMap<T, T> skipList;
+
+    /**
+     * Number of elements in {@code this}; kept separately because
+     * {@code ConcurrentSkipListMap.size} walks the whole list, and in a
+     * {@code LongAdder} so that concurrent updates do not contend on one
+     * counter.
+     */
+    private LongAdder size;
+
+    /**
+     * Creator of initial representation.
+     */
+    private void createNewRep() {
+
+        this.skipList = new ConcurrentSkipListMap<T, T>();
+        this.size = new LongAdder();
+
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public Set5() {
+
+        this.createNewRep();
+
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Set<T> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep();
+    }
+
+    @Override
+    public final void transferFrom(Set<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof Set5<?> : ""
+                + "Violation of: source is of dynamic type Set5<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type Set5<?>, and
+         * the ? must be T or the call would not have compiled.
+         */
+        Set5<T> localSource = (Set5<T>) source;
+        this.skipList = localSource.skipList;
+        this.size = localSource.size;
+        localSource.createNewRep();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert !this.contains(x) : "Violation of: x is not in this";
+
+        /*
+         * only count x if this thread is the one that actually linked it in,
+         * so racing adders cannot inflate the size
+         */
+        if (this.skipList.putIfAbsent(x, x) == null) {
+            this.size.increment();
+        }
+
+    }
+
+    @Override
+    public final T remove(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.contains(x) : "Violation of: x is in this";
+
+        // only the thread whose remove unlinks x updates the size
+        T removed = this.skipList.remove(x);
+        if (removed != null) {
+            this.size.decrement();
+        }
+
+        return removed;
+    }
+
+    @Override
+    public final T removeAny() {
+        assert this.size() > 0 : "Violation of: this /= empty_set";
+
+        // take the smallest element, as Set3a does
+        T removed = null;
+        Map.Entry<T, T> first = this.skipList.pollFirstEntry();
+        if (first != null) {
+            removed = first.getValue();
+            this.size.decrement();
+        }
+
+        return removed;
+    }
+
+    @Override
+    public final boolean contains(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        return this.skipList.containsKey(x);
+    }
+
+    @Override
+    public final int size() {
+
+        /*
+         * the sum may be briefly off while other threads are adding or
+         * removing, but it is never reported as negative
+         */
+        return Math.max(0, this.size.intValue());
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new Set5Iterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code Set5}.
+     */
+    private final class Set5Iterator implements Iterator<T> {
+
+        /**
+         * Weakly consistent iterator over the skip list.
+         */
+        private Iterator<T> skipListIterator;
+
+        /**
+         * No-argument constructor.
+         */
+        private Set5Iterator() {
+            this.skipListIterator = Set5.this.skipList.keySet().iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.skipListIterator.hasNext();
+        }
+
+        @Override
+        public T next() {
+            return this.skipListIterator.next();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
@@ -0,0 +1,269 @@
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+import components.set.Set;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Measures the throughput of {@code Set5} under a mixed workload run by 1, 2,
+ * 4, ... {@code MAX_THREADS} threads at once, against a {@code Set3a} shared
+ * behind one global lock.
+ *
+ * <p>
+ * Each thread performs {@code OPERATIONS_PER_THREAD} operations on keys drawn
+ * uniformly from [0, {@code KEY_RANGE}): {@code ADD_PERCENT} percent add the
+ * key if it is missing, {@code REMOVE_PERCENT} percent remove it if it is
+ * there, and the rest only call {@code contains}. Every set starts with the
+ * even keys, added in shuffled order so that {@code Set3a} gets a tree of
+ * typical (logarithmic) height. {@code Set5} is called without any locking;
+ * {@code Set3a} is called with each operation (including its {@code contains}
+ * check) inside a block synchronized on the set. The operations and keys of
+ * each thread are drawn before the clock starts, from a fixed seed, and the
+ * threads are released together. Throughputs are the best of {@code ROUNDS}
+ * rounds after {@code WARMUP_ROUNDS} rounds, in millions of operations per
+ * second. Run without {@code -ea}: the preconditions of {@code add} and
+ * {@code remove} cannot be checked while other threads are changing the set,
+ * and {@code conventionHolds} takes linear time in {@code Set3a}.
+ * </p>
+ *
+ * @author Ibrahim Mohamed
+ *
+ */
+public final class Set5ThroughputBenchmark {
+
+    /**
+     * Number of distinct keys the operations draw from.
+     */
+    private static final int KEY_RANGE = 100000;
+
+    /**
+     * Number of operations performed by each thread in a round.
+     */
+    private static final int OPERATIONS_PER_THREAD = 200000;
+
+    /**
+     * Percentage of operations that add a key.
+     */
+    private static final int ADD_PERCENT = 10;
+
+    /**
+     * Percentage of operations that remove a key.
+     */
+    private static final int REMOVE_PERCENT = 10;
+
+    /**
+     * Largest number of threads measured.
+     */
+    private static final int MAX_THREADS = 32;
+
+    /**
+     * Number of rounds run before the measured ones.
+     */
+    private static final int WARMUP_ROUNDS = 1;
+
+    /**
+     * Number of measured rounds; the best one is reported.
+     */
+    private static final int ROUNDS = 3;
+
+    /**
+     * Seed for the pseudo-random generator, so runs are reproducible.
+     */
+    private static final long SEED = 20261019L;
+
+    /**
+     * Nanoseconds per millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private Set5ThroughputBenchmark() {
+    }
+
+    /**
+     * Performs one operation of the workload on {@code s}.
+     *
+     * @param s
+     *            the set
+     * @param op
+     *            the operation, a percentage in [0, 100)
+     * @param x
+     *            the key
+     * @return whether {@code x} was in {@code s} when the operation looked
+     * @updates s
+     */
+    private static boolean operate(Set<Integer> s, int op, Integer x) {
+        boolean found = s.contains(x);
+        if (op < ADD_PERCENT) {
+            if (!found) {
+                s.add(x);
+            }
+        } else if (op < ADD_PERCENT + REMOVE_PERCENT) {
+            if (found) {
+                s.remove(x);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Runs one round of the workload with {@code threads} threads on a new
+     * set made by {@code factory}.
+     *
+     * @param factory
+     *            makes empty sets
+     * @param locked
+     *            whether each operation is synchronized on the set
+     * @param initial
+     *            the keys in each set at the start, in the order added
+     * @param ops
+     *            the operations of each thread
+     * @param keys
+     *            the keys of each thread
+     * @param threads
+     *            number of threads
+     * @return the time of the round, in nanoseconds
+     * @throws InterruptedException
+     *             if interrupted while waiting for the threads
+     */
+    private static long round(Supplier<Set<Integer>> factory, boolean locked,
+            Integer[] initial, int[][] ops, Integer[][] keys, int threads)
+            throws InterruptedException {
+        Set<Integer> s = factory.get();
+        for (Integer x : initial) {
+            s.add(x);
+        }
+        CountDownLatch start = new CountDownLatch(1);
+        int[] hits = new int[threads];
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int worker = t;
+            workers[t] = new Thread(() -> {
+                int[] myOps = ops[worker];
+                Integer[] myKeys = keys[worker];
+                int found = 0;
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < myOps.length; i++) {
+                    boolean hit;
+                    if (locked) {
+                        synchronized (s) {
+                            hit = operate(s, myOps[i], myKeys[i]);
+                        }
+                    } else {
+                        hit = operate(s, myOps[i], myKeys[i]);
+                    }
+                    if (hit) {
+                        found++;
+                    }
+                }
+                // publish the count, so the loop is not optimized away
+                hits[worker] = found;
+            });
+            workers[t].start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread w : workers) {
+            w.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+        int total = 0;
+        for (int h : hits) {
+            total += h;
+        }
+        assert total <= threads * OPERATIONS_PER_THREAD;
+        return elapsed;
+    }
+
+    /**
+     * Returns the best throughput, in millions of operations per second, of
+     * the workload with {@code threads} threads on sets made by
+     * {@code factory}.
+     *
+     * @param factory
+     *            makes empty sets
+     * @param locked
+     *            whether each operation is synchronized on the set
+     * @param initial
+     *            the keys in each set at the start, in the order added
+     * @param ops
+     *            the operations of each thread
+     * @param keys
+     *            the keys of each thread
+     * @param threads
+     *            number of threads
+     * @return the best throughput of a round, rounded to one decimal place
+     * @throws InterruptedException
+     *             if interrupted while waiting for the threads
+     */
+    private static String throughput(Supplier<Set<Integer>> factory,
+            boolean locked, Integer[] initial, int[][] ops, Integer[][] keys,
+            int threads) throws InterruptedException {
+        long best = Long.MAX_VALUE;
+        for (int r = 0; r < WARMUP_ROUNDS + ROUNDS; r++) {
+            long elapsed = round(factory, locked, initial, ops, keys,
+                    threads);
+            if (r >= WARMUP_ROUNDS) {
+                best = Math.min(best, elapsed);
+            }
+        }
+        // thousands of operations per millisecond are millions per second
+        double operations = (double) threads * OPERATIONS_PER_THREAD;
+        return String.format("%.1f",
+                operations / 1000 / (best / NANOS_PER_MILLI));
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments
+     * @throws InterruptedException
+     *             if interrupted while waiting for the threads
+     */
+    public static void main(String[] args) throws InterruptedException {
+        SimpleWriter out = new SimpleWriter1L();
+        Random rnd = new Random(SEED);
+        Integer[] initial = new Integer[KEY_RANGE / 2];
+        for (int i = 0; i < initial.length; i++) {
+            initial[i] = 2 * i;
+        }
+        for (int i = initial.length - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            Integer tmp = initial[i];
+            initial[i] = initial[j];
+            initial[j] = tmp;
+        }
+        int[][] ops = new int[MAX_THREADS][OPERATIONS_PER_THREAD];
+        Integer[][] keys = new Integer[MAX_THREADS][OPERATIONS_PER_THREAD];
+        for (int t = 0; t < MAX_THREADS; t++) {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                ops[t][i] = rnd.nextInt(100);
+                keys[t][i] = rnd.nextInt(KEY_RANGE);
+            }
+        }
+        out.println(KEY_RANGE + " keys, " + ADD_PERCENT + "% add, "
+                + REMOVE_PERCENT + "% remove, " + OPERATIONS_PER_THREAD
+                + " operations per thread, best of " + ROUNDS
+                + " rounds (Mops/s), on "
+                + Runtime.getRuntime().availableProcessors() + " cores");
+        for (int threads = 1; threads <= MAX_THREADS; threads *= 2) {
+            String locked = throughput(Set3a<Integer>::new, true, initial, ops,
+                    keys, threads);
+            String lockFree = throughput(Set5<Integer>::new, false, initial,
+                    ops, keys, threads);
+            out.println("  " + threads + " threads:  synchronized Set3a "
+                    + locked + "  Set5 " + lockFree);
+        }
+        out.close();
+    }
+
+}
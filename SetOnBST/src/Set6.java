@@ -0,0 +1,372 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.set.Set;
+import components.set.SetSecondary;
+
+/**
+ * Read-only {@code Set<String>} represented as a sorted array stored in a file
+ * and memory-mapped, with implementations of primary methods.
+ *
+ * <p>
+ * The file is written once by {@code export} from a {@code Set3a<String>} and
+ * can then be opened by any number of processes; opening it only maps it, so
+ * it takes constant time regardless of the number of elements, and the
+ * operating system shares the mapped pages between processes. {@code contains}
+ * is a binary search directly on the mapped bytes and creates no objects.
+ * {@code add}, {@code remove}, and {@code removeAny} are not supported.
+ * </p>
+ *
+ * <p>
+ * File layout (all values big-endian): the element count n as an
+ * {@code int}; then n + 1 {@code int} offsets, where element i occupies chars
+ * [offset(i), offset(i + 1)) of the character area; then the character area,
+ * holding the UTF-16 chars of the elements in increasing order. Storing UTF-16
+ * chars makes comparing them on the mapped bytes agree exactly with
+ * {@code String.compareTo}.
+ * </p>
+ *
+ * @convention <pre>
+ * $this.count >= 0  and
+ * [$this.buffer holds a file in the layout above with $this.count elements,
+ *  in strictly increasing order according to String.compareTo]
+ * </pre>
+ * @correspondence <pre>
+ * this = [set of the $this.count strings stored in $this.buffer]
+ * </pre>
+ *
+ * @author Ibrahim Mohamed
+ *
+ */
+public class Set6 extends SetSecondary<String> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Number of bytes in an {@code int}.
+     */
+    private static final int INT_BYTES = 4;
+
+    /**
+     * Number of bytes in a {@code char}.
+     */
+    private static final int CHAR_BYTES = 2;
+
+    /**
+     * The mapped file contents.
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * Number of elements in {@code this}.
+     */
+    private int count;
+
+    /**
+     * Byte position of the character area in {@code buffer}.
+     */
+    private int charBase;
+
+    /**
+     * Returns the char offset of element {@code i} in the character area.
+     *
+     * @param i
+     *            the index of the element, or {@code count} for the end of
+     *            the last element
+     * @return the offset
+     * @requires 0 <= i <= $this.count
+     */
+    private int offset(int i) {
+        return this.buffer.getInt(INT_BYTES + i * INT_BYTES);
+    }
+
+    /**
+     * Returns the char at position {@code index} of the character area.
+     *
+     * @param index
+     *            the position in the character area
+     * @return the char
+     */
+    private char charAt(int index) {
+        return this.buffer.getChar(this.charBase + index * CHAR_BYTES);
+    }
+
+    /**
+     * Returns the element at index {@code i}.
+     *
+     * @param i
+     *            the index of the element
+     * @return the element
+     * @requires 0 <= i < $this.count
+     */
+    private String element(int i) {
+        int start = this.offset(i);
+        int end = this.offset(i + 1);
+        char[] chars = new char[end - start];
+        for (int k = 0; k < chars.length; k++) {
+            chars[k] = this.charAt(start + k);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Compares {@code x} with the element at index {@code i} the same way
+     * {@code x.compareTo} would, reading the element in place.
+     *
+     * @param x
+     *            the string to compare
+     * @param i
+     *            the index of the element
+     * @return negative, zero, or positive as x is less than, equal to, or
+     *         greater than the element
+     * @requires 0 <= i < $this.count
+     */
+    private int compareWith(String x, int i) {
+        int start = this.offset(i);
+        int length = this.offset(i + 1) - start;
+        int common = Math.min(x.length(), length);
+        int result = 0;
+        int k = 0;
+        while (result == 0 && k < common) {
+            result = x.charAt(k) - this.charAt(start + k);
+            k++;
+        }
+        if (result == 0) {
+            result = x.length() - length;
+        }
+        return result;
+    }
+
+    /**
+     * Creator of initial representation, an empty set.
+     */
+    private void createNewRep() {
+
+        this.buffer = ByteBuffer.allocate(2 * INT_BYTES);
+        this.count = 0;
+        this.charBase = 2 * INT_BYTES;
+
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor, resulting in an empty set.
+     */
+    public Set6() {
+
+        this.createNewRep();
+
+    }
+
+    /**
+     * Constructor that maps a file written by {@code export}.
+     *
+     * @param fileName
+     *            the name of the file
+     * @throws IOException
+     *             if the file cannot be opened or mapped
+     * @requires [fileName names a file written by export of less than 2GB]
+     * @ensures this = [set of strings stored in the file]
+     */
+    public Set6(String fileName) throws IOException {
+        assert fileName != null : "Violation of: fileName is not null";
+
+        /*
+         * the mapping stays valid after the channel is closed, so nothing is
+         * left open
+         */
+        try (RandomAccessFile file = new RandomAccessFile(fileName, "r");
+                FileChannel channel = file.getChannel()) {
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    channel.size());
+        }
+        this.count = this.buffer.getInt(0);
+        this.charBase = INT_BYTES + (this.count + 1) * INT_BYTES;
+
+    }
+
+    /**
+     * Writes the elements of {@code source} to the file {@code fileName} in
+     * the layout read by {@code Set6(String)}.
+     *
+     * @param source
+     *            the set to export
+     * @param fileName
+     *            the name of the file to write
+     * @throws IOException
+     *             if the file cannot be written
+     * @ensures [file fileName holds the elements of source in the layout
+     *          above]
+     */
+    public static void export(Set3a<String> source, String fileName)
+            throws IOException {
+        assert source != null : "Violation of: source is not null";
+        assert fileName != null : "Violation of: fileName is not null";
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(fileName)))) {
+            out.writeInt(source.size());
+            // Set3a iterates in increasing order, which is the order needed
+            int offset = 0;
+            out.writeInt(offset);
+            for (String x : source) {
+                offset += x.length();
+                out.writeInt(offset);
+            }
+            for (String x : source) {
+                out.writeChars(x);
+            }
+        }
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @Override
+    public final Set<String> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep();
+    }
+
+    @Override
+    public final void transferFrom(Set<String> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof Set6 : ""
+                + "Violation of: source is of dynamic type Set6";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case.
+         */
+        Set6 localSource = (Set6) source;
+        this.buffer = localSource.buffer;
+        this.count = localSource.count;
+        this.charBase = localSource.charBase;
+        localSource.createNewRep();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(String x) {
+        throw new UnsupportedOperationException(
+                "add operation not supported");
+    }
+
+    @Override
+    public final String remove(String x) {
+        throw new UnsupportedOperationException(
+                "remove operation not supported");
+    }
+
+    @Override
+    public final String removeAny() {
+        throw new UnsupportedOperationException(
+                "removeAny operation not supported");
+    }
+
+    @Override
+    public final boolean contains(String x) {
+        assert x != null : "Violation of: x is not null";
+
+        // binary search over [low, high)
+        int low = 0;
+        int high = this.count;
+        boolean contains = false;
+        while (!contains && low < high) {
+            int middle = (low + high) >>> 1;
+            int comparison = this.compareWith(x, middle);
+            if (comparison == 0) {
+                contains = true;
+            } else if (comparison < 0) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+
+        return contains;
+    }
+
+    @Override
+    public final int size() {
+
+        return this.count;
+    }
+
+    @Override
+    public final Iterator<String> iterator() {
+        return new Set6Iterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code Set6}.
+     */
+    private final class Set6Iterator implements Iterator<String> {
+
+        /**
+         * Index of the next element to return.
+         */
+        private int current;
+
+        /**
+         * No-argument constructor.
+         */
+        private Set6Iterator() {
+            this.current = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.current < Set6.this.count;
+        }
+
+        @Override
+        public String next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            String next = Set6.this.element(this.current);
+            this.current++;
+            return next;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
@@ -1,3 +1,9 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
 import components.set.Set;
 import components.set.Set1L;
 
@@ -16,4 +22,107 @@ public class Set3aTest extends SetTest {
         return new Set1L<String>();
     }
 
+    /**
+     * Test case for shape diagnostics of a balanced tree.
+     */
+    @Test
+    public void balancedShapeTest() {
+        Set3a<String> test = new Set3a<String>();
+        test.add("b");
+        test.add("a");
+        test.add("c");
+        assertEquals(2, test.treeHeight());
+        assertEquals(5.0 / 3.0, test.averageNodeDepth(), 1e-9);
+        assertEquals(1.0, test.balanceFactor(), 1e-9);
+    }
+
+    /**
+     * Test case for shape diagnostics after sorted insertions.
+     */
+    @Test
+    public void degenerateShapeTest() {
+        Set3a<String> test = new Set3a<String>();
+        test.add("a");
+        test.add("b");
+        test.add("c");
+        test.add("d");
+        assertEquals(4, test.treeHeight());
+        assertEquals(2.5, test.averageNodeDepth(), 1e-9);
+        assertEquals(4.0 / 3.0, test.balanceFactor(), 1e-9);
+    }
+
+    /**
+     * Test case for shape diagnostics of an empty set.
+     */
+    @Test
+    public void emptyShapeTest() {
+        Set3a<String> test = new Set3a<String>();
+        assertEquals(0, test.treeHeight());
+        assertEquals(0.0, test.averageNodeDepth(), 1e-9);
+        assertEquals(1.0, test.balanceFactor(), 1e-9);
+    }
+
+    /**
+     * Test case for comparison counts on a tree of known shape: b at the root,
+     * a and c its children, and d the right child of c.
+     */
+    @Test
+    public void comparisonCountsTest() {
+        Set3a<String> test = new Set3a<String>();
+        test.add("b");
+        test.add("a");
+        test.add("c");
+        test.add("d");
+        // 0 + 1 + 1 + 2 nodes on the insertion paths
+        assertEquals(4, test.addComparisons());
+        /*
+         * contains also counts the calls made by the assertions in add, so
+         * check the increase
+         */
+        long before = test.containsComparisons();
+        assertTrue(test.contains("d"));
+        assertEquals(before + 3, test.containsComparisons());
+        assertFalse(test.contains("bb"));
+        assertEquals(before + 3 + 2, test.containsComparisons());
+        assertEquals(0, test.removeComparisons());
+        test.remove("c");
+        assertEquals(2, test.removeComparisons());
+        // removeAny follows left links and makes no comparisons
+        assertEquals("a", test.removeAny());
+        assertEquals(2, test.removeComparisons());
+        assertEquals(4, test.addComparisons());
+    }
+
+    /**
+     * Test case for allocation counts on a tree of known shape: each level of
+     * recursion allocates two subtrees.
+     */
+    @Test
+    public void allocationCountsTest() {
+        Set3a<String> test = new Set3a<String>();
+        assertEquals(0.0, test.allocationsPerOperation(), 1e-9);
+        test.add("b");
+        test.add("a");
+        test.add("c");
+        test.add("d");
+        test.contains("d");
+        test.remove("c");
+        /*
+         * add: 1 + 2 + 2 + 3 levels, contains: 3 levels, remove: 2 levels plus
+         * 1 to take the smallest of the right subtree; 14 levels in 6 calls
+         */
+        long allocations = 2 * (1 + 2 + 2 + 3 + 3 + 2 + 1);
+        long calls = 4 + 1 + 1;
+        if (Set3a.class.desiredAssertionStatus()) {
+            /*
+             * the assertions in add and remove call contains once each: 1 + 2
+             * + 2 + 3 levels for the adds, 2 levels for the remove
+             */
+            allocations += 2 * (1 + 2 + 2 + 3 + 2);
+            calls += 4 + 1;
+        }
+        assertEquals((double) allocations / calls,
+                test.allocationsPerOperation(), 1e-9);
+    }
+
 }
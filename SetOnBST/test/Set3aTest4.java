@@ -0,0 +1,80 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import components.set.Set;
+import components.set.Set1L;
+
+/**
+ * Customized JUnit test fixture for {@code Set3a} using non-default
+ * constructor and a Bloom filter initially sized for 4 elements.
+ */
+public class Set3aTest4 extends SetTest {
+
+    /**
+     * Number of elements the Bloom filter is initially sized for in tests.
+     */
+    private static final int TEST_EXPECTED_SIZE = 4;
+
+    @Override
+    protected final Set<String> constructorTest() {
+        return new Set3a<String>(TEST_EXPECTED_SIZE);
+    }
+
+    @Override
+    protected final Set<String> constructorRef() {
+        return new Set1L<String>();
+    }
+
+    /**
+     * Test case for the observed false-positive rate of a filter holding its
+     * expected number of elements.
+     */
+    @Test
+    public final void filterFalsePositiveRateTest() {
+        final int expectedSize = 1000;
+        final int misses = 20000;
+        final double bound = 0.01;
+        Set3a<String> test = new Set3a<String>(expectedSize);
+        for (int i = 0; i < expectedSize; i++) {
+            test.add("in" + i);
+        }
+        for (int i = 0; i < misses; i++) {
+            test.contains("out" + i);
+        }
+        double rate = test.filterFalsePositiveRate();
+        assertTrue(rate > 0.0);
+        assertTrue(rate <= bound);
+    }
+
+    /**
+     * Test case for the false-positive rate of a set that has had no misses.
+     */
+    @Test
+    public final void filterFalsePositiveRateNoMissesTest() {
+        Set3a<String> test = new Set3a<String>(TEST_EXPECTED_SIZE);
+        assertEquals(0.0, test.filterFalsePositiveRate(), 0.0);
+    }
+
+    /**
+     * Test case for newInstance of a set with a filter, which must have a
+     * filter too.
+     */
+    @Test
+    public final void newInstanceKeepsFilterTest() {
+        final int size = 1000;
+        final int misses = 20000;
+        Set3a<String> test = (Set3a<String>) new Set3a<String>(
+                TEST_EXPECTED_SIZE).newInstance();
+        for (int i = 0; i < size; i++) {
+            test.add("in" + i);
+        }
+        for (int i = 0; i < misses; i++) {
+            test.contains("out" + i);
+        }
+        // only a filter can report a nonzero false-positive rate
+        assertTrue(test.filterFalsePositiveRate() > 0.0);
+    }
+
+}
@@ -0,0 +1,47 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import components.set.Set;
+import components.set.Set1L;
+
+/**
+ * Customized JUnit test fixture for {@code Set3b}.
+ */
+public class Set3bTest extends SetTest {
+
+    @Override
+    protected final Set<String> constructorTest() {
+        return new Set3b<String>();
+    }
+
+    @Override
+    protected final Set<String> constructorRef() {
+        return new Set1L<String>();
+    }
+
+    /**
+     * Test case for snapshot being unaffected by later changes.
+     */
+    @Test
+    public void snapshotIsolationTest() {
+        Set3b<String> test = new Set3b<String>();
+        test.add("b");
+        test.add("a");
+        test.add("c");
+        Set3b<String> snapshot = test.snapshot();
+        test.remove("b");
+        test.add("d");
+        Set<String> expectedSnapshot = new Set1L<String>();
+        expectedSnapshot.add("a");
+        expectedSnapshot.add("b");
+        expectedSnapshot.add("c");
+        Set<String> expectedTest = new Set1L<String>();
+        expectedTest.add("a");
+        expectedTest.add("c");
+        expectedTest.add("d");
+        assertEquals(expectedSnapshot, snapshot);
+        assertEquals(expectedTest, test);
+    }
+
+}
@@ -0,0 +1,19 @@
+import components.set.Set;
+import components.set.Set1L;
+
+/**
+ * Customized JUnit test fixture for {@code Set3c}.
+ */
+public class Set3cTest extends SetTest {
+
+    @Override
+    protected final Set<String> constructorTest() {
+        return new Set3c<String>();
+    }
+
+    @Override
+    protected final Set<String> constructorRef() {
+        return new Set1L<String>();
+    }
+
+}
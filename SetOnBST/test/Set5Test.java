@@ -0,0 +1,87 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import components.set.Set;
+import components.set.Set1L;
+
+/**
+ * Customized JUnit test fixture for {@code Set5}.
+ */
+public class Set5Test extends SetTest {
+
+    @Override
+    protected final Set<String> constructorTest() {
+        return new Set5<String>();
+    }
+
+    @Override
+    protected final Set<String> constructorRef() {
+        return new Set1L<String>();
+    }
+
+    /**
+     * Test case for remove returning the element stored in the set, not the
+     * (equal) argument.
+     */
+    @Test
+    public final void removeReturnsStoredElementTest() {
+        Set<String> s = this.constructorTest();
+        String stored = new String("green");
+        s.add(stored);
+        String removed = s.remove(new String("green"));
+        assertSame(stored, removed);
+        assertEquals(0, s.size());
+    }
+
+    /**
+     * Test case for add, contains, and remove called by several threads at
+     * once, each on its own elements.
+     *
+     * @throws InterruptedException
+     *             if interrupted while waiting for the threads
+     */
+    @Test
+    public final void concurrentAddRemoveTest() throws InterruptedException {
+        final int threads = 4;
+        final int perThread = 1000;
+        Set<String> s = this.constructorTest();
+        Thread[] workers = new Thread[threads];
+        boolean[] allFound = new boolean[threads];
+        for (int t = 0; t < threads; t++) {
+            final int worker = t;
+            final int first = t * perThread;
+            workers[t] = new Thread(() -> {
+                for (int i = first; i < first + perThread; i++) {
+                    s.add(String.format("%05d", i));
+                }
+                // remove the odd elements again, checking each one is there
+                boolean found = true;
+                for (int i = first + 1; i < first + perThread; i += 2) {
+                    String x = String.format("%05d", i);
+                    found = found && s.contains(x) && x.equals(s.remove(x));
+                }
+                allFound[worker] = found;
+            });
+        }
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        for (boolean found : allFound) {
+            assertTrue(found);
+        }
+        assertEquals(threads * perThread / 2, s.size());
+        int expected = 0;
+        for (String x : s) {
+            assertEquals(String.format("%05d", expected), x);
+            expected += 2;
+        }
+        assertEquals(threads * perThread, expected);
+    }
+
+}
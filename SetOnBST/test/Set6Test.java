@@ -0,0 +1,121 @@
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Test;
+
+import components.set.Set;
+import components.set.Set1L;
+
+/**
+ * JUnit test fixture for {@code Set6}, which can only be built by exporting a
+ * {@code Set3a<String>}.
+ */
+public class Set6Test {
+
+    /**
+     * Exports a {@code Set3a<String>} with the given entries to a temporary
+     * file and maps it as a {@code Set6}.
+     *
+     * @param args
+     *            the entries for the set
+     * @return the mapped set
+     * @throws IOException
+     *             if the temporary file cannot be written or mapped
+     * @requires [every entry in args is unique]
+     * @ensures createFromArgs = [entries in args]
+     */
+    private Set<String> createFromArgs(String... args) throws IOException {
+        Set3a<String> source = new Set3a<String>();
+        for (String s : args) {
+            source.add(s);
+        }
+        File file = File.createTempFile("Set6Test", ".bin");
+        file.deleteOnExit();
+        Set6.export(source, file.getPath());
+        return new Set6(file.getPath());
+    }
+
+    /**
+     * Creates and returns a {@code Set<String>} of the reference implementation
+     * type with the given entries.
+     *
+     * @param args
+     *            the entries for the set
+     * @return the constructed set
+     * @requires [every entry in args is unique]
+     * @ensures createFromArgsRef = [entries in args]
+     */
+    private Set<String> createFromArgsRef(String... args) {
+        Set<String> set = new Set1L<String>();
+        for (String s : args) {
+            set.add(s);
+        }
+        return set;
+    }
+
+    /**
+     * Test case for an empty Constructor.
+     */
+    @Test
+    public void emptyConstructorTest() {
+        Set<String> test = new Set6();
+        Set<String> ref = this.createFromArgsRef();
+        assertEquals(ref, test);
+    }
+
+    /**
+     * Test case for exporting and mapping an empty set.
+     *
+     * @throws IOException
+     *             if the temporary file cannot be used
+     */
+    @Test
+    public void exportEmptyTest() throws IOException {
+        Set<String> test = this.createFromArgs();
+        Set<String> ref = this.createFromArgsRef();
+        assertEquals(ref, test);
+        assertEquals(false, test.contains("a"));
+    }
+
+    /**
+     * Test case for contains on a mapped set.
+     *
+     * @throws IOException
+     *             if the temporary file cannot be used
+     */
+    @Test
+    public void containsTest() throws IOException {
+        Set<String> test = this.createFromArgs("pear", "apple", "fig", "",
+                "applesauce", "\u00e9clair");
+        assertEquals(true, test.contains("apple"));
+        assertEquals(true, test.contains("applesauce"));
+        assertEquals(true, test.contains(""));
+        assertEquals(true, test.contains("\u00e9clair"));
+        assertEquals(true, test.contains("pear"));
+        assertEquals(false, test.contains("app"));
+        assertEquals(false, test.contains("zebra"));
+        assertEquals(false, test.contains("banana"));
+    }
+
+    /**
+     * Test case for size and iteration of a mapped set.
+     *
+     * @throws IOException
+     *             if the temporary file cannot be used
+     */
+    @Test
+    public void sizeAndIteratorTest() throws IOException {
+        Set<String> test = this.createFromArgs("c", "a", "b");
+        Set<String> ref = this.createFromArgsRef("a", "b", "c");
+        assertEquals(3, test.size());
+        assertEquals(ref, test);
+        StringBuilder order = new StringBuilder();
+        for (String s : test) {
+            order.append(s);
+        }
+        assertEquals("abc", order.toString());
+    }
+
+}
@@ -0,0 +1,459 @@
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachineSecondary;
+
+/**
+ * {@code SortingMachine} represented as a pairing heap, with implementations
+ * of primary methods and {@code merge}.
+ *
+ * <p>
+ * A pairing heap is a tree of nodes with any number of children, each entry
+ * coming no later than its children in the order; each node points to its
+ * first child and to its next sibling. Two heaps are melded in O(1) time by
+ * making the root that comes later the first child of the other, so
+ * {@code add} takes O(1) time, and so does {@code merge}, which moves all the
+ * entries of another {@code SortingMachine10} into this one. That makes
+ * combining the partial results of several machines essentially free.
+ * {@code removeFirst} removes the root and melds its children in two passes
+ * (in pairs left to right, then the pairs right to left), in amortized
+ * O(log n) time.
+ * </p>
+ *
+ * @param <T>
+ *            type of {@code SortingMachine} entries
+ * @convention <pre>
+ * IS_TOTAL_PREORDER([relation computed by $this.machineOrder.compare method]  and
+ * [$this.root is null or the root of a tree, through child and sibling
+ *  references, whose root has no sibling]  and
+ * [no data in the tree is null]  and
+ * [the data of every node comes no later than the data of its children
+ *  according to the relation computed by $this.machineOrder.compare]  and
+ * $this.size = [number of nodes in the tree]
+ * </pre>
+ * @correspondence <pre>
+ * this = ($this.insertionMode, $this.machineOrder,
+ *         [multiset of the data in the nodes of the tree])
+ * </pre>
+ *
+ * @author Ibrahim Mohamed
+ *
+ */
+public class SortingMachine10<T> extends SortingMachineSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Node of a pairing heap.
+     *
+     * @param <T>
+     *            type of entries
+     */
+    private static final class Node<T> {
+
+        /**
+         * Entry.
+         */
+        private final T data;
+
+        /**
+         * First child, or null.
+         */
+        private Node<T> child;
+
+        /**
+         * Next sibling, or null.
+         */
+        private Node<T> sibling;
+
+        /**
+         * Constructor from entry.
+         *
+         * @param data
+         *            the entry
+         */
+        private Node(T data) {
+            this.data = data;
+        }
+
+    }
+
+    /**
+     * Order.
+     */
+    private Comparator<T> machineOrder;
+
+    /**
+     * Insertion mode.
+     */
+    private boolean insertionMode;
+
+    /**
+     * Root of the heap, or null if it is empty.
+     */
+    private Node<T> root;
+
+    /**
+     * Number of entries.
+     */
+    private int size;
+
+    /**
+     * Melds the heaps rooted at {@code a} and {@code b} into one.
+     *
+     * @param a
+     *            root of one heap
+     * @param b
+     *            root of the other heap
+     * @return root of the melded heap
+     * @requires <pre>
+     * [a and b are roots of disjoint heaps, with no siblings]
+     * </pre>
+     * @ensures <pre>
+     * [link is the root of a heap, with no sibling, whose nodes are the nodes
+     *  of both heaps]
+     * </pre>
+     */
+    private Node<T> link(Node<T> a, Node<T> b) {
+        Node<T> first = a;
+        Node<T> second = b;
+        if (this.machineOrder.compare(b.data, a.data) < 0) {
+            first = b;
+            second = a;
+        }
+        second.sibling = first.child;
+        first.child = second;
+        return first;
+    }
+
+    /**
+     * Melds the list of heaps starting at {@code first} and linked through
+     * their sibling references into one heap, by the two-pass method.
+     *
+     * @param first
+     *            root of the first heap in the list, or null
+     * @return root of the melded heap, or null if {@code first} is null
+     * @ensures <pre>
+     * [meldAll is null or the root of a heap, with no sibling, whose nodes are
+     *  the nodes of all the heaps in the list]
+     * </pre>
+     */
+    private Node<T> meldAll(Node<T> first) {
+        // first pass: meld the heaps in pairs, stacking the results
+        Node<T> pairs = null;
+        Node<T> next = first;
+        while (next != null) {
+            Node<T> a = next;
+            Node<T> b = a.sibling;
+            if (b == null) {
+                next = null;
+            } else {
+                next = b.sibling;
+                a.sibling = null;
+                b.sibling = null;
+                a = this.link(a, b);
+            }
+            a.sibling = pairs;
+            pairs = a;
+        }
+        // second pass: meld the pairs, from the last one back to the first
+        Node<T> result = null;
+        while (pairs != null) {
+            Node<T> pair = pairs;
+            pairs = pair.sibling;
+            pair.sibling = null;
+            if (result == null) {
+                result = pair;
+            } else {
+                result = this.link(result, pair);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks that the part of the convention repeated below holds for the
+     * current representation.
+     *
+     * @return true if the convention holds (or if assertion checking is off);
+     *         otherwise reports a violated assertion
+     * @convention <pre>
+     * [$this.root is null or has no sibling]  and
+     * [no data in the tree is null]  and
+     * [the data of every node comes no later than the data of its children]
+     * and  $this.size = [number of nodes in the tree]
+     * </pre>
+     */
+    private boolean conventionHolds() {
+        int count = 0;
+        if (this.root != null) {
+            assert this.root.sibling == null : ""
+                    + "Violation of: [$this.root has no sibling]";
+            Deque<Node<T>> pending = new ArrayDeque<Node<T>>();
+            pending.push(this.root);
+            while (!pending.isEmpty()) {
+                Node<T> n = pending.pop();
+                assert n.data != null : ""
+                        + "Violation of: [no data in the tree is null]";
+                count++;
+                for (Node<T> c = n.child; c != null; c = c.sibling) {
+                    assert this.machineOrder.compare(n.data, c.data) <= 0 : ""
+                            + "Violation of: [the data of every node comes no"
+                            + " later than the data of its children]";
+                    pending.push(c);
+                }
+            }
+        }
+        assert this.size == count : ""
+                + "Violation of: $this.size = [number of nodes in the tree]";
+        return true;
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param order
+     *            total preorder for sorting
+     * @requires IS_TOTAL_PREORDER([relation computed by order.compare method]
+     * @ensures <pre>
+     * $this.insertionMode = true  and
+     * $this.machineOrder = order  and
+     * $this.root = null  and  $this.size = 0
+     * </pre>
+     */
+    private void createNewRep(Comparator<T> order) {
+
+        this.insertionMode = true;
+        this.machineOrder = order;
+        this.root = null;
+        this.size = 0;
+
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * Constructor from order.
+     *
+     * @param order
+     *            total preorder for sorting
+     */
+    public SortingMachine10(Comparator<T> order) {
+        this.createNewRep(order);
+        assert this.conventionHolds();
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final SortingMachine<T> newInstance() {
+        try {
+            return this.getClass().getConstructor(Comparator.class)
+                    .newInstance(this.machineOrder);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep(this.machineOrder);
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void transferFrom(SortingMachine<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof SortingMachine10<?> : ""
+                + "Violation of: source is of dynamic type SortingMachine10<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type
+         * SortingMachine10<?>, and the ? must be T or the call would not have
+         * compiled.
+         */
+        SortingMachine10<T> localSource = (SortingMachine10<T>) source;
+        this.insertionMode = localSource.insertionMode;
+        this.machineOrder = localSource.machineOrder;
+        this.root = localSource.root;
+        this.size = localSource.size;
+        localSource.createNewRep(localSource.machineOrder);
+        assert this.conventionHolds();
+        assert localSource.conventionHolds();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+
+        Node<T> n = new Node<T>(x);
+        if (this.root == null) {
+            this.root = n;
+        } else {
+            this.root = this.link(this.root, n);
+        }
+        this.size++;
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void changeToExtractionMode() {
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+
+        // the entries are always kept in a heap, so there is nothing to do
+        this.insertionMode = false;
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final T removeFirst() {
+        assert !this
+                .isInInsertionMode() : "Violation of: not this.insertion_mode";
+        assert this.size() > 0 : "Violation of: this.contents /= {}";
+
+        T first = this.root.data;
+        this.root = this.meldAll(this.root.child);
+        this.size--;
+
+        assert this.conventionHolds();
+
+        return first;
+    }
+
+    @Override
+    public final boolean isInInsertionMode() {
+        assert this.conventionHolds();
+        return this.insertionMode;
+    }
+
+    @Override
+    public final Comparator<T> order() {
+        assert this.conventionHolds();
+        return this.machineOrder;
+    }
+
+    @Override
+    public final int size() {
+        assert this.conventionHolds();
+        return this.size;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new SortingMachine10Iterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for
+     * {@code SortingMachine10}, visiting the nodes of the heap in preorder.
+     */
+    private final class SortingMachine10Iterator implements Iterator<T> {
+
+        /**
+         * Nodes whose subtrees, together with their later siblings, are still
+         * to be visited.
+         */
+        private final Deque<Node<T>> pending;
+
+        /**
+         * No-argument constructor.
+         */
+        private SortingMachine10Iterator() {
+            this.pending = new ArrayDeque<Node<T>>();
+            if (SortingMachine10.this.root != null) {
+                this.pending.push(SortingMachine10.this.root);
+            }
+            assert SortingMachine10.this.conventionHolds();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !this.pending.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            Node<T> n = this.pending.pop();
+            if (n.sibling != null) {
+                this.pending.push(n.sibling);
+            }
+            if (n.child != null) {
+                this.pending.push(n.child);
+            }
+            return n.data;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+    /*
+     * Other methods ----------------------------------------------------------
+     */
+
+    /**
+     * Moves all the entries of {@code other} into {@code this}, in O(1) time.
+     *
+     * @param other
+     *            the machine whose entries are moved
+     * @updates this
+     * @clears other
+     * @requires <pre>
+     * this.insertion_mode  and  other is not this  and
+     * [other.order and this.order compute the same relation]
+     * </pre>
+     * @ensures <pre>
+     * this = (true, #this.order, #this.contents union #other.contents)
+     * </pre>
+     */
+    public final void merge(SortingMachine10<T> other) {
+        assert other != null : "Violation of: other is not null";
+        assert other != this : "Violation of: other is not this";
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+
+        if (this.root == null) {
+            this.root = other.root;
+        } else if (other.root != null) {
+            this.root = this.link(this.root, other.root);
+        }
+        this.size += other.size;
+        other.createNewRep(other.machineOrder);
+
+        assert this.conventionHolds();
+        assert other.conventionHolds();
+    }
+
+}
@@ -0,0 +1,539 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachineSecondary;
+
+/**
+ * {@code SortingMachine} represented as one array buffer per adding thread,
+ * with implementations of primary methods; {@code add} may be called by many
+ * threads at once.
+ *
+ * <p>
+ * Each thread that calls {@code add} gets a buffer of its own the first time
+ * it does, kept in a {@code ConcurrentHashMap} keyed by the thread, so adds
+ * from different threads never contend for a lock or touch the same array; the
+ * number of entries is kept in a {@code LongAdder}. The map belongs to the
+ * machine, so {@code clear}, {@code transferFrom}, and
+ * {@code changeToExtractionMode} drop it together with the references it
+ * holds to the adding threads. {@code changeToExtractionMode} sorts the
+ * buffers in parallel, one {@code RecursiveAction} per buffer, rethrowing any
+ * exception thrown by the order, and {@code removeFirst} then merges them,
+ * keeping the buffers in a priority queue ordered by their first remaining
+ * entries, in O(log k) time for k buffers.
+ * </p>
+ *
+ * <p>
+ * Only {@code add} is thread-safe. Every other method, including
+ * {@code changeToExtractionMode}, must be called when no other thread is
+ * using the machine, and after every {@code add} has happened-before the call
+ * (for example, after the adding threads have been joined, or an executor
+ * running them has terminated).
+ * </p>
+ *
+ * @param <T>
+ *            type of {@code SortingMachine} entries
+ * @convention <pre>
+ * IS_TOTAL_PREORDER([relation computed by $this.machineOrder.compare method]  and
+ * [$this.buffers maps each thread that has added to this machine to its
+ *  own buffer]  and
+ * for each buffer b in $this.buffers or $this.merge
+ *   (0 <= b.front <= b.length <= |b.entries|  and
+ *    [entries of b.entries in [b.front, b.length) are not null, and all
+ *     other entries are null])  and
+ * if $this.insertionMode then
+ *   [each buffer b in $this.buffers has b.front = 0]  and
+ *   $this.merge = {}  and
+ *   $this.count = [sum over the buffers b in $this.buffers of b.length]
+ * else
+ *   $this.buffers = {}  and
+ *   [each buffer b in $this.merge has b.front < b.length, and
+ *    b.entries[b.front, b.length) is sorted according to the relation
+ *    computed by $this.machineOrder.compare method]  and
+ *   $this.count = [sum over the buffers b in $this.merge of
+ *                  b.length - b.front]
+ * </pre>
+ * @correspondence <pre>
+ * this = ($this.insertionMode, $this.machineOrder,
+ *         [multiset union over the buffers b in $this.buffers or $this.merge
+ *          of multiset_entries(b.entries[b.front, b.length))])
+ * </pre>
+ *
+ * @author Ibrahim Mohamed
+ *
+ */
+public class SortingMachine11<T> extends SortingMachineSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Capacity of a new buffer.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Buffer of the entries added by one thread.
+     *
+     * @param <T>
+     *            type of entries
+     */
+    private static final class Buffer<T> {
+
+        /**
+         * Entries.
+         */
+        private T[] entries;
+
+        /**
+         * Index of the first entry still in the machine.
+         */
+        private int front;
+
+        /**
+         * Index after the last entry.
+         */
+        private int length;
+
+        /**
+         * No-argument constructor.
+         */
+        @SuppressWarnings("unchecked")
+        private Buffer() {
+            /*
+             * With "new T[...]" in place of "new Object[...]" it does not
+             * compile; as shown, it results in a warning about an unchecked
+             * cast, though it cannot fail.
+             */
+            this.entries = (T[]) (new Object[INITIAL_CAPACITY]);
+            this.front = 0;
+            this.length = 0;
+        }
+
+        /**
+         * Checks that the buffer convention holds.
+         *
+         * @return true if it holds (or if assertion checking is off);
+         *         otherwise reports a violated assertion
+         */
+        private boolean conventionHolds() {
+            assert 0 <= this.front && this.front <= this.length
+                    && this.length <= this.entries.length : ""
+                            + "Violation of: 0 <= b.front <= b.length <="
+                            + " |b.entries|";
+            for (int i = 0; i < this.entries.length; i++) {
+                boolean inMachine = this.front <= i && i < this.length;
+                assert inMachine == (this.entries[i] != null) : ""
+                        + "Violation of: exactly the entries in [b.front,"
+                        + " b.length) are not null";
+            }
+            return true;
+        }
+
+    }
+
+    /**
+     * Task that sorts a copy of the entries of one buffer, leaving the buffer
+     * itself untouched.
+     *
+     * @param <T>
+     *            type of entries
+     */
+    private static final class SortBuffer<T> extends RecursiveAction {
+
+        /**
+         * Serialization version, required since {@code RecursiveAction} is
+         * serializable.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Buffer to sort.
+         */
+        private final transient Buffer<T> buffer;
+
+        /**
+         * Order to sort by.
+         */
+        private final transient Comparator<T> order;
+
+        /**
+         * Sorted copy of the entries of buffer, once the task has completed
+         * normally.
+         */
+        private transient T[] sorted;
+
+        /**
+         * Constructor from buffer and order.
+         *
+         * @param buffer
+         *            buffer to sort
+         * @param order
+         *            order to sort by
+         */
+        private SortBuffer(Buffer<T> buffer, Comparator<T> order) {
+            this.buffer = buffer;
+            this.order = order;
+        }
+
+        @Override
+        protected void compute() {
+            /*
+             * a sort whose order throws may leave the array it sorts with
+             * entries lost and others duplicated, so sort a copy
+             */
+            T[] copy = Arrays.copyOf(this.buffer.entries, this.buffer.length);
+            Arrays.sort(copy, this.order);
+            this.sorted = copy;
+        }
+
+    }
+
+    /**
+     * Order.
+     */
+    private Comparator<T> machineOrder;
+
+    /**
+     * Insertion mode.
+     */
+    private volatile boolean insertionMode;
+
+    /**
+     * Buffer of each thread that has added, in insertion mode.
+     */
+    private ConcurrentHashMap<Thread, Buffer<T>> buffers;
+
+    /**
+     * Number of entries.
+     */
+    private LongAdder count;
+
+    /**
+     * Nonempty buffers, ordered by their first remaining entries, in
+     * extraction mode.
+     */
+    private PriorityQueue<Buffer<T>> merge;
+
+    /**
+     * Checks that the part of the convention repeated below holds for the
+     * current representation. In insertion mode, other threads may be adding
+     * to their buffers, so the buffers are checked only in extraction mode.
+     *
+     * @return true if the convention holds (or if assertion checking is off);
+     *         otherwise reports a violated assertion
+     * @convention <pre>
+     * if $this.insertionMode then
+     *   $this.merge = {}
+     * else
+     *   $this.buffers = {}  and
+     *   [the buffer conventions hold for each buffer in $this.merge]  and
+     *   [each buffer in $this.merge is nonempty and sorted]  and
+     *   $this.count = [sum over the buffers b in $this.merge of
+     *                  b.length - b.front]
+     * </pre>
+     */
+    private boolean conventionHolds() {
+        if (this.insertionMode) {
+            assert this.merge.isEmpty() : ""
+                    + "Violation of: if $this.insertionMode then"
+                    + " $this.merge = {}";
+        } else {
+            assert this.buffers.isEmpty() : ""
+                    + "Violation of: if not $this.insertionMode then"
+                    + " $this.buffers = {}";
+            long sum = 0;
+            for (Buffer<T> b : this.merge) {
+                assert b.conventionHolds();
+                assert b.front < b.length : ""
+                        + "Violation of: [each buffer in $this.merge is"
+                        + " nonempty]";
+                for (int i = b.front + 1; i < b.length; i++) {
+                    assert this.machineOrder.compare(b.entries[i - 1],
+                            b.entries[i]) <= 0 : ""
+                                    + "Violation of: if not $this.insertionMode"
+                                    + " then [each buffer is sorted]";
+                }
+                sum += b.length - b.front;
+            }
+            assert this.count.sum() == sum : ""
+                    + "Violation of: $this.count = [number of entries]";
+        }
+        return true;
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param order
+     *            total preorder for sorting
+     * @requires IS_TOTAL_PREORDER([relation computed by order.compare method]
+     * @ensures <pre>
+     * $this.insertionMode = true  and
+     * $this.machineOrder = order  and
+     * $this.buffers = {}  and  $this.merge = {}  and  $this.count = 0
+     * </pre>
+     */
+    private void createNewRep(Comparator<T> order) {
+
+        this.insertionMode = true;
+        this.machineOrder = order;
+        this.buffers = new ConcurrentHashMap<Thread, Buffer<T>>();
+        this.count = new LongAdder();
+        this.merge = new PriorityQueue<Buffer<T>>(
+                (b1, b2) -> order.compare(b1.entries[b1.front],
+                        b2.entries[b2.front]));
+
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * Constructor from order.
+     *
+     * @param order
+     *            total preorder for sorting
+     */
+    public SortingMachine11(Comparator<T> order) {
+        this.createNewRep(order);
+        assert this.conventionHolds();
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final SortingMachine<T> newInstance() {
+        try {
+            return this.getClass().getConstructor(Comparator.class)
+                    .newInstance(this.machineOrder);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep(this.machineOrder);
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void transferFrom(SortingMachine<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof SortingMachine11<?> : ""
+                + "Violation of: source is of dynamic type SortingMachine11<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type
+         * SortingMachine11<?>, and the ? must be T or the call would not have
+         * compiled.
+         */
+        SortingMachine11<T> localSource = (SortingMachine11<T>) source;
+        this.machineOrder = localSource.machineOrder;
+        this.buffers = localSource.buffers;
+        this.count = localSource.count;
+        this.merge = localSource.merge;
+        this.insertionMode = localSource.insertionMode;
+        localSource.createNewRep(localSource.machineOrder);
+        assert this.conventionHolds();
+        assert localSource.conventionHolds();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+
+        /*
+         * only the current thread ever maps itself, so there is no race
+         * between the get and the put
+         */
+        Thread self = Thread.currentThread();
+        Buffer<T> b = this.buffers.get(self);
+        if (b == null) {
+            b = new Buffer<T>();
+            this.buffers.put(self, b);
+        }
+        if (b.length == b.entries.length) {
+            b.entries = Arrays.copyOf(b.entries, 2 * b.entries.length);
+        }
+        b.entries[b.length] = x;
+        b.length++;
+        this.count.increment();
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void changeToExtractionMode() {
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+
+        /*
+         * sort copies of the buffers in parallel, one task each; invokeAll
+         * waits for all of them and rethrows the exception of any that
+         * failed, in which case no copy has been installed and this is left
+         * unchanged
+         */
+        List<SortBuffer<T>> tasks = new ArrayList<SortBuffer<T>>();
+        for (Buffer<T> b : this.buffers.values()) {
+            if (b.length > 0) {
+                tasks.add(new SortBuffer<T>(b, this.machineOrder));
+            }
+        }
+        ForkJoinTask.invokeAll(tasks);
+        for (SortBuffer<T> task : tasks) {
+            task.buffer.entries = task.sorted;
+            this.merge.add(task.buffer);
+        }
+        // the threads that added are no longer needed to find their buffers
+        this.buffers = new ConcurrentHashMap<Thread, Buffer<T>>();
+        this.insertionMode = false;
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final T removeFirst() {
+        assert !this
+                .isInInsertionMode() : "Violation of: not this.insertion_mode";
+        assert this.size() > 0 : "Violation of: this.contents /= {}";
+
+        Buffer<T> b = this.merge.poll();
+        T first = b.entries[b.front];
+        b.entries[b.front] = null;
+        b.front++;
+        if (b.front < b.length) {
+            this.merge.add(b);
+        }
+        this.count.decrement();
+
+        assert this.conventionHolds();
+
+        return first;
+    }
+
+    @Override
+    public final boolean isInInsertionMode() {
+        assert this.conventionHolds();
+        return this.insertionMode;
+    }
+
+    @Override
+    public final Comparator<T> order() {
+        assert this.conventionHolds();
+        return this.machineOrder;
+    }
+
+    @Override
+    public final int size() {
+        assert this.conventionHolds();
+        return this.count.intValue();
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new SortingMachine11Iterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for
+     * {@code SortingMachine11}, visiting the buffers one after another.
+     * The buffers are those of the adding threads in insertion mode, and
+     * those being merged in extraction mode.
+     */
+    private final class SortingMachine11Iterator implements Iterator<T> {
+
+        /**
+         * Iterator over the buffers.
+         */
+        private final Iterator<Buffer<T>> bufferIterator;
+
+        /**
+         * Buffer being visited, or null.
+         */
+        private Buffer<T> current;
+
+        /**
+         * Index of the next entry in current.
+         */
+        private int index;
+
+        /**
+         * No-argument constructor.
+         */
+        private SortingMachine11Iterator() {
+            if (SortingMachine11.this.insertionMode) {
+                this.bufferIterator = SortingMachine11.this.buffers.values()
+                        .iterator();
+            } else {
+                this.bufferIterator = SortingMachine11.this.merge.iterator();
+            }
+            this.current = null;
+            this.index = 0;
+            this.skipEmpty();
+            assert SortingMachine11.this.conventionHolds();
+        }
+
+        /**
+         * Moves to the next buffer with entries left to visit, if any.
+         */
+        private void skipEmpty() {
+            while ((this.current == null || this.index >= this.current.length)
+                    && this.bufferIterator.hasNext()) {
+                this.current = this.bufferIterator.next();
+                this.index = this.current.front;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.current != null && this.index < this.current.length;
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            T next = this.current.entries[this.index];
+            this.index++;
+            this.skipEmpty();
+            return next;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
@@ -0,0 +1,685 @@
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachineSecondary;
+
+/**
+ * {@code SortingMachine} whose order is given by a key extracted from each
+ * entry, either an {@code int} or a {@code String}, represented as an array
+ * that is radix sorted on the keys when the machine changes to extraction
+ * mode, with implementations of primary methods.
+ *
+ * <p>
+ * {@code changeToExtractionMode} extracts each entry's key once and then sorts
+ * the entries without calling a {@code Comparator}: {@code int} keys are
+ * sorted by an LSD radix sort, one byte per pass (stably, skipping any pass
+ * in which every key has the same byte), in O(n) time; {@code String} keys
+ * are sorted by multikey quicksort (three-way radix quicksort on one
+ * character at a time), in O(n log n + total length of distinguishing
+ * prefixes) character comparisons, which is close to O(n * key length).
+ * The order is increasing by the key: {@code Comparator.comparingInt} of the
+ * {@code int} key, or {@code Comparator.comparing} of the {@code String} key,
+ * unless the client supplies an equivalent {@code Comparator} of its own.
+ * {@code removeFirst} returns the sorted entries one by one from the front of
+ * the array, in O(1) time.
+ * </p>
+ *
+ * @param <T>
+ *            type of {@code SortingMachine} entries
+ * @convention <pre>
+ * exactly one of $this.intKey and $this.stringKey is not null  and
+ * [$this.machineOrder computes the order by increasing key]  and
+ * 0 <= $this.front <= $this.length <= |$this.entries|  and
+ * [entries of $this.entries in [$this.front, $this.length) are not null,
+ *  and all other entries are null]  and
+ * if $this.insertionMode then
+ *   $this.front = 0
+ * else
+ *   [$this.entries[$this.front, $this.length) is sorted according to
+ *    the relation computed by $this.machineOrder.compare method]
+ * </pre>
+ * @correspondence <pre>
+ * this = ($this.insertionMode, $this.machineOrder,
+ *         multiset_entries($this.entries[$this.front, $this.length)))
+ * </pre>
+ *
+ * @author Ibrahim Mohamed
+ *
+ */
+public class SortingMachine12<T> extends SortingMachineSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Capacity of the array of a new machine.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Number of bits in each digit of the LSD radix sort.
+     */
+    private static final int DIGIT_BITS = 8;
+
+    /**
+     * Number of distinct digits of the LSD radix sort.
+     */
+    private static final int RADIX = 1 << DIGIT_BITS;
+
+    /**
+     * Largest range that multikey quicksort sorts by insertion sort.
+     */
+    private static final int INSERTION_CUTOFF = 16;
+
+    /**
+     * Order.
+     */
+    private Comparator<T> machineOrder;
+
+    /**
+     * Insertion mode.
+     */
+    private boolean insertionMode;
+
+    /**
+     * Extractor of {@code int} keys, or null.
+     */
+    private ToIntFunction<T> intKey;
+
+    /**
+     * Extractor of {@code String} keys, or null.
+     */
+    private Function<T, String> stringKey;
+
+    /**
+     * Entries, in the order added in insertion mode and sorted in extraction
+     * mode.
+     */
+    private T[] entries;
+
+    /**
+     * Index of the first entry still in the machine.
+     */
+    private int front;
+
+    /**
+     * Index after the last entry in the machine.
+     */
+    private int length;
+
+    /**
+     * Sorts the first {@code n} entries of {@code array} by their
+     * {@code int} keys, given in {@code keys}, with an LSD radix sort.
+     *
+     * @param <T>
+     *            type of array entries
+     * @param array
+     *            the entries
+     * @param keys
+     *            the key of each entry
+     * @param n
+     *            the number of entries to sort
+     * @updates array, keys
+     * @requires n <= |array|  and  n = |keys|
+     * @ensures <pre>
+     * [array[0, n) is #array[0, n) stably sorted by increasing key]  and
+     * [keys are the keys of the sorted entries]
+     * </pre>
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> void radixSort(T[] array, int[] keys, int n) {
+        T[] from = array;
+        int[] fromKeys = keys;
+        T[] to = (T[]) (new Object[n]);
+        int[] toKeys = new int[n];
+        for (int shift = 0; shift < Integer.SIZE; shift += DIGIT_BITS) {
+            // flip the sign bit in the top digit so negative keys come first
+            int flip = 0;
+            if (shift + DIGIT_BITS == Integer.SIZE) {
+                flip = RADIX >>> 1;
+            }
+            int[] counts = new int[RADIX + 1];
+            for (int i = 0; i < n; i++) {
+                int digit = ((fromKeys[i] >>> shift) & (RADIX - 1)) ^ flip;
+                counts[digit + 1]++;
+            }
+            boolean oneDigit = false;
+            for (int d = 0; d < RADIX && !oneDigit; d++) {
+                oneDigit = counts[d + 1] == n;
+            }
+            if (!oneDigit) {
+                // counts[d] becomes the index where digit d starts
+                for (int d = 0; d < RADIX; d++) {
+                    counts[d + 1] += counts[d];
+                }
+                for (int i = 0; i < n; i++) {
+                    int digit = ((fromKeys[i] >>> shift) & (RADIX - 1)) ^ flip;
+                    to[counts[digit]] = from[i];
+                    toKeys[counts[digit]] = fromKeys[i];
+                    counts[digit]++;
+                }
+                T[] tmp = from;
+                from = to;
+                to = tmp;
+                int[] tmpKeys = fromKeys;
+                fromKeys = toKeys;
+                toKeys = tmpKeys;
+            }
+        }
+        if (from != array) {
+            System.arraycopy(from, 0, array, 0, n);
+        }
+    }
+
+    /**
+     * Returns the character of {@code s} at {@code d}, or -1 if {@code d} is
+     * the length of {@code s}.
+     *
+     * @param s
+     *            the string
+     * @param d
+     *            the index
+     * @return the character at d, or -1
+     * @requires 0 <= d <= |s|
+     * @ensures charAt = [the character of s at d, or -1 if d = |s|]
+     */
+    private static int charAt(String s, int d) {
+        int c = -1;
+        if (d < s.length()) {
+            c = s.charAt(d);
+        }
+        return c;
+    }
+
+    /**
+     * Exchanges the entries, and their keys, at indices {@code i} and
+     * {@code j}.
+     *
+     * @param <T>
+     *            type of array entries
+     * @param array
+     *            the entries
+     * @param keys
+     *            the key of each entry
+     * @param i
+     *            one index
+     * @param j
+     *            the other index
+     * @updates array, keys
+     */
+    private static <T> void exchange(T[] array, String[] keys, int i, int j) {
+        T entry = array[i];
+        array[i] = array[j];
+        array[j] = entry;
+        String key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+    }
+
+    /**
+     * Sorts the range [low, high) of {@code array} by the {@code String} keys
+     * in {@code keys}, all of which agree in their first {@code depth}
+     * characters, with multikey quicksort. Only the two smaller of the three
+     * parts of each partition are sorted by recursive calls, so the calls
+     * nest O(log(high - low)) deep however long the shared prefixes are.
+     *
+     * @param <T>
+     *            type of array entries
+     * @param array
+     *            the entries
+     * @param keys
+     *            the key of each entry
+     * @param low
+     *            first index of the range
+     * @param high
+     *            index after the last index of the range
+     * @param depth
+     *            number of leading characters the keys in the range share
+     * @updates array, keys
+     * @requires <pre>
+     * 0 <= low <= high <= |keys| <= |array|  and
+     * [the keys in [low, high) agree in their first depth characters]
+     * </pre>
+     * @ensures <pre>
+     * [array[low, high) is #array[low, high) sorted by increasing key]  and
+     * [keys are the keys of the sorted entries]
+     * </pre>
+     */
+    private static <T> void multikeySort(T[] array, String[] keys, int low,
+            int high, int depth) {
+        int lo = low;
+        int hi = high;
+        int d = depth;
+        while (hi - lo > INSERTION_CUTOFF) {
+            exchange(array, keys, lo, (lo + hi) >>> 1);
+            int pivot = charAt(keys[lo], d);
+            // partition into [lo, lt) < pivot, [lt, gt] = pivot, (gt, hi) >
+            int lt = lo;
+            int gt = hi - 1;
+            int i = lo + 1;
+            while (i <= gt) {
+                int c = charAt(keys[i], d);
+                if (c < pivot) {
+                    exchange(array, keys, lt, i);
+                    lt++;
+                    i++;
+                } else if (c > pivot) {
+                    exchange(array, keys, i, gt);
+                    gt--;
+                } else {
+                    i++;
+                }
+            }
+            /*
+             * recurse on the two smaller parts, each at most half the range,
+             * and keep sorting the largest one here; the keys equal to a
+             * pivot of -1 have all ended, so that part is already sorted
+             */
+            int less = lt - lo;
+            int equal = 0;
+            if (pivot >= 0) {
+                equal = gt + 1 - lt;
+            }
+            int greater = hi - (gt + 1);
+            if (equal >= less && equal >= greater && equal > 0) {
+                multikeySort(array, keys, lo, lt, d);
+                multikeySort(array, keys, gt + 1, hi, d);
+                lo = lt;
+                hi = gt + 1;
+                d++;
+            } else if (less >= greater) {
+                if (pivot >= 0) {
+                    multikeySort(array, keys, lt, gt + 1, d + 1);
+                }
+                multikeySort(array, keys, gt + 1, hi, d);
+                hi = lt;
+            } else {
+                multikeySort(array, keys, lo, lt, d);
+                if (pivot >= 0) {
+                    multikeySort(array, keys, lt, gt + 1, d + 1);
+                }
+                lo = gt + 1;
+            }
+        }
+        // insertion sort for small ranges
+        for (int i = lo + 1; i < hi; i++) {
+            for (int j = i; j > lo && keys[j].compareTo(keys[j - 1]) < 0; j--) {
+                exchange(array, keys, j, j - 1);
+            }
+        }
+    }
+
+    /**
+     * Checks that the part of the convention repeated below holds for the
+     * current representation.
+     *
+     * @return true if the convention holds (or if assertion checking is off);
+     *         otherwise reports a violated assertion
+     * @convention <pre>
+     * exactly one of $this.intKey and $this.stringKey is not null  and
+     * 0 <= $this.front <= $this.length <= |$this.entries|  and
+     * [entries of $this.entries in [$this.front, $this.length) are not null,
+     *  and all other entries are null]  and
+     * if $this.insertionMode then
+     *   $this.front = 0
+     * else
+     *   [$this.entries[$this.front, $this.length) is sorted according to
+     *    the relation computed by $this.machineOrder.compare method]
+     * </pre>
+     */
+    private boolean conventionHolds() {
+        assert (this.intKey == null) != (this.stringKey == null) : ""
+                + "Violation of: exactly one of $this.intKey and"
+                + " $this.stringKey is not null";
+        assert 0 <= this.front : "Violation of: 0 <= $this.front";
+        assert this.front <= this.length : ""
+                + "Violation of: $this.front <= $this.length";
+        assert this.length <= this.entries.length : ""
+                + "Violation of: $this.length <= |$this.entries|";
+        for (int i = 0; i < this.entries.length; i++) {
+            boolean inMachine = this.front <= i && i < this.length;
+            assert inMachine == (this.entries[i] != null) : ""
+                    + "Violation of: exactly the entries in [$this.front,"
+                    + " $this.length) are not null";
+        }
+        if (this.insertionMode) {
+            assert this.front == 0 : ""
+                    + "Violation of: if $this.insertionMode then $this.front = 0";
+        } else {
+            for (int i = this.front + 1; i < this.length; i++) {
+                assert this.machineOrder.compare(this.entries[i - 1],
+                        this.entries[i]) <= 0 : ""
+                                + "Violation of: if not $this.insertionMode then"
+                                + " [$this.entries[$this.front, $this.length)"
+                                + " is sorted]";
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param order
+     *            total preorder for sorting
+     * @requires IS_TOTAL_PREORDER([relation computed by order.compare method]
+     * @ensures <pre>
+     * $this.insertionMode = true  and
+     * $this.machineOrder = order  and
+     * $this.front = 0  and  $this.length = 0
+     * </pre>
+     */
+    @SuppressWarnings("unchecked")
+    private void createNewRep(Comparator<T> order) {
+
+        this.insertionMode = true;
+        this.machineOrder = order;
+        /*
+         * With "new T[...]" in place of "new Object[...]" it does not compile;
+         * as shown, it results in a warning about an unchecked cast, though it
+         * cannot fail.
+         */
+        this.entries = (T[]) (new Object[INITIAL_CAPACITY]);
+        this.front = 0;
+        this.length = 0;
+
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * Constructor from order and key extractors, of which exactly one is not
+     * null; clients use the static factories below, since constructors
+     * overloaded on the two kinds of extractor would make a lambda argument
+     * ambiguous.
+     *
+     * @param order
+     *            total preorder for sorting
+     * @param intKey
+     *            extractor of the {@code int} key of each entry, or null
+     * @param stringKey
+     *            extractor of the {@code String} key of each entry, or null
+     * @requires <pre>
+     * exactly one of intKey and stringKey is not null  and
+     * [order computes the order by increasing key]
+     * </pre>
+     * @ensures this = (true, order, {})
+     */
+    private SortingMachine12(Comparator<T> order, ToIntFunction<T> intKey,
+            Function<T, String> stringKey) {
+        this.intKey = intKey;
+        this.stringKey = stringKey;
+        this.createNewRep(order);
+        assert this.conventionHolds();
+    }
+
+    /**
+     * Returns a new machine ordered by increasing {@code int} key.
+     *
+     * @param <T>
+     *            type of {@code SortingMachine} entries
+     * @param intKey
+     *            extractor of the key of each entry
+     * @return the new machine
+     * @ensures withIntKey = (true, Comparator.comparingInt(intKey), {})
+     */
+    public static <T> SortingMachine12<T> withIntKey(ToIntFunction<T> intKey) {
+        assert intKey != null : "Violation of: intKey is not null";
+
+        return new SortingMachine12<T>(Comparator.comparingInt(intKey), intKey,
+                null);
+    }
+
+    /**
+     * Returns a new machine ordered by {@code order} and sorted by
+     * {@code int} key, for a client that already has a {@code Comparator} for
+     * the order by key.
+     *
+     * @param <T>
+     *            type of {@code SortingMachine} entries
+     * @param order
+     *            total preorder for sorting
+     * @param intKey
+     *            extractor of the key of each entry
+     * @return the new machine
+     * @requires <pre>
+     * [order computes the same relation as
+     *  Comparator.comparingInt(intKey)]
+     * </pre>
+     * @ensures withIntKey = (true, order, {})
+     */
+    public static <T> SortingMachine12<T> withIntKey(Comparator<T> order,
+            ToIntFunction<T> intKey) {
+        assert intKey != null : "Violation of: intKey is not null";
+
+        return new SortingMachine12<T>(order, intKey, null);
+    }
+
+    /**
+     * Returns a new machine ordered by increasing {@code String} key (in the
+     * order of {@code String.compareTo}).
+     *
+     * @param <T>
+     *            type of {@code SortingMachine} entries
+     * @param stringKey
+     *            extractor of the key of each entry
+     * @return the new machine
+     * @requires [stringKey never returns null]
+     * @ensures withStringKey = (true, Comparator.comparing(stringKey), {})
+     */
+    public static <T> SortingMachine12<T> withStringKey(
+            Function<T, String> stringKey) {
+        assert stringKey != null : "Violation of: stringKey is not null";
+
+        return new SortingMachine12<T>(Comparator.comparing(stringKey), null,
+                stringKey);
+    }
+
+    /**
+     * Returns a new machine ordered by {@code order} and sorted by
+     * {@code String} key, for a client that already has a {@code Comparator}
+     * for the order by key.
+     *
+     * @param <T>
+     *            type of {@code SortingMachine} entries
+     * @param order
+     *            total preorder for sorting
+     * @param stringKey
+     *            extractor of the key of each entry
+     * @return the new machine
+     * @requires <pre>
+     * [stringKey never returns null]  and
+     * [order computes the same relation as Comparator.comparing(stringKey)]
+     * </pre>
+     * @ensures withStringKey = (true, order, {})
+     */
+    public static <T> SortingMachine12<T> withStringKey(Comparator<T> order,
+            Function<T, String> stringKey) {
+        assert stringKey != null : "Violation of: stringKey is not null";
+
+        return new SortingMachine12<T>(order, null, stringKey);
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @Override
+    public final SortingMachine<T> newInstance() {
+        SortingMachine<T> result;
+        if (this.intKey != null) {
+            result = withIntKey(this.machineOrder, this.intKey);
+        } else {
+            result = withStringKey(this.machineOrder, this.stringKey);
+        }
+        return result;
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep(this.machineOrder);
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void transferFrom(SortingMachine<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof SortingMachine12<?> : ""
+                + "Violation of: source is of dynamic type SortingMachine12<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type
+         * SortingMachine12<?>, and the ? must be T or the call would not have
+         * compiled.
+         */
+        SortingMachine12<T> localSource = (SortingMachine12<T>) source;
+        this.insertionMode = localSource.insertionMode;
+        this.machineOrder = localSource.machineOrder;
+        this.intKey = localSource.intKey;
+        this.stringKey = localSource.stringKey;
+        this.entries = localSource.entries;
+        this.front = localSource.front;
+        this.length = localSource.length;
+        localSource.createNewRep(localSource.machineOrder);
+        assert this.conventionHolds();
+        assert localSource.conventionHolds();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+
+        if (this.length == this.entries.length) {
+            this.entries = Arrays.copyOf(this.entries,
+                    2 * this.entries.length);
+        }
+        this.entries[this.length] = x;
+        this.length++;
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void changeToExtractionMode() {
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+
+        this.insertionMode = false;
+        // extract every key once, then sort without calling the comparator
+        if (this.intKey != null) {
+            int[] keys = new int[this.length];
+            for (int i = 0; i < this.length; i++) {
+                keys[i] = this.intKey.applyAsInt(this.entries[i]);
+            }
+            radixSort(this.entries, keys, this.length);
+        } else {
+            String[] keys = new String[this.length];
+            for (int i = 0; i < this.length; i++) {
+                keys[i] = this.stringKey.apply(this.entries[i]);
+            }
+            multikeySort(this.entries, keys, 0, this.length, 0);
+        }
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final T removeFirst() {
+        assert !this
+                .isInInsertionMode() : "Violation of: not this.insertion_mode";
+        assert this.size() > 0 : "Violation of: this.contents /= {}";
+
+        T first = this.entries[this.front];
+        this.entries[this.front] = null;
+        this.front++;
+
+        assert this.conventionHolds();
+
+        return first;
+    }
+
+    @Override
+    public final boolean isInInsertionMode() {
+        assert this.conventionHolds();
+        return this.insertionMode;
+    }
+
+    @Override
+    public final Comparator<T> order() {
+        assert this.conventionHolds();
+        return this.machineOrder;
+    }
+
+    @Override
+    public final int size() {
+        assert this.conventionHolds();
+        return this.length - this.front;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new SortingMachine12Iterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for
+     * {@code SortingMachine12}.
+     */
+    private final class SortingMachine12Iterator implements Iterator<T> {
+
+        /**
+         * Index of the next entry.
+         */
+        private int current;
+
+        /**
+         * No-argument constructor.
+         */
+        private SortingMachine12Iterator() {
+            this.current = SortingMachine12.this.front;
+            assert SortingMachine12.this.conventionHolds();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.current < SortingMachine12.this.length;
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            T next = SortingMachine12.this.entries[this.current];
+            this.current++;
+            return next;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
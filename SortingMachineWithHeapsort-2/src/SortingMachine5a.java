@@ -1,15 +1,32 @@
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
-import components.queue.Queue;
-import components.queue.Queue1L;
 import components.sortingmachine.SortingMachine;
 import components.sortingmachine.SortingMachineSecondary;
 
 /**
- * {@code SortingMachine} represented as a {@code Queue} and an array (using an
- * embedding of heap sort), with implementations of primary methods.
+ * {@code SortingMachine} represented as an array (using an embedding of heap
+ * sort), with implementations of primary methods.
+ *
+ * <p>
+ * In insertion mode, entries are appended to a growable array, which
+ * {@code changeToExtractionMode} then turns into a heap in place, with no
+ * second copy. {@code clear} keeps the array, so a machine that is filled,
+ * drained, and cleared over and over stops allocating once its array is large
+ * enough.
+ * </p>
+ *
+ * <p>
+ * A {@code SortingMachine5a} built with {@code SortingMachine5a(order, limit)}
+ * is in top-K mode: while adding, it keeps only the {@code limit} entries that
+ * come first in {@code order}, in a bounded heap whose root is the worst of
+ * them, and drops every other entry. Adding n entries then takes O(n log K)
+ * time and O(K) space, where K = {@code limit}, and extraction returns the
+ * kept entries in order.
+ * </p>
  *
  * @param <T>
  *            type of {@code SortingMachine} entries
@@ -42,22 +59,23 @@ import components.sortingmachine.SortingMachineSecondary;
  * </pre>
  * @convention <pre>
  * IS_TOTAL_PREORDER([relation computed by $this.machineOrder.compare method]  and
+ * $this.limit >= 0  and
+ * 0 <= $this.heapSize <= |$this.heap|  and
+ * for all i: integer
+ *     where (0 <= i  and  i < |$this.heap|)
+ *   ([entry at position i in $this.heap is not null] = (i < $this.heapSize))  and
  * if $this.insertionMode then
- *   $this.heapSize = 0
+ *   if $this.limit > 0 then
+ *     $this.heapSize <= $this.limit  and
+ *     SUBTREE_IS_HEAP($this.heap, 0, $this.heapSize - 1,
+ *       [relation computed by $this.reversedOrder.compare method])
  * else
- *   $this.entries = <>  and
- *   for all i: integer
- *       where (0 <= i  and  i < |$this.heap|)
- *     ([entry at position i in $this.heap is not null])  and
  *   SUBTREE_IS_HEAP($this.heap, 0, $this.heapSize - 1,
- *     [relation computed by $this.machineOrder.compare method])  and
- *   0 <= $this.heapSize <= |$this.heap|
+ *     [relation computed by $this.machineOrder.compare method])
  * </pre>
  * @correspondence <pre>
- * if $this.insertionMode then
- *   this = (true, $this.machineOrder, multiset_entries($this.entries))
- * else
- *   this = (false, $this.machineOrder, multiset_entries($this.heap[0, $this.heapSize)))
+ * this = ($this.insertionMode, $this.machineOrder,
+ *         multiset_entries($this.heap[0, $this.heapSize)))
  * </pre>
  *
  * @author Ibrahim Mohamed
@@ -69,6 +87,11 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
      * Private members --------------------------------------------------------
      */
 
+    /**
+     * Capacity of the array of a new machine without a limit.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
     /**
      * Order.
      */
@@ -80,12 +103,8 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
     private boolean insertionMode;
 
     /**
-     * Entries.
-     */
-    private Queue<T> entries;
-
-    /**
-     * Heap.
+     * Heap, or in insertion mode the entries in the order added (or, in top-K
+     * mode, the bounded heap); only the first heapSize slots are used.
      */
     private T[] heap;
 
@@ -94,6 +113,18 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
      */
     private int heapSize;
 
+    /**
+     * Maximum number of entries kept in insertion mode, or 0 if there is no
+     * limit.
+     */
+    private int limit;
+
+    /**
+     * Reverse of machineOrder, which orders the bounded heap of top-K mode
+     * with the worst kept entry at its root.
+     */
+    private Comparator<T> reversedOrder;
+
     /**
      * Exchanges entries at indices {@code i} and {@code j} of {@code array}.
      *
@@ -145,7 +176,7 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
      * @requires <pre>
      * 0 <= top  and  last < |array|  and
      * for all i: integer
-     *     where (0 <= i  and  i < |array|)
+     *     where (0 <= i  and  i <= last)
      *   ([entry at position i in array is not null])  and
      * [subtree rooted at {@code top} is a complete binary tree]  and
      * SUBTREE_IS_HEAP(array, 2 * top + 1, last,
@@ -169,9 +200,9 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
         assert order != null : "Violation of: order is not null";
         assert 0 <= top : "Violation of: 0 <= top";
         assert last < array.length : "Violation of: last < |array|";
-        for (int i = 0; i < array.length; i++) {
+        for (int i = 0; i <= last; i++) {
             assert array[i] != null : ""
-                    + "Violation of: all entries in array are not null";
+                    + "Violation of: entries in array through last are not null";
         }
         assert isHeap(array, 2 * top + 1, last, order) : ""
                 + "Violation of: SUBTREE_IS_HEAP(array, 2 * top + 1, last,"
@@ -220,6 +251,51 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
 
     }
 
+    /**
+     * Given an array that represents a complete binary tree that is a heap
+     * through entry {@code bottom - 1}, sifts the entry at {@code bottom} up
+     * to turn the tree through entry {@code bottom} into a heap.
+     *
+     * @param <T>
+     *            type of array entries
+     * @param array
+     *            the complete binary tree
+     * @param bottom
+     *            the index of the entry to sift up
+     * @param order
+     *            total preorder for sorting
+     * @updates array
+     * @requires <pre>
+     * 0 <= bottom < |array|  and
+     * [entries of array through bottom are not null]  and
+     * SUBTREE_IS_HEAP(array, 0, bottom - 1,
+     *     [relation computed by order.compare method])  and
+     * IS_TOTAL_PREORDER([relation computed by order.compare method])
+     * </pre>
+     * @ensures <pre>
+     * SUBTREE_IS_HEAP(array, 0, bottom,
+     *     [relation computed by order.compare method])  and
+     * perms(array, #array)
+     * </pre>
+     */
+    private static <T> void siftUp(T[] array, int bottom,
+            Comparator<T> order) {
+        assert array != null : "Violation of: array is not null";
+        assert order != null : "Violation of: order is not null";
+        assert 0 <= bottom : "Violation of: 0 <= bottom";
+        assert bottom < array.length : "Violation of: bottom < |array|";
+
+        // exchange the entry with its parent while it comes before the parent
+        int child = bottom;
+        int parent = (child - 1) / 2;
+        while (child > 0 && order.compare(array[child], array[parent]) < 0) {
+            exchangeEntries(array, child, parent);
+            child = parent;
+            parent = (child - 1) / 2;
+        }
+
+    }
+
     /**
      * Heapifies the subtree of the given array rooted at the given {@code top}.
      *
@@ -229,30 +305,35 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
      *            the complete binary tree
      * @param top
      *            the index of the root of the "subtree" to heapify
+     * @param last
+     *            the index of the last entry in the heap
      * @param order
      *            the total preorder for sorting
      * @updates array
      * @requires <pre>
-     * 0 <= top  and
+     * 0 <= top <= last < |array|  and
      * for all i: integer
-     *     where (0 <= i  and  i < |array|)
+     *     where (0 <= i  and  i <= last)
      *   ([entry at position i in array is not null])  and
      * [subtree rooted at {@code top} is a complete binary tree]  and
      * IS_TOTAL_PREORDER([relation computed by order.compare method])
      * </pre>
      * @ensures <pre>
-     * SUBTREE_IS_HEAP(array, top, |array| - 1,
+     * SUBTREE_IS_HEAP(array, top, last,
      *     [relation computed by order.compare method])  and
      * perms(array, #array)
      * </pre>
      */
-    private static <T> void heapify(T[] array, int top, Comparator<T> order) {
+    private static <T> void heapify(T[] array, int top, int last,
+            Comparator<T> order) {
         assert array != null : "Violation of: array is not null";
         assert order != null : "Violation of: order is not null";
         assert 0 <= top : "Violation of: 0 <= top";
-        for (int i = 0; i < array.length; i++) {
+        assert top <= last : "Violation of: top <= last";
+        assert last < array.length : "Violation of: last < |array|";
+        for (int i = 0; i <= last; i++) {
             assert array[i] != null : ""
-                    + "Violation of: all entries in array are not null";
+                    + "Violation of: entries in array through last are not null";
         }
         /*
          * Impractical to check last requires clause; no need to check the other
@@ -267,67 +348,19 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
          * the subtrees.
          */
         // right child loop
-        if ((2 * top + 1) < array.length) {
-            heapify(array, 2 * top + 1, order);
+        if ((2 * top + 1) <= last) {
+            heapify(array, 2 * top + 1, last, order);
         }
         // left child loop
-        if ((2 * top + 2) < array.length) {
-            heapify(array, 2 * top + 2, order);
+        if ((2 * top + 2) <= last) {
+            heapify(array, 2 * top + 2, last, order);
         }
 
         // call siftDown to fulfill the heap condition.
-        siftDown(array, top, array.length - 1, order);
+        siftDown(array, top, last, order);
 
     }
 
-    /**
-     * Constructs and returns an array representing a heap with the entries from
-     * the given {@code Queue}.
-     *
-     * @param <T>
-     *            type of {@code Queue} and array entries
-     * @param q
-     *            the {@code Queue} with the entries for the heap
-     * @param order
-     *            the total preorder for sorting
-     * @return the array representation of a heap
-     * @clears q
-     * @requires IS_TOTAL_PREORDER([relation computed by order.compare method])
-     * @ensures <pre>
-     * SUBTREE_IS_HEAP(buildHeap, 0, |buildHeap| - 1)  and
-     * perms(buildHeap, #q)  and
-     * for all i: integer
-     *     where (0 <= i  and  i < |buildHeap|)
-     *   ([entry at position i in buildHeap is not null])  and
-     * </pre>
-     */
-    @SuppressWarnings("unchecked")
-    private static <T> T[] buildHeap(Queue<T> q, Comparator<T> order) {
-        assert q != null : "Violation of: q is not null";
-        assert order != null : "Violation of: order is not null";
-        /*
-         * Impractical to check the requires clause.
-         */
-        /*
-         * With "new T[...]" in place of "new Object[...]" it does not compile;
-         * as shown, it results in a warning about an unchecked cast, though it
-         * cannot fail.
-         */
-        T[] heap = (T[]) (new Object[q.length()]);
-
-        int queueLength = q.length();
-
-        // iterate through the queue and place its elements into the array
-        for (int k = 0; k < queueLength; k++) {
-            heap[k] = q.dequeue();
-        }
-
-        // heapify the array
-        heapify(heap, 0, order);
-
-        return heap;
-    }
-
     /**
      * Checks if the subtree of the given {@code array} rooted at the given
      * {@code top} is a heap.
@@ -347,7 +380,7 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
      * @requires <pre>
      * 0 <= top  and  last < |array|  and
      * for all i: integer
-     *     where (0 <= i  and  i < |array|)
+     *     where (0 <= i  and  i <= last)
      *   ([entry at position i in array is not null])  and
      * [subtree rooted at {@code top} is a complete binary tree]
      * </pre>
@@ -361,9 +394,9 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
         assert array != null : "Violation of: array is not null";
         assert 0 <= top : "Violation of: 0 <= top";
         assert last < array.length : "Violation of: last < |array|";
-        for (int i = 0; i < array.length; i++) {
+        for (int i = 0; i <= last; i++) {
             assert array[i] != null : ""
-                    + "Violation of: all entries in array are not null";
+                    + "Violation of: entries in array through last are not null";
         }
         /*
          * No need to check the other requires clause, because it must be true
@@ -390,35 +423,42 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
      * @return true if the convention holds (or if assertion checking is off);
      *         otherwise reports a violated assertion
      * @convention <pre>
+     * $this.limit >= 0  and
+     * 0 <= $this.heapSize <= |$this.heap|  and
+     * for all i: integer
+     *     where (0 <= i  and  i < |$this.heap|)
+     *   ([entry at position i in $this.heap is not null] = (i < $this.heapSize))  and
      * if $this.insertionMode then
-     *   $this.heapSize = 0
+     *   if $this.limit > 0 then
+     *     $this.heapSize <= $this.limit  and
+     *     SUBTREE_IS_HEAP($this.heap, 0, $this.heapSize - 1,
+     *       [relation computed by $this.reversedOrder.compare method])
      * else
-     *   $this.entries = <>  and
-     *   for all i: integer
-     *       where (0 <= i  and  i < |$this.heap|)
-     *     ([entry at position i in $this.heap is not null])  and
      *   SUBTREE_IS_HEAP($this.heap, 0, $this.heapSize - 1,
-     *     [relation computed by $this.machineOrder.compare method])  and
-     *   0 <= $this.heapSize <= |$this.heap|
+     *     [relation computed by $this.machineOrder.compare method])
      * </pre>
      */
     private boolean conventionHolds() {
-        if (this.insertionMode) {
-            assert this.heapSize == 0 : ""
-                    + "Violation of: if $this.insertionMode then $this.heapSize = 0";
-        } else {
-            assert this.entries.length() == 0 : ""
-                    + "Violation of: if not $this.insertionMode then $this.entries = <>";
-            assert 0 <= this.heapSize : ""
-                    + "Violation of: if not $this.insertionMode then 0 <= $this.heapSize";
-            assert this.heapSize <= this.heap.length : ""
-                    + "Violation of: if not $this.insertionMode then"
-                    + " $this.heapSize <= |$this.heap|";
-            for (int i = 0; i < this.heap.length; i++) {
-                assert this.heap[i] != null : ""
-                        + "Violation of: if not $this.insertionMode then"
-                        + " all entries in $this.heap are not null";
-            }
+        assert this.limit >= 0 : "Violation of: $this.limit >= 0";
+        assert 0 <= this.heapSize : "Violation of: 0 <= $this.heapSize";
+        assert this.heapSize <= this.heap.length : ""
+                + "Violation of: $this.heapSize <= |$this.heap|";
+        for (int i = 0; i < this.heap.length; i++) {
+            assert (this.heap[i] != null) == (i < this.heapSize) : ""
+                    + "Violation of: exactly the entries in $this.heap"
+                    + " before $this.heapSize are not null";
+        }
+        if (this.insertionMode && this.limit > 0) {
+            assert this.heapSize <= this.limit : ""
+                    + "Violation of: if $this.insertionMode then"
+                    + " $this.heapSize <= $this.limit";
+            assert isHeap(this.heap, 0, this.heapSize - 1,
+                    this.reversedOrder) : ""
+                            + "Violation of: if $this.insertionMode then"
+                            + " SUBTREE_IS_HEAP($this.heap, 0, $this.heapSize - 1,"
+                            + " [relation computed by $this.reversedOrder.compare"
+                            + " method])";
+        } else if (!this.insertionMode) {
             assert isHeap(this.heap, 0, this.heapSize - 1,
                     this.machineOrder) : ""
                             + "Violation of: if not $this.insertionMode then"
@@ -438,17 +478,27 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
      * @ensures <pre>
      * $this.insertionMode = true  and
      * $this.machineOrder = order  and
-     * $this.entries = <>  and
      * $this.heapSize = 0
      * </pre>
      */
+    @SuppressWarnings("unchecked")
     private void createNewRep(Comparator<T> order) {
 
         // fulfill the post conditions
         this.insertionMode = true;
         this.machineOrder = order;
-        this.entries = new Queue1L<>();
         this.heapSize = 0;
+        int capacity = INITIAL_CAPACITY;
+        if (this.limit > 0) {
+            this.reversedOrder = Collections.reverseOrder(order);
+            capacity = Math.min(this.limit, INITIAL_CAPACITY);
+        }
+        /*
+         * With "new T[...]" in place of "new Object[...]" it does not compile;
+         * as shown, it results in a warning about an unchecked cast, though it
+         * cannot fail.
+         */
+        this.heap = (T[]) (new Object[capacity]);
 
     }
 
@@ -467,6 +517,28 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
         assert this.conventionHolds();
     }
 
+    /**
+     * Constructor from order and limit, resulting in a machine in top-K mode
+     * that keeps only the {@code limit} entries that come first in
+     * {@code order}. When more than {@code limit} entries have been added,
+     * {@code add} drops whichever entry comes last, so this.contents is always
+     * the {@code limit} first entries added so far (ties broken arbitrarily).
+     *
+     * @param order
+     *            total preorder for sorting
+     * @param limit
+     *            maximum number of entries kept
+     * @requires limit > 0
+     * @ensures this = (true, order, {})
+     */
+    public SortingMachine5a(Comparator<T> order, int limit) {
+        assert limit > 0 : "Violation of: limit > 0";
+
+        this.limit = limit;
+        this.createNewRep(order);
+        assert this.conventionHolds();
+    }
+
     /*
      * Standard methods -------------------------------------------------------
      */
@@ -475,8 +547,16 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
     @Override
     public final SortingMachine<T> newInstance() {
         try {
-            return this.getClass().getConstructor(Comparator.class)
-                    .newInstance(this.machineOrder);
+            SortingMachine<T> result;
+            if (this.limit > 0) {
+                result = this.getClass()
+                        .getConstructor(Comparator.class, int.class)
+                        .newInstance(this.machineOrder, this.limit);
+            } else {
+                result = this.getClass().getConstructor(Comparator.class)
+                        .newInstance(this.machineOrder);
+            }
+            return result;
         } catch (ReflectiveOperationException e) {
             throw new AssertionError(
                     "Cannot construct object of type " + this.getClass());
@@ -485,7 +565,10 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
 
     @Override
     public final void clear() {
-        this.createNewRep(this.machineOrder);
+        // keep the array, and its capacity, for the next round of adds
+        Arrays.fill(this.heap, 0, this.heapSize, null);
+        this.heapSize = 0;
+        this.insertionMode = true;
         assert this.conventionHolds();
     }
 
@@ -504,9 +587,10 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
         SortingMachine5a<T> localSource = (SortingMachine5a<T>) source;
         this.insertionMode = localSource.insertionMode;
         this.machineOrder = localSource.machineOrder;
-        this.entries = localSource.entries;
         this.heap = localSource.heap;
         this.heapSize = localSource.heapSize;
+        this.limit = localSource.limit;
+        this.reversedOrder = localSource.reversedOrder;
         localSource.createNewRep(localSource.machineOrder);
         assert this.conventionHolds();
         assert localSource.conventionHolds();
@@ -521,7 +605,25 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
         assert x != null : "Violation of: x is not null";
         assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
 
-        this.entries.enqueue(x);
+        if (this.limit == 0 || this.heapSize < this.limit) {
+            // room left: append x, growing the array if it is full
+            if (this.heapSize == this.heap.length) {
+                int capacity = 2 * this.heap.length;
+                if (this.limit > 0) {
+                    capacity = Math.min(this.limit, capacity);
+                }
+                this.heap = Arrays.copyOf(this.heap, capacity);
+            }
+            this.heap[this.heapSize] = x;
+            if (this.limit > 0) {
+                siftUp(this.heap, this.heapSize, this.reversedOrder);
+            }
+            this.heapSize++;
+        } else if (this.machineOrder.compare(x, this.heap[0]) < 0) {
+            // x beats the worst kept entry, which is at the root: replace it
+            this.heap[0] = x;
+            siftDown(this.heap, 0, this.heapSize - 1, this.reversedOrder);
+        }
 
         assert this.conventionHolds();
     }
@@ -532,13 +634,10 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
 
         this.insertionMode = false;
 
-        /*
-         * the sorting and building process starts in extraction mode. Ensure
-         * that the heapsize variable has the same size as the heap that is
-         * being built.
-         */
-        this.heapSize = this.entries.length();
-        this.heap = buildHeap(this.entries, this.machineOrder);
+        // turn the entries added so far into a heap in place
+        if (this.heapSize > 0) {
+            heapify(this.heap, 0, this.heapSize - 1, this.machineOrder);
+        }
 
         assert this.conventionHolds();
     }
@@ -549,11 +648,12 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
                 .isInInsertionMode() : "Violation of: not this.insertion_mode";
         assert this.size() > 0 : "Violation of: this.contents /= {}";
 
-        // extract the last child in the heap
+        // extract the root of the heap
         T extracted = this.heap[0];
-        // make the last child the root
+        // make the last child the root, and clear its old slot
         exchangeEntries(this.heap, 0, this.heapSize - 1);
         this.heapSize--;
+        this.heap[this.heapSize] = null;
 
         // sift down the root if it is too large
         siftDown(this.heap, 0, this.heapSize - 1, this.machineOrder);
@@ -578,22 +678,10 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
     @Override
     public final int size() {
 
-        int size = 0;
-
-        /*
-         * if in insertionMode, the SortingMachine is manipulating a queue so
-         * use length method. Else, if not in insertionMode, the SortingMachine
-         * is manipulating an array so use heapSize.
-         */
-        if (this.insertionMode) {
-            size = this.entries.length();
-        } else {
-            size = this.heapSize;
-        }
-
         assert this.conventionHolds();
 
-        return size;
+        // in both modes the entries are the first heapSize slots of the array
+        return this.heapSize;
     }
 
     @Override
@@ -608,12 +696,7 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
     private final class SortingMachine5aIterator implements Iterator<T> {
 
         /**
-         * Representation iterator when in insertion mode.
-         */
-        private Iterator<T> queueIterator;
-
-        /**
-         * Representation iterator count when in extraction mode.
+         * Representation iterator count.
          */
         private int arrayCurrentIndex;
 
@@ -621,22 +704,14 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
          * No-argument constructor.
          */
         private SortingMachine5aIterator() {
-            if (SortingMachine5a.this.insertionMode) {
-                this.queueIterator = SortingMachine5a.this.entries.iterator();
-            } else {
-                this.arrayCurrentIndex = 0;
-            }
+            this.arrayCurrentIndex = 0;
             assert SortingMachine5a.this.conventionHolds();
         }
 
         @Override
         public boolean hasNext() {
-            boolean hasNext;
-            if (SortingMachine5a.this.insertionMode) {
-                hasNext = this.queueIterator.hasNext();
-            } else {
-                hasNext = this.arrayCurrentIndex < SortingMachine5a.this.heapSize;
-            }
+            boolean hasNext = this.arrayCurrentIndex
+                    < SortingMachine5a.this.heapSize;
             assert SortingMachine5a.this.conventionHolds();
             return hasNext;
         }
@@ -652,13 +727,8 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
                  */
                 throw new NoSuchElementException();
             }
-            T next;
-            if (SortingMachine5a.this.insertionMode) {
-                next = this.queueIterator.next();
-            } else {
-                next = SortingMachine5a.this.heap[this.arrayCurrentIndex];
-                this.arrayCurrentIndex++;
-            }
+            T next = SortingMachine5a.this.heap[this.arrayCurrentIndex];
+            this.arrayCurrentIndex++;
             assert SortingMachine5a.this.conventionHolds();
             return next;
         }
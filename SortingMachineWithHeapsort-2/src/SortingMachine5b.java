@@ -0,0 +1,576 @@
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.queue.Queue;
+import components.queue.Queue1L;
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachineSecondary;
+
+/**
+ * {@code SortingMachine} represented as a {@code Queue} and an array (using an
+ * embedding of heap sort), with implementations of primary methods, using
+ * iterative heap algorithms.
+ *
+ * <p>
+ * Unlike {@code SortingMachine5a}, nothing here recurses, so stack depth does
+ * not grow with the number of entries. {@code changeToExtractionMode} builds
+ * the heap bottom-up, sifting down each parent from the last one to the root.
+ * {@code removeFirst} uses Floyd's variant: it moves the hole left by the root
+ * down to a leaf along the path of smaller children, with one comparison per
+ * level, then sifts the last entry up from there. Since the last entry almost
+ * always belongs near the bottom, this takes about half the comparisons of the
+ * usual sift down, which compares with both children at every level.
+ * </p>
+ *
+ * @param <T>
+ *            type of {@code SortingMachine} entries
+ * @mathdefinitions <pre>
+ * IS_TOTAL_PREORDER (
+ *   r: binary relation on T
+ *  ) : boolean is
+ *  for all x, y, z: T
+ *   ((r(x, y) or r(y, x))  and
+ *    (if (r(x, y) and r(y, z)) then r(x, z)))
+ *
+ * SUBTREE_IS_HEAP (
+ *   a: string of T,
+ *   start: integer,
+ *   stop: integer,
+ *   r: binary relation on T
+ *  ) : boolean is
+ *  [the subtree of a (when a is interpreted as a complete binary tree) rooted
+ *   at index start and only through entry stop of a satisfies the heap
+ *   ordering property according to the relation r]
+ * </pre>
+ * @convention <pre>
+ * IS_TOTAL_PREORDER([relation computed by $this.machineOrder.compare method]  and
+ * if $this.insertionMode then
+ *   $this.heapSize = 0
+ * else
+ *   $this.entries = <>  and
+ *   0 <= $this.heapSize <= |$this.heap|  and
+ *   [entries of $this.heap in [0, $this.heapSize) are not null]  and
+ *   SUBTREE_IS_HEAP($this.heap, 0, $this.heapSize - 1,
+ *     [relation computed by $this.machineOrder.compare method])
+ * </pre>
+ * @correspondence <pre>
+ * if $this.insertionMode then
+ *   this = (true, $this.machineOrder, multiset_entries($this.entries))
+ * else
+ *   this = (false, $this.machineOrder, multiset_entries($this.heap[0, $this.heapSize)))
+ * </pre>
+ *
+ * @author Ibrahim Mohamed
+ *
+ */
+public class SortingMachine5b<T> extends SortingMachineSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Order.
+     */
+    private Comparator<T> machineOrder;
+
+    /**
+     * Insertion mode.
+     */
+    private boolean insertionMode;
+
+    /**
+     * Entries.
+     */
+    private Queue<T> entries;
+
+    /**
+     * Heap.
+     */
+    private T[] heap;
+
+    /**
+     * Heap size.
+     */
+    private int heapSize;
+
+    /**
+     * Given an array that represents a complete binary tree and an index
+     * referring to the root of a subtree that would be a heap except for its
+     * root, sifts the root down to turn that whole subtree into a heap.
+     *
+     * @param <T>
+     *            type of array entries
+     * @param array
+     *            the complete binary tree
+     * @param top
+     *            the index of the root of the "subtree"
+     * @param last
+     *            the index of the last entry in the heap
+     * @param order
+     *            total preorder for sorting
+     * @updates array
+     * @requires <pre>
+     * 0 <= top  and  last < |array|  and
+     * [entries of array through last are not null]  and
+     * SUBTREE_IS_HEAP(array, 2 * top + 1, last,
+     *     [relation computed by order.compare method])  and
+     * SUBTREE_IS_HEAP(array, 2 * top + 2, last,
+     *     [relation computed by order.compare method])  and
+     * IS_TOTAL_PREORDER([relation computed by order.compare method])
+     * </pre>
+     * @ensures <pre>
+     * SUBTREE_IS_HEAP(array, top, last,
+     *     [relation computed by order.compare method])  and
+     * perms(array, #array)  and
+     * [the entries in array outside the subtree rooted at top are the same as
+     *  in #array]
+     * </pre>
+     */
+    private static <T> void siftDown(T[] array, int top, int last,
+            Comparator<T> order) {
+        assert array != null : "Violation of: array is not null";
+        assert order != null : "Violation of: order is not null";
+        assert 0 <= top : "Violation of: 0 <= top";
+        assert last < array.length : "Violation of: last < |array|";
+
+        /*
+         * move the root's entry down, pulling smaller children up, until it
+         * comes no later than both children
+         */
+        T root = array[top];
+        int hole = top;
+        int child = 2 * hole + 1;
+        boolean placed = false;
+        while (!placed && child <= last) {
+            if (child < last && order.compare(array[child + 1],
+                    array[child]) < 0) {
+                child++;
+            }
+            if (order.compare(array[child], root) < 0) {
+                array[hole] = array[child];
+                hole = child;
+                child = 2 * hole + 1;
+            } else {
+                placed = true;
+            }
+        }
+        array[hole] = root;
+
+    }
+
+    /**
+     * Given an array that represents a complete binary tree that is a heap
+     * through entry {@code last + 1} except that its root is a hole, fills the
+     * hole with the entry at {@code last + 1} using Floyd's method, so that the
+     * tree through entry {@code last} is a heap.
+     *
+     * @param <T>
+     *            type of array entries
+     * @param array
+     *            the complete binary tree
+     * @param last
+     *            the index of the last entry in the resulting heap
+     * @param order
+     *            total preorder for sorting
+     * @updates array
+     * @requires <pre>
+     * 0 <= last + 1 < |array|  and
+     * [entries of array in [1, last + 1] are not null]  and
+     * SUBTREE_IS_HEAP(array, 1, last + 1,
+     *     [relation computed by order.compare method])  and
+     * SUBTREE_IS_HEAP(array, 2, last + 1,
+     *     [relation computed by order.compare method])  and
+     * IS_TOTAL_PREORDER([relation computed by order.compare method])
+     * </pre>
+     * @ensures <pre>
+     * SUBTREE_IS_HEAP(array, 0, last,
+     *     [relation computed by order.compare method])  and
+     * multiset_entries(array[0, last]) =
+     *  multiset_entries(#array[1, last + 1])
+     * </pre>
+     */
+    private static <T> void fillRoot(T[] array, int last,
+            Comparator<T> order) {
+        assert array != null : "Violation of: array is not null";
+        assert order != null : "Violation of: order is not null";
+        assert 0 <= last + 1 : "Violation of: 0 <= last + 1";
+        assert last + 1 < array.length : "Violation of: last + 1 < |array|";
+
+        T moved = array[last + 1];
+        // walk the hole down to a leaf along the smaller children
+        int hole = 0;
+        int child = 1;
+        while (child <= last) {
+            if (child < last && order.compare(array[child + 1],
+                    array[child]) < 0) {
+                child++;
+            }
+            array[hole] = array[child];
+            hole = child;
+            child = 2 * hole + 1;
+        }
+        // then sift the moved entry up from the leaf
+        int parent = (hole - 1) / 2;
+        while (hole > 0 && order.compare(moved, array[parent]) < 0) {
+            array[hole] = array[parent];
+            hole = parent;
+            parent = (hole - 1) / 2;
+        }
+        array[hole] = moved;
+
+    }
+
+    /**
+     * Constructs and returns an array representing a heap with the entries from
+     * the given {@code Queue}, built bottom-up.
+     *
+     * @param <T>
+     *            type of {@code Queue} and array entries
+     * @param q
+     *            the {@code Queue} with the entries for the heap
+     * @param order
+     *            the total preorder for sorting
+     * @return the array representation of a heap
+     * @clears q
+     * @requires IS_TOTAL_PREORDER([relation computed by order.compare method])
+     * @ensures <pre>
+     * SUBTREE_IS_HEAP(buildHeap, 0, |buildHeap| - 1)  and
+     * perms(buildHeap, #q)  and
+     * for all i: integer
+     *     where (0 <= i  and  i < |buildHeap|)
+     *   ([entry at position i in buildHeap is not null])
+     * </pre>
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T[] buildHeap(Queue<T> q, Comparator<T> order) {
+        assert q != null : "Violation of: q is not null";
+        assert order != null : "Violation of: order is not null";
+        /*
+         * With "new T[...]" in place of "new Object[...]" it does not compile;
+         * as shown, it results in a warning about an unchecked cast, though it
+         * cannot fail.
+         */
+        T[] heap = (T[]) (new Object[q.length()]);
+        for (int k = 0; k < heap.length; k++) {
+            heap[k] = q.dequeue();
+        }
+
+        // sift down every parent, from the last one up to the root
+        for (int top = heap.length / 2 - 1; top >= 0; top--) {
+            siftDown(heap, top, heap.length - 1, order);
+        }
+
+        return heap;
+    }
+
+    /**
+     * Checks if the given {@code array} is a heap through entry {@code last}.
+     *
+     * @param <T>
+     *            type of array entries
+     * @param array
+     *            the complete binary tree
+     * @param last
+     *            the index of the last entry in the heap
+     * @param order
+     *            total preorder for sorting
+     * @return true if the given {@code array} is a heap through entry
+     *         {@code last}; false otherwise
+     * @requires <pre>
+     * last < |array|  and
+     * [entries of array through last are not null]
+     * </pre>
+     * @ensures <pre>
+     * isHeap = SUBTREE_IS_HEAP(array, 0, last,
+     *     [relation computed by order.compare method])
+     * </pre>
+     */
+    private static <T> boolean isHeap(T[] array, int last,
+            Comparator<T> order) {
+        assert array != null : "Violation of: array is not null";
+        assert last < array.length : "Violation of: last < |array|";
+
+        // no entry may come before its parent
+        boolean isHeap = true;
+        for (int i = 1; isHeap && i <= last; i++) {
+            isHeap = order.compare(array[(i - 1) / 2], array[i]) <= 0;
+        }
+        return isHeap;
+    }
+
+    /**
+     * Checks that the part of the convention repeated below holds for the
+     * current representation.
+     *
+     * @return true if the convention holds (or if assertion checking is off);
+     *         otherwise reports a violated assertion
+     * @convention <pre>
+     * if $this.insertionMode then
+     *   $this.heapSize = 0
+     * else
+     *   $this.entries = <>  and
+     *   0 <= $this.heapSize <= |$this.heap|  and
+     *   [entries of $this.heap in [0, $this.heapSize) are not null]  and
+     *   SUBTREE_IS_HEAP($this.heap, 0, $this.heapSize - 1,
+     *     [relation computed by $this.machineOrder.compare method])
+     * </pre>
+     */
+    private boolean conventionHolds() {
+        if (this.insertionMode) {
+            assert this.heapSize == 0 : ""
+                    + "Violation of: if $this.insertionMode then $this.heapSize = 0";
+        } else {
+            assert this.entries.length() == 0 : ""
+                    + "Violation of: if not $this.insertionMode then $this.entries = <>";
+            assert 0 <= this.heapSize : ""
+                    + "Violation of: if not $this.insertionMode then 0 <= $this.heapSize";
+            assert this.heapSize <= this.heap.length : ""
+                    + "Violation of: if not $this.insertionMode then"
+                    + " $this.heapSize <= |$this.heap|";
+            for (int i = 0; i < this.heapSize; i++) {
+                assert this.heap[i] != null : ""
+                        + "Violation of: if not $this.insertionMode then"
+                        + " entries of $this.heap in [0, $this.heapSize)"
+                        + " are not null";
+            }
+            assert isHeap(this.heap, this.heapSize - 1,
+                    this.machineOrder) : ""
+                            + "Violation of: if not $this.insertionMode then"
+                            + " SUBTREE_IS_HEAP($this.heap, 0, $this.heapSize - 1,"
+                            + " [relation computed by $this.machineOrder.compare"
+                            + " method])";
+        }
+        return true;
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param order
+     *            total preorder for sorting
+     * @requires IS_TOTAL_PREORDER([relation computed by order.compare method]
+     * @ensures <pre>
+     * $this.insertionMode = true  and
+     * $this.machineOrder = order  and
+     * $this.entries = <>  and
+     * $this.heapSize = 0
+     * </pre>
+     */
+    private void createNewRep(Comparator<T> order) {
+
+        this.insertionMode = true;
+        this.machineOrder = order;
+        this.entries = new Queue1L<>();
+        this.heap = null;
+        this.heapSize = 0;
+
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * Constructor from order.
+     *
+     * @param order
+     *            total preorder for sorting
+     */
+    public SortingMachine5b(Comparator<T> order) {
+        this.createNewRep(order);
+        assert this.conventionHolds();
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final SortingMachine<T> newInstance() {
+        try {
+            return this.getClass().getConstructor(Comparator.class)
+                    .newInstance(this.machineOrder);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep(this.machineOrder);
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void transferFrom(SortingMachine<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof SortingMachine5b<?> : ""
+                + "Violation of: source is of dynamic type SortingMachine5b<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type
+         * SortingMachine5b<?>, and the ? must be T or the call would not have
+         * compiled.
+         */
+        SortingMachine5b<T> localSource = (SortingMachine5b<T>) source;
+        this.insertionMode = localSource.insertionMode;
+        this.machineOrder = localSource.machineOrder;
+        this.entries = localSource.entries;
+        this.heap = localSource.heap;
+        this.heapSize = localSource.heapSize;
+        localSource.createNewRep(localSource.machineOrder);
+        assert this.conventionHolds();
+        assert localSource.conventionHolds();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+
+        this.entries.enqueue(x);
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void changeToExtractionMode() {
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+
+        this.insertionMode = false;
+        this.heapSize = this.entries.length();
+        this.heap = buildHeap(this.entries, this.machineOrder);
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final T removeFirst() {
+        assert !this
+                .isInInsertionMode() : "Violation of: not this.insertion_mode";
+        assert this.size() > 0 : "Violation of: this.contents /= {}";
+
+        T extracted = this.heap[0];
+        this.heapSize--;
+        if (this.heapSize > 0) {
+            fillRoot(this.heap, this.heapSize - 1, this.machineOrder);
+        }
+        this.heap[this.heapSize] = null;
+
+        assert this.conventionHolds();
+
+        return extracted;
+    }
+
+    @Override
+    public final boolean isInInsertionMode() {
+        assert this.conventionHolds();
+        return this.insertionMode;
+    }
+
+    @Override
+    public final Comparator<T> order() {
+        assert this.conventionHolds();
+        return this.machineOrder;
+    }
+
+    @Override
+    public final int size() {
+
+        int size = 0;
+        if (this.insertionMode) {
+            size = this.entries.length();
+        } else {
+            size = this.heapSize;
+        }
+
+        assert this.conventionHolds();
+
+        return size;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new SortingMachine5bIterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for
+     * {@code SortingMachine5b}.
+     */
+    private final class SortingMachine5bIterator implements Iterator<T> {
+
+        /**
+         * Representation iterator when in insertion mode.
+         */
+        private Iterator<T> queueIterator;
+
+        /**
+         * Representation iterator count when in extraction mode.
+         */
+        private int arrayCurrentIndex;
+
+        /**
+         * No-argument constructor.
+         */
+        private SortingMachine5bIterator() {
+            if (SortingMachine5b.this.insertionMode) {
+                this.queueIterator = SortingMachine5b.this.entries.iterator();
+            } else {
+                this.arrayCurrentIndex = 0;
+            }
+            assert SortingMachine5b.this.conventionHolds();
+        }
+
+        @Override
+        public boolean hasNext() {
+            boolean hasNext;
+            if (SortingMachine5b.this.insertionMode) {
+                hasNext = this.queueIterator.hasNext();
+            } else {
+                hasNext = this.arrayCurrentIndex < SortingMachine5b.this.heapSize;
+            }
+            assert SortingMachine5b.this.conventionHolds();
+            return hasNext;
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            T next;
+            if (SortingMachine5b.this.insertionMode) {
+                next = this.queueIterator.next();
+            } else {
+                next = SortingMachine5b.this.heap[this.arrayCurrentIndex];
+                this.arrayCurrentIndex++;
+            }
+            assert SortingMachine5b.this.conventionHolds();
+            return next;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
@@ -0,0 +1,493 @@
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachineSecondary;
+
+/**
+ * {@code SortingMachine} represented as an array (using an embedding of heap
+ * sort with a d-ary heap), with implementations of primary methods.
+ *
+ * <p>
+ * This is {@code SortingMachine5a} with each node of the heap having up to
+ * {@code arity} children instead of two. The children of the node at index i
+ * are at indices arity * i + 1 through arity * i + arity, next to each other
+ * in the array, so a heap of n entries has about log_arity(n) levels and
+ * {@code removeFirst} scans each node's children in one contiguous stretch of
+ * memory rather than touching a new cache line at nearly every level. Each
+ * level costs up to {@code arity} comparisons instead of two, so an arity of 4
+ * or 8 is the useful range; 4 is the default. The heap is built bottom-up and
+ * sifted iteratively, moving entries into a hole rather than exchanging them.
+ * </p>
+ *
+ * @param <T>
+ *            type of {@code SortingMachine} entries
+ * @mathdefinitions <pre>
+ * IS_TOTAL_PREORDER (
+ *   r: binary relation on T
+ *  ) : boolean is
+ *  for all x, y, z: T
+ *   ((r(x, y) or r(y, x))  and
+ *    (if (r(x, y) and r(y, z)) then r(x, z)))
+ *
+ * IS_D_HEAP (
+ *   a: string of T,
+ *   d: integer,
+ *   last: integer,
+ *   r: binary relation on T
+ *  ) : boolean is
+ *  for all i, j: integer
+ *      where (1 <= j  and  j <= last  and  i = (j - 1) / d)
+ *    (r(a[i], a[j]))
+ * </pre>
+ * @convention <pre>
+ * IS_TOTAL_PREORDER([relation computed by $this.machineOrder.compare method]  and
+ * $this.arity >= 2  and
+ * 0 <= $this.heapSize <= |$this.heap|  and
+ * for all i: integer
+ *     where (0 <= i  and  i < |$this.heap|)
+ *   ([entry at position i in $this.heap is not null] = (i < $this.heapSize))  and
+ * if not $this.insertionMode then
+ *   IS_D_HEAP($this.heap, $this.arity, $this.heapSize - 1,
+ *     [relation computed by $this.machineOrder.compare method])
+ * </pre>
+ * @correspondence <pre>
+ * this = ($this.insertionMode, $this.machineOrder,
+ *         multiset_entries($this.heap[0, $this.heapSize)))
+ * </pre>
+ *
+ * @author Ibrahim Mohamed
+ *
+ */
+public class SortingMachine5d<T> extends SortingMachineSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Capacity of the array of a new machine.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Number of children of each node when no arity is given.
+     */
+    private static final int DEFAULT_ARITY = 4;
+
+    /**
+     * Order.
+     */
+    private Comparator<T> machineOrder;
+
+    /**
+     * Insertion mode.
+     */
+    private boolean insertionMode;
+
+    /**
+     * Heap, or in insertion mode the entries in the order added; only the
+     * first heapSize slots are used.
+     */
+    private T[] heap;
+
+    /**
+     * Heap size.
+     */
+    private int heapSize;
+
+    /**
+     * Maximum number of children of each node of the heap.
+     */
+    private int arity;
+
+    /**
+     * Given an array that represents a complete d-ary tree through entry
+     * {@code last} and an index referring to the root of a subtree that would
+     * be a heap except for its root, sifts the root down to turn that whole
+     * subtree into a heap.
+     *
+     * @param <T>
+     *            type of array entries
+     * @param array
+     *            the complete d-ary tree
+     * @param arity
+     *            the number of children of each node
+     * @param top
+     *            the index of the root of the "subtree"
+     * @param last
+     *            the index of the last entry in the heap
+     * @param order
+     *            total preorder for sorting
+     * @updates array
+     * @requires <pre>
+     * arity >= 2  and  0 <= top  and  last < |array|  and
+     * [entries of array through last are not null]  and
+     * [the subtrees rooted at the children of top, through last, are heaps
+     *  according to the relation computed by order.compare method]
+     * </pre>
+     * @ensures <pre>
+     * [the subtree rooted at top, through last, is a heap according to the
+     *  relation computed by order.compare method]  and
+     * perms(array, #array)  and
+     * [the entries outside that subtree are the same as in #array]
+     * </pre>
+     */
+    private static <T> void siftDown(T[] array, int arity, int top, int last,
+            Comparator<T> order) {
+        T root = array[top];
+        int hole = top;
+        int firstChild = arity * hole + 1;
+        while (firstChild <= last) {
+            // find the smallest child among the (contiguous) children
+            int smallest = firstChild;
+            int lastChild = Math.min(firstChild + arity - 1, last);
+            for (int child = firstChild + 1; child <= lastChild; child++) {
+                if (order.compare(array[child], array[smallest]) < 0) {
+                    smallest = child;
+                }
+            }
+            if (order.compare(root, array[smallest]) <= 0) {
+                break;
+            }
+            // move the smallest child up into the hole
+            array[hole] = array[smallest];
+            hole = smallest;
+            firstChild = arity * hole + 1;
+        }
+        array[hole] = root;
+    }
+
+    /**
+     * Turns the entries of {@code array} through {@code last} into a heap,
+     * bottom-up.
+     *
+     * @param <T>
+     *            type of array entries
+     * @param array
+     *            the complete d-ary tree
+     * @param arity
+     *            the number of children of each node
+     * @param last
+     *            the index of the last entry in the heap
+     * @param order
+     *            total preorder for sorting
+     * @updates array
+     * @requires <pre>
+     * arity >= 2  and  last < |array|  and
+     * [entries of array through last are not null]
+     * </pre>
+     * @ensures <pre>
+     * IS_D_HEAP(array, arity, last,
+     *     [relation computed by order.compare method])  and
+     * perms(array, #array)
+     * </pre>
+     */
+    private static <T> void buildHeap(T[] array, int arity, int last,
+            Comparator<T> order) {
+        // sift down every node that has a child, from the last one back
+        for (int top = (last - 1) / arity; top >= 0; top--) {
+            siftDown(array, arity, top, last, order);
+        }
+    }
+
+    /**
+     * Checks if the entries of {@code array} through {@code last} form a
+     * heap.
+     *
+     * @param <T>
+     *            type of array entries
+     * @param array
+     *            the complete d-ary tree
+     * @param arity
+     *            the number of children of each node
+     * @param last
+     *            the index of the last entry in the heap
+     * @param order
+     *            total preorder for sorting
+     * @return true if the entries through {@code last} form a heap; false
+     *         otherwise
+     * @requires <pre>
+     * arity >= 2  and  last < |array|  and
+     * [entries of array through last are not null]
+     * </pre>
+     * @ensures <pre>
+     * isHeap = IS_D_HEAP(array, arity, last,
+     *     [relation computed by order.compare method])
+     * </pre>
+     */
+    private static <T> boolean isHeap(T[] array, int arity, int last,
+            Comparator<T> order) {
+        boolean isHeap = true;
+        for (int child = 1; isHeap && child <= last; child++) {
+            isHeap = order.compare(array[(child - 1) / arity],
+                    array[child]) <= 0;
+        }
+        return isHeap;
+    }
+
+    /**
+     * Checks that the part of the convention repeated below holds for the
+     * current representation.
+     *
+     * @return true if the convention holds (or if assertion checking is off);
+     *         otherwise reports a violated assertion
+     * @convention <pre>
+     * $this.arity >= 2  and
+     * 0 <= $this.heapSize <= |$this.heap|  and
+     * for all i: integer
+     *     where (0 <= i  and  i < |$this.heap|)
+     *   ([entry at position i in $this.heap is not null] = (i < $this.heapSize))  and
+     * if not $this.insertionMode then
+     *   IS_D_HEAP($this.heap, $this.arity, $this.heapSize - 1,
+     *     [relation computed by $this.machineOrder.compare method])
+     * </pre>
+     */
+    private boolean conventionHolds() {
+        assert this.arity >= 2 : "Violation of: $this.arity >= 2";
+        assert 0 <= this.heapSize : "Violation of: 0 <= $this.heapSize";
+        assert this.heapSize <= this.heap.length : ""
+                + "Violation of: $this.heapSize <= |$this.heap|";
+        for (int i = 0; i < this.heap.length; i++) {
+            assert (this.heap[i] != null) == (i < this.heapSize) : ""
+                    + "Violation of: exactly the entries in $this.heap"
+                    + " before $this.heapSize are not null";
+        }
+        if (!this.insertionMode) {
+            assert isHeap(this.heap, this.arity, this.heapSize - 1,
+                    this.machineOrder) : ""
+                            + "Violation of: if not $this.insertionMode then"
+                            + " IS_D_HEAP($this.heap, $this.arity,"
+                            + " $this.heapSize - 1, [relation computed by"
+                            + " $this.machineOrder.compare method])";
+        }
+        return true;
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param order
+     *            total preorder for sorting
+     * @requires IS_TOTAL_PREORDER([relation computed by order.compare method]
+     * @ensures <pre>
+     * $this.insertionMode = true  and
+     * $this.machineOrder = order  and
+     * $this.heapSize = 0
+     * </pre>
+     */
+    @SuppressWarnings("unchecked")
+    private void createNewRep(Comparator<T> order) {
+
+        this.insertionMode = true;
+        this.machineOrder = order;
+        this.heapSize = 0;
+        /*
+         * With "new T[...]" in place of "new Object[...]" it does not compile;
+         * as shown, it results in a warning about an unchecked cast, though it
+         * cannot fail.
+         */
+        this.heap = (T[]) (new Object[INITIAL_CAPACITY]);
+
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * Constructor from order, resulting in a 4-ary heap.
+     *
+     * @param order
+     *            total preorder for sorting
+     */
+    public SortingMachine5d(Comparator<T> order) {
+        this(order, DEFAULT_ARITY);
+    }
+
+    /**
+     * Constructor from order and arity.
+     *
+     * @param order
+     *            total preorder for sorting
+     * @param arity
+     *            maximum number of children of each node of the heap
+     * @requires arity >= 2
+     * @ensures this = (true, order, {})
+     */
+    public SortingMachine5d(Comparator<T> order, int arity) {
+        assert arity >= 2 : "Violation of: arity >= 2";
+
+        this.arity = arity;
+        this.createNewRep(order);
+        assert this.conventionHolds();
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final SortingMachine<T> newInstance() {
+        try {
+            return this.getClass().getConstructor(Comparator.class, int.class)
+                    .newInstance(this.machineOrder, this.arity);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep(this.machineOrder);
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void transferFrom(SortingMachine<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof SortingMachine5d<?> : ""
+                + "Violation of: source is of dynamic type SortingMachine5d<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type
+         * SortingMachine5d<?>, and the ? must be T or the call would not have
+         * compiled.
+         */
+        SortingMachine5d<T> localSource = (SortingMachine5d<T>) source;
+        this.insertionMode = localSource.insertionMode;
+        this.machineOrder = localSource.machineOrder;
+        this.heap = localSource.heap;
+        this.heapSize = localSource.heapSize;
+        this.arity = localSource.arity;
+        localSource.createNewRep(localSource.machineOrder);
+        assert this.conventionHolds();
+        assert localSource.conventionHolds();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+
+        if (this.heapSize == this.heap.length) {
+            this.heap = Arrays.copyOf(this.heap, 2 * this.heap.length);
+        }
+        this.heap[this.heapSize] = x;
+        this.heapSize++;
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void changeToExtractionMode() {
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+
+        this.insertionMode = false;
+        buildHeap(this.heap, this.arity, this.heapSize - 1, this.machineOrder);
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final T removeFirst() {
+        assert !this
+                .isInInsertionMode() : "Violation of: not this.insertion_mode";
+        assert this.size() > 0 : "Violation of: this.contents /= {}";
+
+        // extract the root, and move the last entry into its place
+        T extracted = this.heap[0];
+        this.heapSize--;
+        this.heap[0] = this.heap[this.heapSize];
+        this.heap[this.heapSize] = null;
+        if (this.heapSize > 0) {
+            siftDown(this.heap, this.arity, 0, this.heapSize - 1,
+                    this.machineOrder);
+        }
+
+        assert this.conventionHolds();
+
+        return extracted;
+    }
+
+    @Override
+    public final boolean isInInsertionMode() {
+        assert this.conventionHolds();
+        return this.insertionMode;
+    }
+
+    @Override
+    public final Comparator<T> order() {
+        assert this.conventionHolds();
+        return this.machineOrder;
+    }
+
+    @Override
+    public final int size() {
+        assert this.conventionHolds();
+        return this.heapSize;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new SortingMachine5dIterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for
+     * {@code SortingMachine5d}.
+     */
+    private final class SortingMachine5dIterator implements Iterator<T> {
+
+        /**
+         * Representation iterator count.
+         */
+        private int arrayCurrentIndex;
+
+        /**
+         * No-argument constructor.
+         */
+        private SortingMachine5dIterator() {
+            this.arrayCurrentIndex = 0;
+            assert SortingMachine5d.this.conventionHolds();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.arrayCurrentIndex < SortingMachine5d.this.heapSize;
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            T next = SortingMachine5d.this.heap[this.arrayCurrentIndex];
+            this.arrayCurrentIndex++;
+            return next;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
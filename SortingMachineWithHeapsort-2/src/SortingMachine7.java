@@ -0,0 +1,480 @@
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachineSecondary;
+
+/**
+ * {@code SortingMachine} represented as an array that is sorted, in parallel
+ * for large batches, when the machine changes to extraction mode, with
+ * implementations of primary methods.
+ *
+ * <p>
+ * {@code changeToExtractionMode} sorts the entries with a fork/join merge
+ * sort: ranges of more than {@code SEQUENTIAL_CUTOFF} entries are split in
+ * half, the halves are sorted as separate tasks in the common
+ * {@code ForkJoinPool}, and the two sorted halves are merged through a
+ * scratch array. Batches smaller than {@code PARALLEL_THRESHOLD} are sorted on
+ * the calling thread. Either way the sort is stable. {@code removeFirst} then
+ * returns the sorted entries one by one from the front of the array, in O(1)
+ * time.
+ * </p>
+ *
+ * @param <T>
+ *            type of {@code SortingMachine} entries
+ * @convention <pre>
+ * IS_TOTAL_PREORDER([relation computed by $this.machineOrder.compare method]  and
+ * 0 <= $this.front <= $this.length <= |$this.entries|  and
+ * [entries of $this.entries in [$this.front, $this.length) are not null,
+ *  and all other entries are null]  and
+ * if $this.insertionMode then
+ *   $this.front = 0
+ * else
+ *   [$this.entries[$this.front, $this.length) is sorted according to
+ *    the relation computed by $this.machineOrder.compare method]
+ * </pre>
+ * @correspondence <pre>
+ * this = ($this.insertionMode, $this.machineOrder,
+ *         multiset_entries($this.entries[$this.front, $this.length)))
+ * </pre>
+ *
+ * @author Ibrahim Mohamed
+ *
+ */
+public class SortingMachine7<T> extends SortingMachineSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Capacity of the array of a new machine.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Smallest number of entries that is sorted in parallel.
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    /**
+     * Largest range that a sort task sorts itself instead of splitting.
+     */
+    private static final int SEQUENTIAL_CUTOFF = 1 << 11;
+
+    /**
+     * Order.
+     */
+    private Comparator<T> machineOrder;
+
+    /**
+     * Insertion mode.
+     */
+    private boolean insertionMode;
+
+    /**
+     * Entries, in the order added in insertion mode and sorted in extraction
+     * mode.
+     */
+    private T[] entries;
+
+    /**
+     * Index of the first entry still in the machine.
+     */
+    private int front;
+
+    /**
+     * Index after the last entry in the machine.
+     */
+    private int length;
+
+    /**
+     * Fork/join task that stably sorts a range of an array.
+     *
+     * @param <T>
+     *            type of array entries
+     */
+    private static final class MergeSortTask<T> extends RecursiveAction {
+
+        /**
+         * Serial version UID, since {@code RecursiveAction} is serializable.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The array being sorted.
+         */
+        private final T[] array;
+
+        /**
+         * Scratch array, used when merging.
+         */
+        private final T[] scratch;
+
+        /**
+         * First index of the range.
+         */
+        private final int low;
+
+        /**
+         * Index after the last index of the range.
+         */
+        private final int high;
+
+        /**
+         * Order.
+         */
+        private final Comparator<T> order;
+
+        /**
+         * Constructor from the range to sort.
+         *
+         * @param array
+         *            the array being sorted
+         * @param scratch
+         *            the scratch array
+         * @param low
+         *            first index of the range
+         * @param high
+         *            index after the last index of the range
+         * @param order
+         *            total preorder for sorting
+         */
+        private MergeSortTask(T[] array, T[] scratch, int low, int high,
+                Comparator<T> order) {
+            this.array = array;
+            this.scratch = scratch;
+            this.low = low;
+            this.high = high;
+            this.order = order;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.high - this.low <= SEQUENTIAL_CUTOFF) {
+                Arrays.sort(this.array, this.low, this.high, this.order);
+            } else {
+                int middle = (this.low + this.high) >>> 1;
+                invokeAll(
+                        new MergeSortTask<T>(this.array, this.scratch,
+                                this.low, middle, this.order),
+                        new MergeSortTask<T>(this.array, this.scratch, middle,
+                                this.high, this.order));
+                merge(this.array, this.scratch, this.low, middle, this.high,
+                        this.order);
+            }
+        }
+
+    }
+
+    /**
+     * Merges the sorted ranges [low, middle) and [middle, high) of
+     * {@code array} into one sorted range [low, high), stably, using the same
+     * range of {@code scratch}.
+     *
+     * @param <T>
+     *            type of array entries
+     * @param array
+     *            the array
+     * @param scratch
+     *            the scratch array
+     * @param low
+     *            first index of the first range
+     * @param middle
+     *            first index of the second range
+     * @param high
+     *            index after the last index of the second range
+     * @param order
+     *            total preorder for sorting
+     * @updates array, scratch
+     * @requires <pre>
+     * 0 <= low < middle < high  and  high <= |array|  and
+     * high <= |scratch|  and
+     * [array[low, middle) and array[middle, high) are sorted by order]
+     * </pre>
+     * @ensures <pre>
+     * [array[low, high) is sorted by order]  and
+     * perms(array[low, high), #array[low, high))
+     * </pre>
+     */
+    private static <T> void merge(T[] array, T[] scratch, int low,
+            int middle, int high, Comparator<T> order) {
+        // nothing to do if the two ranges are already in order
+        if (order.compare(array[middle - 1], array[middle]) > 0) {
+            System.arraycopy(array, low, scratch, low, high - low);
+            int i = low;
+            int j = middle;
+            int k = low;
+            while (i < middle && j < high) {
+                if (order.compare(scratch[j], scratch[i]) < 0) {
+                    array[k] = scratch[j];
+                    j++;
+                } else {
+                    array[k] = scratch[i];
+                    i++;
+                }
+                k++;
+            }
+            System.arraycopy(scratch, i, array, k, middle - i);
+            System.arraycopy(scratch, j, array, k + middle - i, high - j);
+        }
+    }
+
+    /**
+     * Checks that the part of the convention repeated below holds for the
+     * current representation.
+     *
+     * @return true if the convention holds (or if assertion checking is off);
+     *         otherwise reports a violated assertion
+     * @convention <pre>
+     * 0 <= $this.front <= $this.length <= |$this.entries|  and
+     * [entries of $this.entries in [$this.front, $this.length) are not null,
+     *  and all other entries are null]  and
+     * if $this.insertionMode then
+     *   $this.front = 0
+     * else
+     *   [$this.entries[$this.front, $this.length) is sorted according to
+     *    the relation computed by $this.machineOrder.compare method]
+     * </pre>
+     */
+    private boolean conventionHolds() {
+        assert 0 <= this.front : "Violation of: 0 <= $this.front";
+        assert this.front <= this.length : ""
+                + "Violation of: $this.front <= $this.length";
+        assert this.length <= this.entries.length : ""
+                + "Violation of: $this.length <= |$this.entries|";
+        for (int i = 0; i < this.entries.length; i++) {
+            boolean inMachine = this.front <= i && i < this.length;
+            assert inMachine == (this.entries[i] != null) : ""
+                    + "Violation of: exactly the entries in [$this.front,"
+                    + " $this.length) are not null";
+        }
+        if (this.insertionMode) {
+            assert this.front == 0 : ""
+                    + "Violation of: if $this.insertionMode then $this.front = 0";
+        } else {
+            for (int i = this.front + 1; i < this.length; i++) {
+                assert this.machineOrder.compare(this.entries[i - 1],
+                        this.entries[i]) <= 0 : ""
+                                + "Violation of: if not $this.insertionMode then"
+                                + " [$this.entries[$this.front, $this.length)"
+                                + " is sorted]";
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param order
+     *            total preorder for sorting
+     * @requires IS_TOTAL_PREORDER([relation computed by order.compare method]
+     * @ensures <pre>
+     * $this.insertionMode = true  and
+     * $this.machineOrder = order  and
+     * $this.front = 0  and  $this.length = 0
+     * </pre>
+     */
+    @SuppressWarnings("unchecked")
+    private void createNewRep(Comparator<T> order) {
+
+        this.insertionMode = true;
+        this.machineOrder = order;
+        /*
+         * With "new T[...]" in place of "new Object[...]" it does not compile;
+         * as shown, it results in a warning about an unchecked cast, though it
+         * cannot fail.
+         */
+        this.entries = (T[]) (new Object[INITIAL_CAPACITY]);
+        this.front = 0;
+        this.length = 0;
+
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * Constructor from order.
+     *
+     * @param order
+     *            total preorder for sorting
+     */
+    public SortingMachine7(Comparator<T> order) {
+        this.createNewRep(order);
+        assert this.conventionHolds();
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final SortingMachine<T> newInstance() {
+        try {
+            return this.getClass().getConstructor(Comparator.class)
+                    .newInstance(this.machineOrder);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep(this.machineOrder);
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void transferFrom(SortingMachine<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof SortingMachine7<?> : ""
+                + "Violation of: source is of dynamic type SortingMachine7<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type
+         * SortingMachine7<?>, and the ? must be T or the call would not have
+         * compiled.
+         */
+        SortingMachine7<T> localSource = (SortingMachine7<T>) source;
+        this.insertionMode = localSource.insertionMode;
+        this.machineOrder = localSource.machineOrder;
+        this.entries = localSource.entries;
+        this.front = localSource.front;
+        this.length = localSource.length;
+        localSource.createNewRep(localSource.machineOrder);
+        assert this.conventionHolds();
+        assert localSource.conventionHolds();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+
+        if (this.length == this.entries.length) {
+            this.entries = Arrays.copyOf(this.entries,
+                    2 * this.entries.length);
+        }
+        this.entries[this.length] = x;
+        this.length++;
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void changeToExtractionMode() {
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+
+        this.insertionMode = false;
+        if (this.length < PARALLEL_THRESHOLD) {
+            Arrays.sort(this.entries, 0, this.length, this.machineOrder);
+        } else {
+            T[] scratch = Arrays.copyOf(this.entries, this.length);
+            ForkJoinPool.commonPool().invoke(new MergeSortTask<T>(
+                    this.entries, scratch, 0, this.length, this.machineOrder));
+        }
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final T removeFirst() {
+        assert !this
+                .isInInsertionMode() : "Violation of: not this.insertion_mode";
+        assert this.size() > 0 : "Violation of: this.contents /= {}";
+
+        T first = this.entries[this.front];
+        this.entries[this.front] = null;
+        this.front++;
+
+        assert this.conventionHolds();
+
+        return first;
+    }
+
+    @Override
+    public final boolean isInInsertionMode() {
+        assert this.conventionHolds();
+        return this.insertionMode;
+    }
+
+    @Override
+    public final Comparator<T> order() {
+        assert this.conventionHolds();
+        return this.machineOrder;
+    }
+
+    @Override
+    public final int size() {
+        assert this.conventionHolds();
+        return this.length - this.front;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new SortingMachine7Iterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for
+     * {@code SortingMachine7}.
+     */
+    private final class SortingMachine7Iterator implements Iterator<T> {
+
+        /**
+         * Index of the next entry.
+         */
+        private int current;
+
+        /**
+         * No-argument constructor.
+         */
+        private SortingMachine7Iterator() {
+            this.current = SortingMachine7.this.front;
+            assert SortingMachine7.this.conventionHolds();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.current < SortingMachine7.this.length;
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            T next = SortingMachine7.this.entries[this.current];
+            this.current++;
+            return next;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
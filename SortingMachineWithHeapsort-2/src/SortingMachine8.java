@@ -0,0 +1,998 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachineSecondary;
+
+/**
+ * {@code SortingMachine} that keeps at most a fixed number of entries in
+ * memory and spills sorted runs of entries to temporary files (an external
+ * merge sort), with implementations of primary methods.
+ *
+ * <p>
+ * In insertion mode, entries go into an array of {@code budget} slots; when it
+ * is full it is sorted and written to a new run file, so memory stays bounded
+ * however many entries are added. Runs are merged in tiers: each spilled run
+ * is at level 0, and whenever there are {@code MAX_FAN_IN} runs of one level
+ * they are merged into one run of the next level, so each entry is rewritten
+ * once per level, O(log(n / budget)) times in all. If nothing was spilled,
+ * {@code changeToExtractionMode} just sorts the array; otherwise it spills the
+ * array as a last run, merges the smallest runs until at most
+ * {@code MAX_FAN_IN} are left, and {@code removeFirst} performs a streaming
+ * k-way merge over those, reading each through a buffered stream and keeping
+ * only the front entry of each run in memory.
+ * </p>
+ *
+ * <p>
+ * Entries are written and read by a {@code Codec} supplied by the client. Run
+ * files go in a directory chosen at construction, or the default temporary
+ * directory. Each is deleted once it has been read to its end, or by
+ * {@code clear}; the files (and open streams) of a machine that is dropped
+ * without being drained or cleared are removed when it is garbage collected,
+ * and so is the stream of an abandoned iterator. A stream whose read fails is
+ * closed before the exception is reported.
+ * </p>
+ *
+ * @param <T>
+ *            type of {@code SortingMachine} entries
+ * @convention <pre>
+ * $this.budget > 0  and  |$this.buffer| = $this.budget  and
+ * 0 <= $this.bufferFront <= $this.bufferLength <= $this.budget  and
+ * [entries of $this.buffer in [$this.bufferFront, $this.bufferLength) are not
+ *  null]  and
+ * $this.size = $this.bufferLength - $this.bufferFront +
+ *   [sum over the runs in $this.runs and $this.merge of the entries not yet
+ *    read from each]  and
+ * $this.runFiles = [the runs in $this.runs and $this.merge]  and
+ * if $this.insertionMode then
+ *   $this.bufferFront = 0  and  $this.merge = {}  and
+ *   [the entries of each run in $this.runs are sorted by $this.machineOrder]
+ *   and  [the levels of the runs in $this.runs are non-increasing, with fewer
+ *   than MAX_FAN_IN runs of each level]
+ * else
+ *   $this.runs = <>  and
+ *   [$this.buffer[$this.bufferFront, $this.bufferLength) is sorted by
+ *    $this.machineOrder]  and
+ *   ($this.merge = {}  or  $this.bufferLength = 0)  and
+ *   [each run in $this.merge is open, its head is its first unread entry, and
+ *    its remaining entries are sorted by $this.machineOrder]
+ * </pre>
+ * @correspondence <pre>
+ * this = ($this.insertionMode, $this.machineOrder,
+ *         multiset_entries($this.buffer[$this.bufferFront, $this.bufferLength))
+ *         union [unread entries of the runs in $this.runs and $this.merge])
+ * </pre>
+ *
+ * @author Ibrahim Mohamed
+ *
+ */
+public class SortingMachine8<T> extends SortingMachineSecondary<T> {
+
+    /**
+     * Writes entries to, and reads entries from, run files.
+     *
+     * @param <T>
+     *            type of entries
+     */
+    public interface Codec<T> {
+
+        /**
+         * Writes {@code x} to {@code out}.
+         *
+         * @param out
+         *            the output
+         * @param x
+         *            the entry to write
+         * @throws IOException
+         *             if writing fails
+         * @updates out
+         * @ensures [out holds #out followed by an encoding of x]
+         */
+        void write(DataOutput out, T x) throws IOException;
+
+        /**
+         * Reads and returns the next entry from {@code in}.
+         *
+         * @param in
+         *            the input
+         * @return the entry read
+         * @throws IOException
+         *             if reading fails
+         * @updates in
+         * @requires [in is positioned at an encoding written by write]
+         * @ensures [read is the entry encoded there, which is not null]
+         */
+        T read(DataInput in) throws IOException;
+
+    }
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Number of runs of one level that are merged into one run of the next
+     * level, and the most runs merged, or open, at once.
+     */
+    private static final int MAX_FAN_IN = 64;
+
+    /**
+     * Removes the run files of dropped machines and closes the streams of
+     * abandoned iterators.
+     */
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    /**
+     * A sorted run of entries stored in a file, with a position in it.
+     *
+     * @param <T>
+     *            type of entries
+     */
+    private static final class Run<T> {
+
+        /**
+         * The run file.
+         */
+        private final Path file;
+
+        /**
+         * Number of entries in the file.
+         */
+        private final int count;
+
+        /**
+         * Number of merges the entries went through on their way into the
+         * file; a spilled buffer is at level 0.
+         */
+        private final int level;
+
+        /**
+         * Index in the file of {@code head}, or of the first entry to read
+         * when the run is not open.
+         */
+        private int position;
+
+        /**
+         * Stream positioned after {@code head}, or null if not open.
+         */
+        private DataInputStream in;
+
+        /**
+         * Entry at {@code position}, or null if the run is not open or has
+         * been read to its end.
+         */
+        private T head;
+
+        /**
+         * Constructor from file, number of entries, and level.
+         *
+         * @param file
+         *            the run file
+         * @param count
+         *            the number of entries in it
+         * @param level
+         *            the level of the run
+         */
+        private Run(Path file, int count, int level) {
+            this.file = file;
+            this.count = count;
+            this.level = level;
+            this.position = 0;
+        }
+
+    }
+
+    /**
+     * The runs whose files a machine owns. It is registered with
+     * {@code CLEANER} when the machine is constructed, and refers to no
+     * machine, so that it can delete the files of a machine that has become
+     * unreachable.
+     */
+    private static final class RunFiles implements Runnable {
+
+        /**
+         * The runs; each is removed when its file is deleted.
+         */
+        private final Set<Run<?>> live = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public void run() {
+            for (Run<?> run : this.live) {
+                try {
+                    close(run);
+                    Files.deleteIfExists(run.file);
+                } catch (IOException e) {
+                    // nothing more can be done for a machine that is gone
+                }
+            }
+            this.live.clear();
+        }
+
+    }
+
+    /**
+     * Order.
+     */
+    private Comparator<T> machineOrder;
+
+    /**
+     * Insertion mode.
+     */
+    private boolean insertionMode;
+
+    /**
+     * Maximum number of entries held in {@code buffer}.
+     */
+    private int budget;
+
+    /**
+     * Codec for run files.
+     */
+    private Codec<T> codec;
+
+    /**
+     * Directory for run files, or null for the default temporary directory.
+     */
+    private Path directory;
+
+    /**
+     * Runs whose files this machine owns.
+     */
+    private final RunFiles runFiles;
+
+    /**
+     * Entries held in memory.
+     */
+    private T[] buffer;
+
+    /**
+     * Index of the first entry in {@code buffer} still in the machine.
+     */
+    private int bufferFront;
+
+    /**
+     * Index after the last entry in {@code buffer}.
+     */
+    private int bufferLength;
+
+    /**
+     * Runs spilled in insertion mode.
+     */
+    private ArrayList<Run<T>> runs;
+
+    /**
+     * Open runs being merged in extraction mode, ordered by their heads.
+     */
+    private PriorityQueue<Run<T>> merge;
+
+    /**
+     * Number of entries in the machine.
+     */
+    private int size;
+
+    /**
+     * Closes the stream of {@code run}, if it is open.
+     *
+     * @param run
+     *            the run to close
+     * @throws IOException
+     *             if closing fails
+     * @ensures [run is not open]
+     */
+    private static void close(Run<?> run) throws IOException {
+        DataInputStream in = run.in;
+        if (in != null) {
+            run.in = null;
+            in.close();
+        }
+    }
+
+    /**
+     * Closes the stream of {@code run}, if it is open, ignoring any failure,
+     * because another failure is already being reported.
+     *
+     * @param run
+     *            the run to close
+     * @ensures [run is not open]
+     */
+    private static void closeQuietly(Run<?> run) {
+        try {
+            close(run);
+        } catch (IOException e) {
+            // the exception that led here is the one reported
+        }
+    }
+
+    /**
+     * Opens {@code run} at its position, reading its head.
+     *
+     * @param run
+     *            the run to open
+     * @requires [run is not open]  and  run.position < run.count
+     * @ensures [run is open and run.head is the entry at run.position]
+     */
+    private void open(Run<T> run) {
+        boolean opened = false;
+        try {
+            run.in = new DataInputStream(
+                    new BufferedInputStream(Files.newInputStream(run.file)));
+            for (int i = 0; i < run.position; i++) {
+                this.codec.read(run.in);
+            }
+            run.head = this.codec.read(run.in);
+            opened = true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (!opened) {
+                closeQuietly(run);
+            }
+        }
+    }
+
+    /**
+     * Moves {@code run} to its next entry, closing it after its last one.
+     *
+     * @param run
+     *            the run to advance
+     * @requires [run is open]
+     * @ensures <pre>
+     * run.position = #run.position + 1  and
+     * if run.position < run.count then
+     *   [run.head is the entry at run.position]
+     * else
+     *   run.head = null  and  [run is closed]
+     * </pre>
+     */
+    private void advance(Run<T> run) {
+        boolean advanced = false;
+        try {
+            run.position++;
+            if (run.position < run.count) {
+                run.head = this.codec.read(run.in);
+            } else {
+                run.head = null;
+                close(run);
+            }
+            advanced = true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (!advanced) {
+                closeQuietly(run);
+            }
+        }
+    }
+
+    /**
+     * Closes {@code run} if it is open and deletes its file.
+     *
+     * @param run
+     *            the run to discard
+     * @updates $this.runFiles
+     * @ensures $this.runFiles = #$this.runFiles \ {run}
+     */
+    private void discard(Run<T> run) {
+        this.runFiles.live.remove(run);
+        try {
+            close(run);
+            Files.deleteIfExists(run.file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns a new, empty merge queue, ordered by the heads of its runs.
+     *
+     * @return the merge queue
+     */
+    private PriorityQueue<Run<T>> newMerge() {
+        return new PriorityQueue<Run<T>>(MAX_FAN_IN + 1,
+                (r1, r2) -> this.machineOrder.compare(r1.head, r2.head));
+    }
+
+    /**
+     * Writes the entries produced by {@code source} to a new run file. If
+     * writing fails the file is deleted.
+     *
+     * @param source
+     *            the entries, in order
+     * @param count
+     *            the number of entries source produces
+     * @param level
+     *            the level of the new run
+     * @return the new run
+     * @updates $this.runFiles
+     * @ensures $this.runFiles = #$this.runFiles union {writeRun}
+     */
+    private Run<T> writeRun(Iterator<T> source, int count, int level) {
+        Path file = null;
+        boolean written = false;
+        try {
+            if (this.directory == null) {
+                file = Files.createTempFile("SortingMachine8", ".run");
+            } else {
+                file = Files.createTempFile(this.directory, "SortingMachine8",
+                        ".run");
+            }
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(file)))) {
+                for (int i = 0; i < count; i++) {
+                    this.codec.write(out, source.next());
+                }
+            }
+            written = true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (!written && file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    // the exception that led here is the one reported
+                }
+            }
+        }
+        Run<T> run = new Run<T>(file, count, level);
+        this.runFiles.live.add(run);
+        return run;
+    }
+
+    /**
+     * Merges the runs in {@code group} into one new run, then discards them.
+     * If the merge fails, their streams are closed, and their files are left
+     * for {@code clear} to delete.
+     *
+     * @param group
+     *            the runs to merge, none of them open
+     * @param level
+     *            the level of the new run
+     * @return the new run
+     * @updates $this.runFiles
+     * @requires 0 < |group| <= MAX_FAN_IN
+     * @ensures <pre>
+     * $this.runFiles = (#$this.runFiles \ group) union {mergeRuns}  and
+     * [mergeRuns holds the unread entries of the runs in group, sorted]
+     * </pre>
+     */
+    private Run<T> mergeRuns(List<Run<T>> group, int level) {
+        PriorityQueue<Run<T>> queue = this.newMerge();
+        Run<T> result;
+        try {
+            int total = 0;
+            for (Run<T> run : group) {
+                this.open(run);
+                queue.add(run);
+                total += run.count - run.position;
+            }
+            // keep only the head of each run in memory
+            Iterator<T> merged = new Iterator<T>() {
+                @Override
+                public boolean hasNext() {
+                    return !queue.isEmpty();
+                }
+
+                @Override
+                public T next() {
+                    Run<T> run = queue.poll();
+                    T x = run.head;
+                    SortingMachine8.this.advance(run);
+                    if (run.head != null) {
+                        queue.add(run);
+                    }
+                    return x;
+                }
+            };
+            result = this.writeRun(merged, total, level);
+        } finally {
+            for (Run<T> run : group) {
+                closeQuietly(run);
+            }
+        }
+        for (Run<T> run : group) {
+            this.discard(run);
+        }
+        return result;
+    }
+
+    /**
+     * Sorts the entries in {@code buffer} and writes them to a new run of
+     * level 0, then, while there are {@code MAX_FAN_IN} runs of the lowest
+     * level, merges them into one run of the next level.
+     *
+     * @updates $this.buffer, $this.bufferLength, $this.runs, $this.runFiles
+     * @requires $this.bufferFront = 0  and  $this.bufferLength > 0
+     * @ensures <pre>
+     * $this.bufferLength = 0  and
+     * [the levels of the runs in $this.runs are non-increasing, with fewer
+     *  than MAX_FAN_IN runs of each level]  and
+     * [the entries are the same as before]
+     * </pre>
+     */
+    private void spill() {
+        Arrays.sort(this.buffer, 0, this.bufferLength, this.machineOrder);
+        this.runs.add(this.writeRun(Arrays.asList(this.buffer)
+                .subList(0, this.bufferLength).iterator(), this.bufferLength,
+                0));
+        Arrays.fill(this.buffer, 0, this.bufferLength, null);
+        this.bufferLength = 0;
+
+        /*
+         * levels never increase along $this.runs, so MAX_FAN_IN runs of one
+         * level are always the last MAX_FAN_IN
+         */
+        int n = this.runs.size();
+        while (n >= MAX_FAN_IN
+                && this.runs.get(n - MAX_FAN_IN).level == this.runs
+                        .get(n - 1).level) {
+            List<Run<T>> tier = this.runs.subList(n - MAX_FAN_IN, n);
+            Run<T> merged = this.mergeRuns(new ArrayList<Run<T>>(tier),
+                    tier.get(0).level + 1);
+            tier.clear();
+            this.runs.add(merged);
+            n = this.runs.size();
+        }
+    }
+
+    /**
+     * Merges the last (and smallest) runs until at most {@code MAX_FAN_IN}
+     * are left, so that all of them can be open at once.
+     *
+     * @updates $this.runs, $this.runFiles
+     * @ensures <pre>
+     * |$this.runs| <= MAX_FAN_IN  and  [the entries are the same as before]
+     * </pre>
+     */
+    private void reduceRuns() {
+        int n = this.runs.size();
+        while (n > MAX_FAN_IN) {
+            // merging n - MAX_FAN_IN + 1 runs leaves MAX_FAN_IN
+            int groupSize = Math.min(n - MAX_FAN_IN + 1, MAX_FAN_IN);
+            List<Run<T>> group = this.runs.subList(n - groupSize, n);
+            Run<T> merged = this.mergeRuns(new ArrayList<Run<T>>(group),
+                    group.get(0).level);
+            group.clear();
+            this.runs.add(merged);
+            n = this.runs.size();
+        }
+    }
+
+    /**
+     * Discards every run file.
+     *
+     * @updates $this.runs, $this.merge, $this.runFiles
+     * @ensures $this.runFiles = {}
+     */
+    private void discardRuns() {
+        for (Run<T> run : this.runs) {
+            this.discard(run);
+        }
+        for (Run<T> run : this.merge) {
+            this.discard(run);
+        }
+    }
+
+    /**
+     * Checks that the part of the convention repeated below holds for the
+     * current representation.
+     *
+     * @return true if the convention holds (or if assertion checking is off);
+     *         otherwise reports a violated assertion
+     * @convention <pre>
+     * $this.budget > 0  and  |$this.buffer| = $this.budget  and
+     * 0 <= $this.bufferFront <= $this.bufferLength <= $this.budget  and
+     * $this.size = [number of entries in the buffer and the runs]  and
+     * |$this.runFiles| = |$this.runs| + |$this.merge|  and
+     * if $this.insertionMode then
+     *   $this.bufferFront = 0  and  $this.merge = {}
+     * else
+     *   $this.runs = <>  and
+     *   [$this.buffer[$this.bufferFront, $this.bufferLength) is sorted]  and
+     *   ($this.merge = {}  or  $this.bufferLength = 0)
+     * </pre>
+     */
+    private boolean conventionHolds() {
+        assert this.budget > 0 : "Violation of: $this.budget > 0";
+        assert this.buffer.length == this.budget : ""
+                + "Violation of: |$this.buffer| = $this.budget";
+        assert 0 <= this.bufferFront
+                && this.bufferFront <= this.bufferLength : ""
+                        + "Violation of: 0 <= $this.bufferFront <="
+                        + " $this.bufferLength";
+        assert this.bufferLength <= this.budget : ""
+                + "Violation of: $this.bufferLength <= $this.budget";
+        int count = this.bufferLength - this.bufferFront;
+        for (Run<T> run : this.runs) {
+            count += run.count - run.position;
+        }
+        for (Run<T> run : this.merge) {
+            count += run.count - run.position;
+        }
+        assert this.size == count : ""
+                + "Violation of: $this.size = [number of entries]";
+        assert this.runFiles.live.size() == this.runs.size()
+                + this.merge.size() : ""
+                        + "Violation of: $this.runFiles = [the runs in"
+                        + " $this.runs and $this.merge]";
+        if (this.insertionMode) {
+            assert this.bufferFront == 0 : ""
+                    + "Violation of: if $this.insertionMode then"
+                    + " $this.bufferFront = 0";
+            assert this.merge.isEmpty() : ""
+                    + "Violation of: if $this.insertionMode then"
+                    + " $this.merge = {}";
+        } else {
+            assert this.runs.isEmpty() : ""
+                    + "Violation of: if not $this.insertionMode then"
+                    + " $this.runs = <>";
+            for (int i = this.bufferFront + 1; i < this.bufferLength; i++) {
+                assert this.machineOrder.compare(this.buffer[i - 1],
+                        this.buffer[i]) <= 0 : ""
+                                + "Violation of: if not $this.insertionMode"
+                                + " then [the buffer is sorted]";
+            }
+            assert this.merge.isEmpty() || this.bufferLength == 0 : ""
+                    + "Violation of: if not $this.insertionMode then"
+                    + " ($this.merge = {} or $this.bufferLength = 0)";
+        }
+        return true;
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param order
+     *            total preorder for sorting
+     * @requires IS_TOTAL_PREORDER([relation computed by order.compare method]
+     * @ensures <pre>
+     * $this.insertionMode = true  and
+     * $this.machineOrder = order  and
+     * [$this has no entries and no runs]
+     * </pre>
+     */
+    @SuppressWarnings("unchecked")
+    private void createNewRep(Comparator<T> order) {
+
+        this.insertionMode = true;
+        this.machineOrder = order;
+        /*
+         * With "new T[...]" in place of "new Object[...]" it does not compile;
+         * as shown, it results in a warning about an unchecked cast, though it
+         * cannot fail.
+         */
+        this.buffer = (T[]) (new Object[this.budget]);
+        this.bufferFront = 0;
+        this.bufferLength = 0;
+        this.runs = new ArrayList<Run<T>>();
+        this.merge = this.newMerge();
+        this.size = 0;
+
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * Constructor from order, memory budget, and codec, with run files in the
+     * default temporary directory.
+     *
+     * @param order
+     *            total preorder for sorting
+     * @param budget
+     *            maximum number of entries held in memory
+     * @param codec
+     *            codec used to write entries to and read them from run files
+     * @requires budget > 0
+     * @ensures this = (true, order, {})
+     */
+    public SortingMachine8(Comparator<T> order, int budget, Codec<T> codec) {
+        this(order, budget, codec, null);
+    }
+
+    /**
+     * Constructor from order, memory budget, codec, and directory for run
+     * files.
+     *
+     * @param order
+     *            total preorder for sorting
+     * @param budget
+     *            maximum number of entries held in memory
+     * @param codec
+     *            codec used to write entries to and read them from run files
+     * @param directory
+     *            existing directory for run files, or null for the default
+     *            temporary directory
+     * @requires budget > 0
+     * @ensures this = (true, order, {})
+     */
+    public SortingMachine8(Comparator<T> order, int budget, Codec<T> codec,
+            Path directory) {
+        assert budget > 0 : "Violation of: budget > 0";
+        assert codec != null : "Violation of: codec is not null";
+
+        this.budget = budget;
+        this.codec = codec;
+        this.directory = directory;
+        this.runFiles = new RunFiles();
+        CLEANER.register(this, this.runFiles);
+        this.createNewRep(order);
+        assert this.conventionHolds();
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final SortingMachine<T> newInstance() {
+        try {
+            return this.getClass()
+                    .getConstructor(Comparator.class, int.class, Codec.class,
+                            Path.class)
+                    .newInstance(this.machineOrder, this.budget, this.codec,
+                            this.directory);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.discardRuns();
+        this.createNewRep(this.machineOrder);
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void transferFrom(SortingMachine<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof SortingMachine8<?> : ""
+                + "Violation of: source is of dynamic type SortingMachine8<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type
+         * SortingMachine8<?>, and the ? must be T or the call would not have
+         * compiled.
+         */
+        SortingMachine8<T> localSource = (SortingMachine8<T>) source;
+        this.discardRuns();
+        this.insertionMode = localSource.insertionMode;
+        this.machineOrder = localSource.machineOrder;
+        this.budget = localSource.budget;
+        this.codec = localSource.codec;
+        this.directory = localSource.directory;
+        this.buffer = localSource.buffer;
+        this.bufferFront = localSource.bufferFront;
+        this.bufferLength = localSource.bufferLength;
+        this.runs = localSource.runs;
+        /*
+         * the merge queue's comparator refers to the machine that created it,
+         * so move the open runs into a queue of this machine
+         */
+        this.merge = this.newMerge();
+        this.merge.addAll(localSource.merge);
+        // the files now belong to this machine
+        this.runFiles.live.addAll(localSource.runFiles.live);
+        localSource.runFiles.live.clear();
+        this.size = localSource.size;
+        localSource.createNewRep(localSource.machineOrder);
+        assert this.conventionHolds();
+        assert localSource.conventionHolds();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+
+        if (this.bufferLength == this.budget) {
+            this.spill();
+        }
+        this.buffer[this.bufferLength] = x;
+        this.bufferLength++;
+        this.size++;
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void changeToExtractionMode() {
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+
+        this.insertionMode = false;
+        if (this.runs.isEmpty()) {
+            // everything fits in memory: no files at all
+            Arrays.sort(this.buffer, 0, this.bufferLength, this.machineOrder);
+        } else {
+            if (this.bufferLength > 0) {
+                this.spill();
+            }
+            this.reduceRuns();
+            for (Run<T> run : this.runs) {
+                this.open(run);
+                this.merge.add(run);
+            }
+            this.runs.clear();
+        }
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final T removeFirst() {
+        assert !this
+                .isInInsertionMode() : "Violation of: not this.insertion_mode";
+        assert this.size() > 0 : "Violation of: this.contents /= {}";
+
+        T first;
+        if (this.merge.isEmpty()) {
+            first = this.buffer[this.bufferFront];
+            this.buffer[this.bufferFront] = null;
+            this.bufferFront++;
+        } else {
+            Run<T> run = this.merge.poll();
+            first = run.head;
+            this.advance(run);
+            if (run.head != null) {
+                this.merge.add(run);
+            } else {
+                this.discard(run);
+            }
+        }
+        this.size--;
+
+        assert this.conventionHolds();
+
+        return first;
+    }
+
+    @Override
+    public final boolean isInInsertionMode() {
+        assert this.conventionHolds();
+        return this.insertionMode;
+    }
+
+    @Override
+    public final Comparator<T> order() {
+        assert this.conventionHolds();
+        return this.machineOrder;
+    }
+
+    @Override
+    public final int size() {
+        assert this.conventionHolds();
+        return this.size;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new SortingMachine8Iterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for
+     * {@code SortingMachine8}. It reads each run through its own stream,
+     * starting at the run's current position, so at most one run file is open
+     * for it at a time; that stream is closed at the end of the run, or when
+     * the iterator is garbage collected.
+     */
+    private final class SortingMachine8Iterator implements Iterator<T> {
+
+        /**
+         * Index of the next entry in the buffer.
+         */
+        private int bufferIndex;
+
+        /**
+         * Copies of the runs not yet started, each at its current position.
+         */
+        private final Deque<Run<T>> pending;
+
+        /**
+         * Copy of the run being read, or null.
+         */
+        private Run<T> current;
+
+        /**
+         * Closes the stream of {@code current} if the iterator is abandoned,
+         * or null.
+         */
+        private Cleaner.Cleanable closer;
+
+        /**
+         * No-argument constructor.
+         */
+        private SortingMachine8Iterator() {
+            this.bufferIndex = SortingMachine8.this.bufferFront;
+            this.pending = new ArrayDeque<Run<T>>();
+            for (Run<T> run : SortingMachine8.this.runs) {
+                this.pending.add(new Run<T>(run.file, run.count, run.level));
+            }
+            for (Run<T> run : SortingMachine8.this.merge) {
+                Run<T> copy = new Run<T>(run.file, run.count, run.level);
+                copy.position = run.position;
+                this.pending.add(copy);
+            }
+            this.current = null;
+            this.closer = null;
+            assert SortingMachine8.this.conventionHolds();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.bufferIndex < SortingMachine8.this.bufferLength
+                    || (this.current != null && this.current.head != null)
+                    || !this.pending.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            T next;
+            if (this.bufferIndex < SortingMachine8.this.bufferLength) {
+                next = SortingMachine8.this.buffer[this.bufferIndex];
+                this.bufferIndex++;
+            } else {
+                if (this.current == null || this.current.head == null) {
+                    if (this.closer != null) {
+                        // the previous run is finished and already closed
+                        this.closer.clean();
+                    }
+                    Run<T> run = this.pending.remove();
+                    SortingMachine8.this.open(run);
+                    this.current = run;
+                    this.closer = CLEANER.register(this,
+                            () -> closeQuietly(run));
+                }
+                next = this.current.head;
+                SortingMachine8.this.advance(this.current);
+            }
+            return next;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
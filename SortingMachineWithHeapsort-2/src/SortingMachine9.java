@@ -0,0 +1,590 @@
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachineSecondary;
+
+/**
+ * {@code SortingMachine} represented as an array of runs of entries that are
+ * already in order, found as entries are added, and merged when the machine
+ * changes to extraction mode (an adaptive natural merge sort), with
+ * implementations of primary methods.
+ *
+ * <p>
+ * {@code add} compares each entry with the one before it, extending the
+ * current run while the entries are nondecreasing, or while they are strictly
+ * decreasing (such a run is reversed when it ends, which keeps equal entries
+ * in order). A run shorter than {@code MIN_RUN} is extended instead by binary
+ * insertion, so that random input does not produce many tiny runs.
+ * {@code changeToExtractionMode} then merges adjacent runs pairwise, pass by
+ * pass, skipping any merge whose two runs are already in order. Input that is
+ * already sorted, or sorted in reverse, costs one comparison per entry and no
+ * merging, and in general input made of r runs costs O(n log r) time. The sort
+ * is stable. {@code removeFirst} returns the sorted entries one by one from
+ * the front of the array, in O(1) time.
+ * </p>
+ *
+ * @param <T>
+ *            type of {@code SortingMachine} entries
+ * @convention <pre>
+ * IS_TOTAL_PREORDER([relation computed by $this.machineOrder.compare method]  and
+ * 0 <= $this.front <= $this.length <= |$this.entries|  and
+ * [entries of $this.entries in [$this.front, $this.length) are not null,
+ *  and all other entries are null]  and
+ * if $this.insertionMode then
+ *   $this.front = 0  and
+ *   0 < $this.runEnds[0] < ... < $this.runEnds[$this.runCount - 1] =
+ *     $this.runStart <= $this.length  (with $this.runStart = 0 when
+ *     $this.runCount = 0)  and
+ *   [each closed run $this.entries[$this.runEnds[i - 1], $this.runEnds[i])
+ *    is sorted]  and
+ *   if $this.descending then
+ *     [$this.entries[$this.runStart, $this.length) is strictly decreasing]
+ *   else
+ *     [$this.entries[$this.runStart, $this.length) is sorted]
+ * else
+ *   [$this.entries[$this.front, $this.length) is sorted according to
+ *    the relation computed by $this.machineOrder.compare method]
+ * </pre>
+ * @correspondence <pre>
+ * this = ($this.insertionMode, $this.machineOrder,
+ *         multiset_entries($this.entries[$this.front, $this.length)))
+ * </pre>
+ *
+ * @author Ibrahim Mohamed
+ *
+ */
+public class SortingMachine9<T> extends SortingMachineSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Capacity of the array of a new machine.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Length below which a run is extended by binary insertion.
+     */
+    private static final int MIN_RUN = 32;
+
+    /**
+     * Order.
+     */
+    private Comparator<T> machineOrder;
+
+    /**
+     * Insertion mode.
+     */
+    private boolean insertionMode;
+
+    /**
+     * Entries, in runs in insertion mode and sorted in extraction mode.
+     */
+    private T[] entries;
+
+    /**
+     * Index of the first entry still in the machine.
+     */
+    private int front;
+
+    /**
+     * Index after the last entry in the machine.
+     */
+    private int length;
+
+    /**
+     * Index after the last entry of each closed run, in order.
+     */
+    private int[] runEnds;
+
+    /**
+     * Number of closed runs.
+     */
+    private int runCount;
+
+    /**
+     * Index of the first entry of the current run.
+     */
+    private int runStart;
+
+    /**
+     * Whether the current run is strictly decreasing.
+     */
+    private boolean descending;
+
+    /**
+     * Reverses the range [low, high) of {@code array}.
+     *
+     * @param <T>
+     *            type of array entries
+     * @param array
+     *            the array
+     * @param low
+     *            first index of the range
+     * @param high
+     *            index after the last index of the range
+     * @updates array
+     * @ensures [array[low, high) is the reverse of #array[low, high)]
+     */
+    private static <T> void reverse(T[] array, int low, int high) {
+        int i = low;
+        int j = high - 1;
+        while (i < j) {
+            T tmp = array[i];
+            array[i] = array[j];
+            array[j] = tmp;
+            i++;
+            j--;
+        }
+    }
+
+    /**
+     * Merges the sorted ranges [low, middle) and [middle, high) of
+     * {@code array} into one sorted range [low, high), stably, using the same
+     * range of {@code scratch}.
+     *
+     * @param <T>
+     *            type of array entries
+     * @param array
+     *            the array
+     * @param scratch
+     *            the scratch array
+     * @param low
+     *            first index of the first range
+     * @param middle
+     *            first index of the second range
+     * @param high
+     *            index after the last index of the second range
+     * @param order
+     *            total preorder for sorting
+     * @updates array, scratch
+     * @requires <pre>
+     * 0 <= low < middle < high  and  high <= |array|  and
+     * high <= |scratch|  and
+     * [array[low, middle) and array[middle, high) are sorted by order]
+     * </pre>
+     * @ensures <pre>
+     * [array[low, high) is sorted by order]  and
+     * perms(array[low, high), #array[low, high))
+     * </pre>
+     */
+    private static <T> void merge(T[] array, T[] scratch, int low,
+            int middle, int high, Comparator<T> order) {
+        // nothing to do if the two ranges are already in order
+        if (order.compare(array[middle - 1], array[middle]) > 0) {
+            System.arraycopy(array, low, scratch, low, high - low);
+            int i = low;
+            int j = middle;
+            int k = low;
+            while (i < middle && j < high) {
+                if (order.compare(scratch[j], scratch[i]) < 0) {
+                    array[k] = scratch[j];
+                    j++;
+                } else {
+                    array[k] = scratch[i];
+                    i++;
+                }
+                k++;
+            }
+            System.arraycopy(scratch, i, array, k, middle - i);
+            System.arraycopy(scratch, j, array, k + middle - i, high - j);
+        }
+    }
+
+    /**
+     * Checks that the part of the convention repeated below holds for the
+     * current representation.
+     *
+     * @return true if the convention holds (or if assertion checking is off);
+     *         otherwise reports a violated assertion
+     * @convention <pre>
+     * 0 <= $this.front <= $this.length <= |$this.entries|  and
+     * [entries of $this.entries in [$this.front, $this.length) are not null,
+     *  and all other entries are null]  and
+     * if $this.insertionMode then
+     *   $this.front = 0  and
+     *   [$this.runEnds[0, $this.runCount) are increasing and end at
+     *    $this.runStart <= $this.length]  and
+     *   [each run is sorted, or strictly decreasing if it is the current run
+     *    and $this.descending]
+     * else
+     *   [$this.entries[$this.front, $this.length) is sorted according to
+     *    the relation computed by $this.machineOrder.compare method]
+     * </pre>
+     */
+    private boolean conventionHolds() {
+        assert 0 <= this.front : "Violation of: 0 <= $this.front";
+        assert this.front <= this.length : ""
+                + "Violation of: $this.front <= $this.length";
+        assert this.length <= this.entries.length : ""
+                + "Violation of: $this.length <= |$this.entries|";
+        for (int i = 0; i < this.entries.length; i++) {
+            boolean inMachine = this.front <= i && i < this.length;
+            assert inMachine == (this.entries[i] != null) : ""
+                    + "Violation of: exactly the entries in [$this.front,"
+                    + " $this.length) are not null";
+        }
+        if (this.insertionMode) {
+            assert this.front == 0 : ""
+                    + "Violation of: if $this.insertionMode then $this.front = 0";
+            int low = 0;
+            for (int r = 0; r < this.runCount; r++) {
+                assert low < this.runEnds[r] : ""
+                        + "Violation of: [$this.runEnds are increasing]";
+                for (int i = low + 1; i < this.runEnds[r]; i++) {
+                    assert this.machineOrder.compare(this.entries[i - 1],
+                            this.entries[i]) <= 0 : ""
+                                    + "Violation of: [each closed run is"
+                                    + " sorted]";
+                }
+                low = this.runEnds[r];
+            }
+            assert low == this.runStart : ""
+                    + "Violation of: [$this.runEnds end at $this.runStart]";
+            assert this.runStart <= this.length : ""
+                    + "Violation of: $this.runStart <= $this.length";
+            for (int i = this.runStart + 1; i < this.length; i++) {
+                int c = this.machineOrder.compare(this.entries[i - 1],
+                        this.entries[i]);
+                assert (this.descending && c > 0)
+                        || (!this.descending && c <= 0) : ""
+                                + "Violation of: [the current run is sorted,"
+                                + " or strictly decreasing if"
+                                + " $this.descending]";
+            }
+        } else {
+            for (int i = this.front + 1; i < this.length; i++) {
+                assert this.machineOrder.compare(this.entries[i - 1],
+                        this.entries[i]) <= 0 : ""
+                                + "Violation of: if not $this.insertionMode then"
+                                + " [$this.entries[$this.front, $this.length)"
+                                + " is sorted]";
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param order
+     *            total preorder for sorting
+     * @requires IS_TOTAL_PREORDER([relation computed by order.compare method]
+     * @ensures <pre>
+     * $this.insertionMode = true  and
+     * $this.machineOrder = order  and
+     * $this.front = 0  and  $this.length = 0  and
+     * $this.runCount = 0  and  $this.runStart = 0  and
+     * $this.descending = false
+     * </pre>
+     */
+    @SuppressWarnings("unchecked")
+    private void createNewRep(Comparator<T> order) {
+
+        this.insertionMode = true;
+        this.machineOrder = order;
+        /*
+         * With "new T[...]" in place of "new Object[...]" it does not compile;
+         * as shown, it results in a warning about an unchecked cast, though it
+         * cannot fail.
+         */
+        this.entries = (T[]) (new Object[INITIAL_CAPACITY]);
+        this.front = 0;
+        this.length = 0;
+        this.runEnds = new int[INITIAL_CAPACITY];
+        this.runCount = 0;
+        this.runStart = 0;
+        this.descending = false;
+
+    }
+
+    /**
+     * Ends the current run, which must not be decreasing, at
+     * {@code $this.length} and starts a new, empty one.
+     *
+     * @updates $this.runEnds, $this.runCount, $this.runStart
+     * @requires $this.runStart < $this.length  and  not $this.descending
+     * @ensures <pre>
+     * $this.runEnds[0, $this.runCount) =
+     *   #$this.runEnds[0, #$this.runCount) * <$this.length>  and
+     * $this.runStart = $this.length
+     * </pre>
+     */
+    private void closeRun() {
+        if (this.runCount == this.runEnds.length) {
+            this.runEnds = Arrays.copyOf(this.runEnds,
+                    2 * this.runEnds.length);
+        }
+        this.runEnds[this.runCount] = this.length;
+        this.runCount++;
+        this.runStart = this.length;
+    }
+
+    /**
+     * Inserts {@code x} into the current run, after any entries equal to it.
+     *
+     * @param x
+     *            the entry to insert
+     * @updates $this.entries, $this.length
+     * @requires <pre>
+     * $this.length < |$this.entries|  and  not $this.descending  and
+     * [the current run is sorted]
+     * </pre>
+     * @ensures [the current run is sorted and is #current run with x
+     *           inserted after the entries equal to it]
+     */
+    private void insertIntoRun(T x) {
+        // binary search for the first entry greater than x
+        int low = this.runStart;
+        int high = this.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (this.machineOrder.compare(this.entries[middle], x) > 0) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        System.arraycopy(this.entries, low, this.entries, low + 1,
+                this.length - low);
+        this.entries[low] = x;
+        this.length++;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * Constructor from order.
+     *
+     * @param order
+     *            total preorder for sorting
+     */
+    public SortingMachine9(Comparator<T> order) {
+        this.createNewRep(order);
+        assert this.conventionHolds();
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final SortingMachine<T> newInstance() {
+        try {
+            return this.getClass().getConstructor(Comparator.class)
+                    .newInstance(this.machineOrder);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep(this.machineOrder);
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void transferFrom(SortingMachine<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof SortingMachine9<?> : ""
+                + "Violation of: source is of dynamic type SortingMachine9<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type
+         * SortingMachine9<?>, and the ? must be T or the call would not have
+         * compiled.
+         */
+        SortingMachine9<T> localSource = (SortingMachine9<T>) source;
+        this.insertionMode = localSource.insertionMode;
+        this.machineOrder = localSource.machineOrder;
+        this.entries = localSource.entries;
+        this.front = localSource.front;
+        this.length = localSource.length;
+        this.runEnds = localSource.runEnds;
+        this.runCount = localSource.runCount;
+        this.runStart = localSource.runStart;
+        this.descending = localSource.descending;
+        localSource.createNewRep(localSource.machineOrder);
+        assert this.conventionHolds();
+        assert localSource.conventionHolds();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+
+        if (this.length == this.entries.length) {
+            this.entries = Arrays.copyOf(this.entries,
+                    2 * this.entries.length);
+        }
+        int runLength = this.length - this.runStart;
+        if (runLength == 0) {
+            this.entries[this.length] = x;
+            this.length++;
+        } else {
+            int c = this.machineOrder.compare(x,
+                    this.entries[this.length - 1]);
+            if (runLength == 1) {
+                this.descending = c < 0;
+            } else if (this.descending && c >= 0) {
+                // the decreasing run ends here; turn it around
+                reverse(this.entries, this.runStart, this.length);
+                this.descending = false;
+                c = this.machineOrder.compare(x, this.entries[this.length - 1]);
+            }
+            if (this.descending || c >= 0) {
+                this.entries[this.length] = x;
+                this.length++;
+            } else if (runLength < MIN_RUN) {
+                this.insertIntoRun(x);
+            } else {
+                this.closeRun();
+                this.entries[this.length] = x;
+                this.length++;
+            }
+        }
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void changeToExtractionMode() {
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+
+        this.insertionMode = false;
+        if (this.descending) {
+            reverse(this.entries, this.runStart, this.length);
+            this.descending = false;
+        }
+        if (this.runStart < this.length) {
+            this.closeRun();
+        }
+        if (this.runCount > 1) {
+            T[] scratch = Arrays.copyOf(this.entries, this.length);
+            // merge adjacent pairs of runs until one run is left
+            while (this.runCount > 1) {
+                int merged = 0;
+                int low = 0;
+                for (int r = 0; r < this.runCount; r += 2) {
+                    if (r + 1 < this.runCount) {
+                        merge(this.entries, scratch, low, this.runEnds[r],
+                                this.runEnds[r + 1], this.machineOrder);
+                        this.runEnds[merged] = this.runEnds[r + 1];
+                    } else {
+                        this.runEnds[merged] = this.runEnds[r];
+                    }
+                    low = this.runEnds[merged];
+                    merged++;
+                }
+                this.runCount = merged;
+            }
+        }
+        this.runCount = 0;
+        this.runStart = 0;
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final T removeFirst() {
+        assert !this
+                .isInInsertionMode() : "Violation of: not this.insertion_mode";
+        assert this.size() > 0 : "Violation of: this.contents /= {}";
+
+        T first = this.entries[this.front];
+        this.entries[this.front] = null;
+        this.front++;
+
+        assert this.conventionHolds();
+
+        return first;
+    }
+
+    @Override
+    public final boolean isInInsertionMode() {
+        assert this.conventionHolds();
+        return this.insertionMode;
+    }
+
+    @Override
+    public final Comparator<T> order() {
+        assert this.conventionHolds();
+        return this.machineOrder;
+    }
+
+    @Override
+    public final int size() {
+        assert this.conventionHolds();
+        return this.length - this.front;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new SortingMachine9Iterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for
+     * {@code SortingMachine9}.
+     */
+    private final class SortingMachine9Iterator implements Iterator<T> {
+
+        /**
+         * Index of the next entry.
+         */
+        private int current;
+
+        /**
+         * No-argument constructor.
+         */
+        private SortingMachine9Iterator() {
+            this.current = SortingMachine9.this.front;
+            assert SortingMachine9.this.conventionHolds();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.current < SortingMachine9.this.length;
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            T next = SortingMachine9.this.entries[this.current];
+            this.current++;
+            return next;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
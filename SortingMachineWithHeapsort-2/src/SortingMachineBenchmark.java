@@ -0,0 +1,310 @@
+import java.util.Comparator;
+import java.util.Random;
+import java.util.function.Function;
+
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+import components.sortingmachine.SortingMachine;
+
+/**
+ * Compares the heapsort engines of {@code SortingMachine5a} and
+ * {@code SortingMachine5b} under a cheap and an expensive comparator, and the
+ * d-ary heaps of {@code SortingMachine5d} across arities and heap sizes.
+ *
+ * <p>
+ * Each run adds entries in random order, changes to extraction mode, and
+ * removes every entry. For {@code SortingMachine5a} and
+ * {@code SortingMachine5b}, {@code SIZE} entries are sorted; the cheap order
+ * compares {@code Integer}s, and the expensive one compares strings that share
+ * a {@code PREFIX_LENGTH} character prefix, so each comparison scans the
+ * prefix. Both the number of comparisons and the time are reported. For
+ * {@code SortingMachine5d}, the time per entry is reported for each arity in
+ * {@code ARITIES} and each heap size from {@code MIN_HEAP_SIZE} up to the
+ * size given as the first command line argument (default
+ * {@code DEFAULT_MAX_HEAP_SIZE}), by factors of 10; small heaps are sorted
+ * repeatedly, so that each measurement covers at least
+ * {@code MIN_ENTRIES_TIMED} entries.
+ * </p>
+ *
+ * <p>
+ * Times are the best of {@code ROUNDS} rounds after {@code WARMUP_ROUNDS}
+ * rounds. Run without {@code -ea}, since {@code conventionHolds} takes linear
+ * time.
+ * </p>
+ *
+ * @author Ibrahim Mohamed
+ *
+ */
+public final class SortingMachineBenchmark {
+
+    /**
+     * Number of entries sorted in each run.
+     */
+    private static final int SIZE = 1000000;
+
+    /**
+     * Length of the prefix shared by the keys of the expensive order.
+     */
+    private static final int PREFIX_LENGTH = 200;
+
+    /**
+     * Arities of the d-ary heaps compared.
+     */
+    private static final int[] ARITIES = {2, 4, 8};
+
+    /**
+     * Smallest d-ary heap size measured.
+     */
+    private static final int MIN_HEAP_SIZE = 1000;
+
+    /**
+     * Largest d-ary heap size measured when none is given.
+     */
+    private static final int DEFAULT_MAX_HEAP_SIZE = 1000000;
+
+    /**
+     * Ratio between consecutive d-ary heap sizes measured.
+     */
+    private static final int HEAP_SIZE_STEP = 10;
+
+    /**
+     * Smallest number of entries sorted in one d-ary heap measurement.
+     */
+    private static final int MIN_ENTRIES_TIMED = 1000000;
+
+    /**
+     * Number of rounds run before the measured ones.
+     */
+    private static final int WARMUP_ROUNDS = 2;
+
+    /**
+     * Number of measured rounds; the best one is reported.
+     */
+    private static final int ROUNDS = 5;
+
+    /**
+     * Seed for the pseudo-random generator, so runs are reproducible.
+     */
+    private static final long SEED = 20261019L;
+
+    /**
+     * Nanoseconds per millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private SortingMachineBenchmark() {
+    }
+
+    /**
+     * Sorts {@code keys} once with a machine made by {@code factory}.
+     *
+     * @param <T>
+     *            type of the keys
+     * @param factory
+     *            makes an empty machine from an order
+     * @param keys
+     *            the entries to sort
+     * @param order
+     *            the order to sort by
+     * @return the number of entries removed
+     */
+    private static <T> int sort(
+            Function<Comparator<T>, SortingMachine<T>> factory, T[] keys,
+            Comparator<T> order) {
+        SortingMachine<T> m = factory.apply(order);
+        for (T x : keys) {
+            m.add(x);
+        }
+        m.changeToExtractionMode();
+        int removed = 0;
+        while (m.size() > 0) {
+            m.removeFirst();
+            removed++;
+        }
+        return removed;
+    }
+
+    /**
+     * Returns the best time, in milliseconds, of sorting {@code keys} with
+     * machines made by {@code factory}.
+     *
+     * @param <T>
+     *            type of the keys
+     * @param factory
+     *            makes an empty machine from an order
+     * @param keys
+     *            the entries to sort
+     * @param order
+     *            the order to sort by
+     * @return the best time of a round, in milliseconds
+     */
+    private static <T> long sortTime(
+            Function<Comparator<T>, SortingMachine<T>> factory, T[] keys,
+            Comparator<T> order) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+            long start = System.nanoTime();
+            int removed = sort(factory, keys, order);
+            long elapsed = System.nanoTime() - start;
+            assert removed == keys.length;
+            if (round >= WARMUP_ROUNDS) {
+                best = Math.min(best, elapsed);
+            }
+        }
+        return Math.round(best / NANOS_PER_MILLI);
+    }
+
+    /**
+     * Returns the best time per entry, in nanoseconds, of sorting
+     * {@code keys} with machines made by {@code factory}, repeating the sort
+     * so that each round covers at least {@code MIN_ENTRIES_TIMED} entries.
+     *
+     * @param <T>
+     *            type of the keys
+     * @param factory
+     *            makes an empty machine from an order
+     * @param keys
+     *            the entries to sort
+     * @param order
+     *            the order to sort by
+     * @return the best time per entry of a round, in nanoseconds
+     */
+    private static <T> double nanosPerEntry(
+            Function<Comparator<T>, SortingMachine<T>> factory, T[] keys,
+            Comparator<T> order) {
+        int repeats = Math.max(1, MIN_ENTRIES_TIMED / keys.length);
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+            long start = System.nanoTime();
+            long removed = 0;
+            for (int r = 0; r < repeats; r++) {
+                removed += sort(factory, keys, order);
+            }
+            long elapsed = System.nanoTime() - start;
+            assert removed == (long) repeats * keys.length;
+            if (round >= WARMUP_ROUNDS) {
+                best = Math.min(best, elapsed);
+            }
+        }
+        return (double) best / ((long) repeats * keys.length);
+    }
+
+    /**
+     * Returns the number of comparisons made sorting {@code keys} with a
+     * machine made by {@code factory}.
+     *
+     * @param <T>
+     *            type of the keys
+     * @param factory
+     *            makes an empty machine from an order
+     * @param keys
+     *            the entries to sort
+     * @param order
+     *            the order to sort by
+     * @return the number of comparisons
+     */
+    private static <T> long comparisons(
+            Function<Comparator<T>, SortingMachine<T>> factory, T[] keys,
+            Comparator<T> order) {
+        long[] count = new long[1];
+        sort(factory, keys, (x, y) -> {
+            count[0]++;
+            return order.compare(x, y);
+        });
+        return count[0];
+    }
+
+    /**
+     * Reports the comparisons and time of sorting {@code keys} with machines
+     * made by {@code factory}.
+     *
+     * @param <T>
+     *            type of the keys
+     * @param out
+     *            the output stream
+     * @param name
+     *            name of the implementation
+     * @param factory
+     *            makes an empty machine from an order
+     * @param keys
+     *            the entries to sort
+     * @param order
+     *            the order to sort by
+     * @updates out.content
+     * @requires out.is_open
+     * @ensures <pre>
+     * out.is_open  and
+     * out.content = #out.content * [a line with the measurements]
+     * </pre>
+     */
+    private static <T> void report(SimpleWriter out, String name,
+            Function<Comparator<T>, SortingMachine<T>> factory, T[] keys,
+            Comparator<T> order) {
+        out.println("    " + name + ": " + comparisons(factory, keys, order)
+                + " comparisons, " + sortTime(factory, keys, order) + " ms");
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments
+     */
+    public static void main(String[] args) {
+        SimpleWriter out = new SimpleWriter1L();
+        Random rnd = new Random(SEED);
+        Integer[] numbers = new Integer[SIZE];
+        String[] strings = new String[SIZE];
+        StringBuilder prefix = new StringBuilder();
+        for (int i = 0; i < PREFIX_LENGTH; i++) {
+            prefix.append('k');
+        }
+        for (int i = 0; i < SIZE; i++) {
+            numbers[i] = rnd.nextInt();
+            strings[i] = prefix.toString() + numbers[i];
+        }
+        Comparator<Integer> cheap = Integer::compare;
+        Comparator<String> expensive = String::compareTo;
+        out.println(SIZE + " random entries, best of " + ROUNDS + " rounds");
+        out.println("  cheap order (Integer):");
+        report(out, "SortingMachine5a", SortingMachine5a<Integer>::new,
+                numbers, cheap);
+        report(out, "SortingMachine5b", SortingMachine5b<Integer>::new,
+                numbers, cheap);
+        out.println("  expensive order (String, " + PREFIX_LENGTH
+                + "-char shared prefix):");
+        report(out, "SortingMachine5a", SortingMachine5a<String>::new,
+                strings, expensive);
+        report(out, "SortingMachine5b", SortingMachine5b<String>::new,
+                strings, expensive);
+
+        int maxHeapSize = DEFAULT_MAX_HEAP_SIZE;
+        if (args.length > 0) {
+            maxHeapSize = Integer.parseInt(args[0]);
+        }
+        out.println("SortingMachine5d, cheap order, ns per entry:");
+        for (int n = MIN_HEAP_SIZE; n <= maxHeapSize; n *= HEAP_SIZE_STEP) {
+            Integer[] heapKeys = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                heapKeys[i] = rnd.nextInt();
+            }
+            StringBuilder line = new StringBuilder("  n=" + n + ":");
+            for (int d : ARITIES) {
+                double nanos = nanosPerEntry(
+                        o -> new SortingMachine5d<Integer>(o, d), heapKeys,
+                        cheap);
+                line.append("  d=" + d + " " + Math.round(nanos));
+            }
+            out.println(line.toString());
+            if (n > Integer.MAX_VALUE / HEAP_SIZE_STEP) {
+                // the next size would overflow
+                n = maxHeapSize;
+            }
+        }
+        out.close();
+    }
+
+}
@@ -0,0 +1,74 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.Comparator;
+
+import org.junit.Test;
+
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachine1L;
+
+/**
+ * Customized JUnit test fixture for {@code SortingMachine10}.
+ */
+public final class SortingMachine10Test extends SortingMachineTest {
+
+    @Override
+    protected SortingMachine<String> constructorTest(Comparator<String> order) {
+        return new SortingMachine10<String>(order);
+    }
+
+    @Override
+    protected SortingMachine<String> constructorRef(Comparator<String> order) {
+        return new SortingMachine1L<String>(order);
+    }
+
+    /**
+     * Test case for merge of two nonempty machines.
+     */
+    @Test
+    public void mergeTest() {
+        Comparator<String> order = Comparator.naturalOrder();
+        SortingMachine10<String> m = new SortingMachine10<String>(order);
+        SortingMachine10<String> other = new SortingMachine10<String>(order);
+        SortingMachine<String> mExpected = this.constructorRef(order);
+        SortingMachine<String> otherExpected = this.constructorRef(order);
+        for (String x : new String[] {"d", "a", "c", "b", "e"}) {
+            mExpected.add(x);
+        }
+        m.add("d");
+        m.add("a");
+        other.add("c");
+        other.add("b");
+        other.add("e");
+        m.merge(other);
+        assertEquals(mExpected, m);
+        assertEquals(otherExpected, other);
+        m.changeToExtractionMode();
+        assertEquals("a", m.removeFirst());
+        assertEquals("b", m.removeFirst());
+        assertEquals("c", m.removeFirst());
+        assertEquals("d", m.removeFirst());
+        assertEquals("e", m.removeFirst());
+    }
+
+    /**
+     * Test case for merge of a machine in extraction mode into an empty one.
+     */
+    @Test
+    public void mergeIntoEmptyTest() {
+        Comparator<String> order = Comparator.naturalOrder();
+        SortingMachine10<String> m = new SortingMachine10<String>(order);
+        SortingMachine10<String> other = new SortingMachine10<String>(order);
+        SortingMachine<String> mExpected = this.constructorRef(order);
+        SortingMachine<String> otherExpected = this.constructorRef(order);
+        mExpected.add("green");
+        mExpected.add("red");
+        other.add("red");
+        other.add("green");
+        other.changeToExtractionMode();
+        m.merge(other);
+        assertEquals(mExpected, m);
+        assertEquals(otherExpected, other);
+    }
+
+}
@@ -0,0 +1,198 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+
+import org.junit.Test;
+
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachine1L;
+
+/**
+ * Customized JUnit test fixture for {@code SortingMachine11}.
+ */
+public final class SortingMachine11Test extends SortingMachineTest {
+
+    @Override
+    protected SortingMachine<String> constructorTest(Comparator<String> order) {
+        return new SortingMachine11<String>(order);
+    }
+
+    @Override
+    protected SortingMachine<String> constructorRef(Comparator<String> order) {
+        return new SortingMachine1L<String>(order);
+    }
+
+    /**
+     * Test case for add called by several threads at once.
+     *
+     * @throws InterruptedException
+     *             if interrupted while waiting for the adding threads
+     */
+    @Test
+    public void concurrentAddTest() throws InterruptedException {
+        final int threads = 4;
+        final int perThread = 500;
+        Comparator<String> order = Comparator.naturalOrder();
+        SortingMachine<String> m = this.constructorTest(order);
+        String[] expected = new String[threads * perThread];
+        Thread[] adders = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int first = t * perThread;
+            for (int i = first; i < first + perThread; i++) {
+                expected[i] = String.format("%05d", i);
+            }
+            adders[t] = new Thread(() -> {
+                // add in reverse, so each buffer needs sorting
+                for (int i = first + perThread - 1; i >= first; i--) {
+                    m.add(expected[i]);
+                }
+            });
+        }
+        for (Thread adder : adders) {
+            adder.start();
+        }
+        for (Thread adder : adders) {
+            adder.join();
+        }
+        assertEquals(expected.length, m.size());
+        Arrays.sort(expected, order);
+        m.changeToExtractionMode();
+        for (String x : expected) {
+            assertEquals(x, m.removeFirst());
+        }
+        assertEquals(0, m.size());
+    }
+
+    /**
+     * Test case for clear called between two rounds of adds by the same
+     * threads: the second round must not see the entries of the first.
+     *
+     * @throws InterruptedException
+     *             if interrupted while waiting for the adding threads
+     */
+    @Test
+    public void clearThenAddFromSameThreadsTest() throws InterruptedException {
+        final int threads = 4;
+        final int perThread = 500;
+        Comparator<String> order = Comparator.naturalOrder();
+        SortingMachine<String> m = this.constructorTest(order);
+        String[] expected = new String[threads * perThread];
+        Thread[] adders = new Thread[threads];
+        boolean[] finished = new boolean[threads];
+        // the main thread also waits, to clear between the two rounds
+        CyclicBarrier barrier = new CyclicBarrier(threads + 1);
+        for (int t = 0; t < threads; t++) {
+            final int worker = t;
+            final int first = t * perThread;
+            for (int i = first; i < first + perThread; i++) {
+                expected[i] = String.format("b%05d", i);
+            }
+            adders[t] = new Thread(() -> {
+                try {
+                    for (int i = first; i < first + perThread; i++) {
+                        m.add(String.format("a%05d", i));
+                    }
+                    barrier.await();
+                    // wait for the clear
+                    barrier.await();
+                    for (int i = first + perThread - 1; i >= first; i--) {
+                        m.add(expected[i]);
+                    }
+                    finished[worker] = true;
+                } catch (InterruptedException | BrokenBarrierException e) {
+                    finished[worker] = false;
+                }
+            });
+        }
+        for (Thread adder : adders) {
+            adder.start();
+        }
+        try {
+            barrier.await();
+            assertEquals(expected.length, m.size());
+            m.clear();
+            assertEquals(0, m.size());
+            barrier.await();
+        } catch (BrokenBarrierException e) {
+            throw new AssertionError(e);
+        }
+        for (Thread adder : adders) {
+            adder.join();
+        }
+        for (boolean done : finished) {
+            assertTrue(done);
+        }
+        assertEquals(expected.length, m.size());
+        Arrays.sort(expected, order);
+        m.changeToExtractionMode();
+        for (String x : expected) {
+            assertEquals(x, m.removeFirst());
+        }
+        assertEquals(0, m.size());
+    }
+
+    /**
+     * Test case for changeToExtractionMode rethrowing an exception thrown by
+     * the order partway through sorting a buffer large enough to be merged,
+     * and leaving every entry in the machine.
+     */
+    @Test
+    public void changeToExtractionModeRethrowsTest() {
+        final int size = 2000;
+        final int failingCall = 18000;
+        int[] calls = new int[1];
+        Comparator<String> order = (x, y) -> {
+            calls[0]++;
+            if (calls[0] == failingCall) {
+                throw new IllegalStateException("cannot compare " + x);
+            }
+            return x.compareTo(y);
+        };
+        SortingMachine<String> m = this.constructorTest(order);
+        String[] expected = new String[size];
+        for (int i = 0; i < size; i++) {
+            expected[i] = String.format("%05d", i);
+        }
+        Random rnd = new Random(49);
+        for (int i = size - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            String tmp = expected[i];
+            expected[i] = expected[j];
+            expected[j] = tmp;
+        }
+        for (String x : expected) {
+            m.add(x);
+        }
+        boolean rethrown = false;
+        try {
+            m.changeToExtractionMode();
+        } catch (IllegalStateException e) {
+            rethrown = true;
+        }
+        assertTrue(rethrown);
+        assertTrue(m.isInInsertionMode());
+        assertEquals(size, m.size());
+        String[] contents = new String[size];
+        int n = 0;
+        for (String x : m) {
+            contents[n] = x;
+            n++;
+        }
+        assertEquals(size, n);
+        Arrays.sort(contents);
+        Arrays.sort(expected);
+        assertArrayEquals(expected, contents);
+        // the order no longer throws, so the machine can still be used
+        m.changeToExtractionMode();
+        for (String x : expected) {
+            assertEquals(x, m.removeFirst());
+        }
+    }
+
+}
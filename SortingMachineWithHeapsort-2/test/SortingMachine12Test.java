@@ -0,0 +1,132 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.Test;
+
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachine1L;
+
+/**
+ * Customized JUnit test fixture for {@code SortingMachine12}, keyed by the
+ * lower-case form of each {@code String}, which orders the test entries the
+ * same way as the case-insensitive order of {@code SortingMachineTest}.
+ */
+public final class SortingMachine12Test extends SortingMachineTest {
+
+    @Override
+    protected SortingMachine<String> constructorTest(Comparator<String> order) {
+        return SortingMachine12.withStringKey(order,
+                s -> s.toLowerCase(Locale.ROOT));
+    }
+
+    @Override
+    protected SortingMachine<String> constructorRef(Comparator<String> order) {
+        return new SortingMachine1L<String>(order);
+    }
+
+    /**
+     * Test case for {@code String} keys that are prefixes of each other.
+     */
+    @Test
+    public void prefixKeysTest() {
+        SortingMachine<String> m = SortingMachine12.withStringKey(s -> s);
+        m.add("tagcloud");
+        m.add("tag");
+        m.add("ta");
+        m.add("tags");
+        m.add("t");
+        m.add("tag");
+        m.changeToExtractionMode();
+        assertEquals("t", m.removeFirst());
+        assertEquals("ta", m.removeFirst());
+        assertEquals("tag", m.removeFirst());
+        assertEquals("tag", m.removeFirst());
+        assertEquals("tagcloud", m.removeFirst());
+        assertEquals("tags", m.removeFirst());
+    }
+
+    /**
+     * Test case for {@code int} keys, including negative ones.
+     */
+    @Test
+    public void intKeyTest() {
+        SortingMachine<String> m = SortingMachine12
+                .withIntKey(s -> Integer.parseInt(s));
+        m.add("300");
+        m.add("-5");
+        m.add("70000");
+        m.add("0");
+        m.add("-2147483648");
+        m.add("2147483647");
+        m.add("-70000");
+        m.changeToExtractionMode();
+        assertEquals("-2147483648", m.removeFirst());
+        assertEquals("-70000", m.removeFirst());
+        assertEquals("-5", m.removeFirst());
+        assertEquals("0", m.removeFirst());
+        assertEquals("300", m.removeFirst());
+        assertEquals("70000", m.removeFirst());
+        assertEquals("2147483647", m.removeFirst());
+    }
+
+    /**
+     * Test case for many duplicate {@code String} keys that share a long
+     * prefix, which must not nest a call per shared character.
+     */
+    @Test
+    public void duplicateLongKeysTest() {
+        final int keyLength = 20000;
+        final int copies = 20;
+        StringBuilder prefix = new StringBuilder();
+        for (int i = 0; i < keyLength; i++) {
+            prefix.append('k');
+        }
+        String[] distinct = {prefix.toString(), prefix + "a", prefix + "b",
+            prefix.substring(1), prefix.substring(0, keyLength / 2) + "a"};
+        String[] expected = new String[distinct.length * copies];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = distinct[i % distinct.length];
+        }
+        Random rnd = new Random(50);
+        for (int i = expected.length - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            String tmp = expected[i];
+            expected[i] = expected[j];
+            expected[j] = tmp;
+        }
+        SortingMachine<String> m = SortingMachine12.withStringKey(s -> s);
+        for (String x : expected) {
+            m.add(x);
+        }
+        Arrays.sort(expected);
+        m.changeToExtractionMode();
+        for (String x : expected) {
+            assertEquals(x, m.removeFirst());
+        }
+        assertEquals(0, m.size());
+    }
+
+    /**
+     * Test case for newInstance of a machine with {@code int} keys, which
+     * must sort by the same key.
+     */
+    @Test
+    public void newInstanceIntKeyTest() {
+        SortingMachine<String> m = SortingMachine12.withIntKey(s -> s.length());
+        SortingMachine<String> n = m.newInstance();
+        n.add("green");
+        n.add("a");
+        n.add("blue");
+        n.add("red");
+        n.changeToExtractionMode();
+        assertEquals("a", n.removeFirst());
+        assertEquals("red", n.removeFirst());
+        assertEquals("blue", n.removeFirst());
+        assertEquals("green", n.removeFirst());
+    }
+
+}
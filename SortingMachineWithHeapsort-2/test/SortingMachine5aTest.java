@@ -1,5 +1,9 @@
+import static org.junit.Assert.assertEquals;
+
 import java.util.Comparator;
 
+import org.junit.Test;
+
 import components.sortingmachine.SortingMachine;
 import components.sortingmachine.SortingMachine1L;
 
@@ -18,4 +22,27 @@ public final class SortingMachine5aTest extends SortingMachineTest {
         return new SortingMachine1L<String>(order);
     }
 
+    /**
+     * Test case for clear after a partial extraction, then reuse.
+     */
+    @Test
+    public void clearReuseTest() {
+        Comparator<String> order = Comparator.naturalOrder();
+        SortingMachine<String> m = this.constructorTest(order);
+        SortingMachine<String> mExpected = this.constructorRef(order);
+        m.add("b");
+        m.add("a");
+        m.add("c");
+        m.changeToExtractionMode();
+        m.removeFirst();
+        m.clear();
+        m.add("e");
+        m.add("d");
+        mExpected.add("e");
+        mExpected.add("d");
+        assertEquals(mExpected, m);
+        m.changeToExtractionMode();
+        assertEquals("d", m.removeFirst());
+    }
+
 }
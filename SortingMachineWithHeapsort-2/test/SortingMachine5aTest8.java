@@ -0,0 +1,46 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.Comparator;
+
+import org.junit.Test;
+
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachine1L;
+
+/**
+ * Customized JUnit test fixture for {@code SortingMachine5a} in top-K mode,
+ * keeping at most 8 entries.
+ */
+public final class SortingMachine5aTest8 extends SortingMachineTest {
+
+    @Override
+    protected SortingMachine<String> constructorTest(Comparator<String> order) {
+        final int limit = 8;
+        return new SortingMachine5a<String>(order, limit);
+    }
+
+    @Override
+    protected SortingMachine<String> constructorRef(Comparator<String> order) {
+        return new SortingMachine1L<String>(order);
+    }
+
+    /**
+     * Test case for add beyond the limit, which keeps only the first entries.
+     */
+    @Test
+    public void topKTest() {
+        Comparator<String> order = Comparator.naturalOrder();
+        SortingMachine<String> m = new SortingMachine5a<String>(order, 2);
+        m.add("d");
+        m.add("b");
+        m.add("e");
+        m.add("a");
+        m.add("c");
+        assertEquals(2, m.size());
+        m.changeToExtractionMode();
+        assertEquals("a", m.removeFirst());
+        assertEquals("b", m.removeFirst());
+        assertEquals(0, m.size());
+    }
+
+}
@@ -0,0 +1,77 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import org.junit.Test;
+
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachine1L;
+
+/**
+ * Customized JUnit test fixture for {@code SortingMachine7}.
+ */
+public final class SortingMachine7Test extends SortingMachineTest {
+
+    @Override
+    protected SortingMachine<String> constructorTest(Comparator<String> order) {
+        return new SortingMachine7<String>(order);
+    }
+
+    @Override
+    protected SortingMachine<String> constructorRef(Comparator<String> order) {
+        return new SortingMachine1L<String>(order);
+    }
+
+    /**
+     * Test case for a batch large enough to be sorted in parallel, with
+     * repeated entries.
+     */
+    @Test
+    public void largeBatchTest() {
+        final int size = 20000;
+        final int distinct = 5000;
+        final long seed = 7L;
+        Random rnd = new Random(seed);
+        Comparator<String> order = Comparator.naturalOrder();
+        SortingMachine<String> m = this.constructorTest(order);
+        String[] expected = new String[size];
+        for (int i = 0; i < size; i++) {
+            expected[i] = Integer.toString(rnd.nextInt(distinct));
+            m.add(expected[i]);
+        }
+        Arrays.sort(expected, order);
+        m.changeToExtractionMode();
+        for (int i = 0; i < size; i++) {
+            assertEquals(expected[i], m.removeFirst());
+        }
+    }
+
+    /**
+     * Test case for equal entries coming out in the order they were added,
+     * in a batch large enough that they meet in parallel merges.
+     */
+    @Test
+    public void largeBatchStabilityTest() {
+        final int size = 20000;
+        final int keys = 30;
+        final long seed = 44L;
+        Random rnd = new Random(seed);
+        // order by the two-digit key only; the rest records the add order
+        Comparator<String> order = (s1, s2) -> s1.substring(0, 2)
+                .compareTo(s2.substring(0, 2));
+        SortingMachine<String> m = this.constructorTest(order);
+        String[] expected = new String[size];
+        for (int i = 0; i < size; i++) {
+            expected[i] = String.format("%02d:%05d", rnd.nextInt(keys), i);
+            m.add(expected[i]);
+        }
+        Arrays.sort(expected, order);
+        m.changeToExtractionMode();
+        for (int i = 0; i < size; i++) {
+            assertEquals(expected[i], m.removeFirst());
+        }
+    }
+
+}
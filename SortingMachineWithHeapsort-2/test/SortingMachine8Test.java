@@ -0,0 +1,212 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachine1L;
+
+/**
+ * Customized JUnit test fixture for {@code SortingMachine8}, with a memory
+ * budget small enough that most tests spill runs to files.
+ */
+public final class SortingMachine8Test extends SortingMachineTest {
+
+    /**
+     * Memory budget of the machines under test.
+     */
+    private static final int BUDGET = 2;
+
+    /**
+     * Codec for {@code String} entries.
+     */
+    private static final SortingMachine8.Codec<String> CODEC =
+            new SortingMachine8.Codec<String>() {
+                @Override
+                public void write(DataOutput out, String x)
+                        throws IOException {
+                    out.writeUTF(x);
+                }
+
+                @Override
+                public String read(DataInput in) throws IOException {
+                    return in.readUTF();
+                }
+            };
+
+    @Override
+    protected SortingMachine<String> constructorTest(Comparator<String> order) {
+        return new SortingMachine8<String>(order, BUDGET, CODEC);
+    }
+
+    @Override
+    protected SortingMachine<String> constructorRef(Comparator<String> order) {
+        return new SortingMachine1L<String>(order);
+    }
+
+    /**
+     * Returns the number of files in {@code directory}.
+     *
+     * @param directory
+     *            the directory
+     * @return the number of files
+     * @throws IOException
+     *             if the directory cannot be listed
+     */
+    private static long fileCount(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    /**
+     * Adds {@code size} entries with repeated keys to a machine writing its
+     * runs in {@code directory}, then checks that they come out in order.
+     *
+     * @param size
+     *            the number of entries
+     * @param directory
+     *            directory for run files
+     */
+    private void sortAndCheck(int size, Path directory) {
+        final int distinct = 500;
+        final long seed = 45L;
+        Random rnd = new Random(seed);
+        Comparator<String> order = Comparator.naturalOrder();
+        SortingMachine<String> m = new SortingMachine8<String>(order, BUDGET,
+                CODEC, directory);
+        String[] expected = new String[size];
+        for (int i = 0; i < size; i++) {
+            expected[i] = Integer.toString(rnd.nextInt(distinct));
+            m.add(expected[i]);
+        }
+        Arrays.sort(expected, order);
+        m.changeToExtractionMode();
+        assertEquals(size, m.size());
+        for (int i = 0; i < size; i++) {
+            assertEquals(expected[i], m.removeFirst());
+        }
+        assertEquals(0, m.size());
+    }
+
+    /**
+     * Test case for more runs left at the change to extraction mode than can
+     * be open at once: 63 runs of level 1 and 63 of level 0.
+     *
+     * @throws IOException
+     *             if the run directory cannot be made or listed
+     */
+    @Test
+    public void manyRunsTest() throws IOException {
+        final int size = BUDGET * (63 * 64 + 63);
+        Path directory = Files.createTempDirectory("SortingMachine8Test");
+        this.sortAndCheck(size, directory);
+        assertEquals(0, fileCount(directory));
+        Files.delete(directory);
+    }
+
+    /**
+     * Test case for enough runs that runs of level 1 are merged into a run of
+     * level 2.
+     *
+     * @throws IOException
+     *             if the run directory cannot be made or listed
+     */
+    @Test
+    public void secondLevelMergeTest() throws IOException {
+        final int size = BUDGET * (64 * 64 + 1);
+        Path directory = Files.createTempDirectory("SortingMachine8Test");
+        this.sortAndCheck(size, directory);
+        assertEquals(0, fileCount(directory));
+        Files.delete(directory);
+    }
+
+    /**
+     * Test case for the run files being deleted by clear, in insertion mode
+     * and part way through extraction.
+     *
+     * @throws IOException
+     *             if the run directory cannot be made or listed
+     */
+    @Test
+    public void clearDeletesRunFilesTest() throws IOException {
+        final int size = 100;
+        Path directory = Files.createTempDirectory("SortingMachine8Test");
+        SortingMachine<String> m = new SortingMachine8<String>(
+                Comparator.naturalOrder(), BUDGET, CODEC, directory);
+        for (int i = 0; i < size; i++) {
+            m.add(String.format("%03d", size - i));
+        }
+        assertTrue(fileCount(directory) > 0);
+        m.clear();
+        assertEquals(0, fileCount(directory));
+        for (int i = 0; i < size; i++) {
+            m.add(String.format("%03d", size - i));
+        }
+        m.changeToExtractionMode();
+        assertEquals("001", m.removeFirst());
+        m.clear();
+        assertEquals(0, fileCount(directory));
+        Files.delete(directory);
+    }
+
+    /**
+     * Test case for the run files being deleted by clear after the codec
+     * fails while the runs are being merged.
+     *
+     * @throws IOException
+     *             if the run directory cannot be made or listed
+     */
+    @Test
+    public void clearAfterReadFailureTest() throws IOException {
+        final int size = 100;
+        Path directory = Files.createTempDirectory("SortingMachine8Test");
+        SortingMachine8.Codec<String> failing =
+                new SortingMachine8.Codec<String>() {
+                    @Override
+                    public void write(DataOutput out, String x)
+                            throws IOException {
+                        out.writeUTF(x);
+                    }
+
+                    @Override
+                    public String read(DataInput in) throws IOException {
+                        String x = in.readUTF();
+                        if (x.equals("050")) {
+                            throw new IOException("cannot read " + x);
+                        }
+                        return x;
+                    }
+                };
+        SortingMachine<String> m = new SortingMachine8<String>(
+                Comparator.naturalOrder(), BUDGET, failing, directory);
+        for (int i = 0; i < size; i++) {
+            m.add(String.format("%03d", i));
+        }
+        boolean failed = false;
+        try {
+            m.changeToExtractionMode();
+            while (m.size() > 0) {
+                m.removeFirst();
+            }
+        } catch (UncheckedIOException e) {
+            failed = true;
+        }
+        assertTrue(failed);
+        m.clear();
+        assertEquals(0, fileCount(directory));
+        Files.delete(directory);
+    }
+
+}
@@ -0,0 +1,82 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import org.junit.Test;
+
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachine1L;
+
+/**
+ * Customized JUnit test fixture for {@code SortingMachine9}.
+ */
+public final class SortingMachine9Test extends SortingMachineTest {
+
+    @Override
+    protected SortingMachine<String> constructorTest(Comparator<String> order) {
+        return new SortingMachine9<String>(order);
+    }
+
+    @Override
+    protected SortingMachine<String> constructorRef(Comparator<String> order) {
+        return new SortingMachine1L<String>(order);
+    }
+
+    /**
+     * Test case for input made of ascending, descending, and random runs.
+     */
+    @Test
+    public void mixedRunsTest() {
+        final int size = 1000;
+        final long seed = 46L;
+        Random rnd = new Random(seed);
+        Comparator<String> order = Comparator.naturalOrder();
+        SortingMachine<String> m = this.constructorTest(order);
+        String[] expected = new String[size];
+        for (int i = 0; i < size; i++) {
+            int key;
+            if (i < size / 3) {
+                key = i;
+            } else if (i < 2 * size / 3) {
+                key = size - i;
+            } else {
+                // random keys, some of them repeated
+                key = rnd.nextInt(size / 3);
+            }
+            expected[i] = String.format("%04d", key);
+            m.add(expected[i]);
+        }
+        Arrays.sort(expected, order);
+        m.changeToExtractionMode();
+        for (int i = 0; i < size; i++) {
+            assertEquals(expected[i], m.removeFirst());
+        }
+    }
+
+    /**
+     * Test case for equal entries coming out in the order they were added.
+     */
+    @Test
+    public void stabilityTest() {
+        final int size = 200;
+        final int keys = 5;
+        Comparator<String> order = (s1, s2) -> Character.compare(s1.charAt(0),
+                s2.charAt(0));
+        SortingMachine<String> m = this.constructorTest(order);
+        String[] expected = new String[size];
+        for (int i = 0; i < size; i++) {
+            // keys go down, then up, then down again, ...
+            int key = (i / keys) % 2 == 0 ? keys - 1 - i % keys : i % keys;
+            expected[i] = (char) ('a' + key) + Integer.toString(i);
+            m.add(expected[i]);
+        }
+        Arrays.sort(expected, order);
+        m.changeToExtractionMode();
+        for (int i = 0; i < size; i++) {
+            assertEquals(expected[i], m.removeFirst());
+        }
+    }
+
+}